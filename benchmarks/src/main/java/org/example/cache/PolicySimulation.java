@@ -0,0 +1,75 @@
+package org.example.cache;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Replays accesses against a bare eviction policy, without the cache around it, and counts hits,
+ * misses and evictions. A key is a hit if it is resident, that is, it was put and not evicted
+ * since. A miss puts the key, as a read-through cache would.
+ *
+ * <p>Lives in the cache's package so the simulator can drive the package-private
+ * {@link EvictionPolicyHandler} implementations. Not thread-safe; each simulation runs on one thread.
+ */
+public final class PolicySimulation {
+    private final String name;
+    private final EvictionPolicyHandler<Long> policy;
+    private final Set<Long> resident = new HashSet<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    PolicySimulation(String name, EvictionPolicyHandler<Long> policy) {
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
+        this.policy = Objects.requireNonNull(policy, "Eviction policy cannot be null");
+    }
+
+    /**
+     * Creates a simulation of a built-in policy, created the same way as by {@link CacheProviderImpl}.
+     */
+    public static PolicySimulation of(EvictionPolicy evictionPolicy, int capacity) {
+        return new PolicySimulation(evictionPolicy.name(), CacheProviderImpl.createEvictionPolicy(evictionPolicy, capacity));
+    }
+
+    /**
+     * Records one access.
+     * @return true if the key was resident
+     */
+    public boolean record(long key) {
+        Long boxed = key;
+        if (resident.contains(boxed)) {
+            hits++;
+            policy.onAccess(boxed);
+            return true;
+        }
+        misses++;
+        resident.add(boxed);
+        Long evicted = policy.onPut(boxed);
+        if (evicted != null) {
+            evictions++;
+            resident.remove(evicted);
+        }
+        return false;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int capacity() {
+        return policy.getCapacity();
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count, with the GC profiler reporting the allocation rate.
+ * Accepts the usual JMH command line options; {@code -t} runs a single thread count instead of
+ * the sweep. Examples:
+ * <pre>
+ * java -jar target/benchmarks.jar                                  # everything
+ * java -jar target/benchmarks.jar CacheBenchmark.get -p capacity=1000
+ * java -jar target/benchmarks.jar -p policy=TINY_LFU,LINKED_LRU -t 8
+ * </pre>
+ */
+public final class BenchmarkRunner {
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int[] threadCounts = commandLine.getThreads().hasValue()
+                ? new int[] {commandLine.getThreads().get()}
+                : THREAD_COUNTS;
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class);
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(CacheBenchmark.class.getSimpleName());
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
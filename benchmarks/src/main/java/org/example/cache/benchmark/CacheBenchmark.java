@@ -0,0 +1,129 @@
+package org.example.cache.benchmark;
+
+import org.example.cache.CachePreference;
+import org.example.cache.CacheProviderImpl;
+import org.example.cache.EvictionPolicy;
+import org.example.cache.MemoryCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code get}, {@code put} and a 75/25 read/write mix against caches created by
+ * {@link CacheProviderImpl}. Throughput mode reports ops/s; sample time mode reports latency
+ * percentiles, including p99. Run through {@link BenchmarkRunner} to sweep thread counts and
+ * record the allocation rate.
+ *
+ * <p>Keys are drawn from a key space twice the capacity, so the cache holds at most half of it and
+ * the hit ratio depends on the policy and the distribution. At least sixteen draws are made per
+ * cached entry, so that even a skewed distribution reaches well over the capacity in distinct keys
+ * and a large cache keeps evicting. Keys are boxed up front, once each, so that the measured
+ * allocations are the cache's own. Each trial starts from a full cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+    private static final int MIN_KEY_COUNT = 1 << 16;
+    private static final int DRAWS_PER_ENTRY = 16;
+    private static final String VALUE = "value";
+
+    @Param({"LRU", "LFU", "FIFO"})
+    public EvictionPolicy policy;
+
+    @Param({"1000", "100000"})
+    public int capacity;
+
+    @Param({"ZIPF", "UNIFORM"})
+    public KeyDistribution distribution;
+
+    private MemoryCache<Integer, String> cache;
+    private Integer[] keys;
+    /** Keys minus one; their count is a power of two, so that indexes wrap around with a mask. */
+    private int keyMask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new CacheProviderImpl().getCache(new CachePreference(policy, capacity));
+        int keyCount = Integer.highestOneBit(Math.max(MIN_KEY_COUNT, DRAWS_PER_ENTRY * capacity) - 1) << 1;
+        int[] drawn = distribution.generate(keyCount, 2 * capacity, 42);
+        Integer[] boxes = new Integer[2 * capacity];
+        keys = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            Integer key = boxes[drawn[i]];
+            if (key == null) {
+                key = drawn[i];
+                boxes[drawn[i]] = key;
+            }
+            keys[i] = key;
+        }
+        keyMask = keyCount - 1;
+        fill();
+    }
+
+    /**
+     * Puts the drawn keys in order until the cache is full, then, as a skewed distribution may
+     * repeat its hot keys too often to fill a large cache, the rest of the key space.
+     */
+    private void fill() {
+        for (int i = 0; i < keys.length && size() < capacity; i++) {
+            cache.put(keys[i], VALUE);
+        }
+        for (int key = 0; key < 2 * capacity && size() < capacity; key++) {
+            cache.put(key, VALUE);
+        }
+        if (size() != capacity) {
+            throw new IllegalStateException("Cache holds " + size() + " entries after warm-up instead of " + capacity);
+        }
+    }
+
+    private long size() {
+        cache.cleanUp();
+        return cache.stats().estimatedSize();
+    }
+
+    /**
+     * Each thread walks the shared key sequence from its own random offset.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    public Optional<String> get(ThreadState thread) {
+        return cache.get(keys[thread.index++ & keyMask]);
+    }
+
+    @Benchmark
+    public void put(ThreadState thread) {
+        cache.put(keys[thread.index++ & keyMask], VALUE);
+    }
+
+    @Benchmark
+    public Optional<String> mixed(ThreadState thread) {
+        int index = thread.index++;
+        Integer key = keys[index & keyMask];
+        if ((index & 3) == 0) {
+            cache.put(key, VALUE);
+            return Optional.empty();
+        }
+        return cache.get(key);
+    }
+}
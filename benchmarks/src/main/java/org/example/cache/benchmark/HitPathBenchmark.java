@@ -0,0 +1,99 @@
+package org.example.cache.benchmark;
+
+import org.example.cache.CachePreference;
+import org.example.cache.CacheProviderImpl;
+import org.example.cache.EvictionPolicy;
+import org.example.cache.LongMemoryCache;
+import org.example.cache.MemoryCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures lookups that always hit, to check the hit path allocates nothing. Run it with the GC
+ * profiler, which {@link BenchmarkRunner} adds, and read {@code gc.alloc.rate.norm}: the
+ * allocation-free lookups report 0 B/op, while {@link #get} pays for its Optional.
+ * <pre>
+ * java -jar target/benchmarks.jar HitPathBenchmark -t 1
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitPathBenchmark {
+    private static final int KEY_COUNT = 1 << 12;
+    private static final int KEY_MASK = KEY_COUNT - 1;
+    private static final String VALUE = "value";
+    private static final Function<Integer, CompletableFuture<Optional<String>>> NO_LOADER = key -> {
+        throw new IllegalStateException("Every lookup should hit");
+    };
+
+    @Param({"LRU", "LFU", "FIFO"})
+    public EvictionPolicy policy;
+
+    private MemoryCache<Integer, String> cache;
+    private LongMemoryCache<String> longCache;
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CachePreference preference = new CachePreference(policy, 2 * KEY_COUNT);
+        cache = new CacheProviderImpl().getCache(preference);
+        longCache = new CacheProviderImpl().getLongCache(preference);
+        keys = new Integer[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = i;
+            cache.put(keys[i], VALUE);
+            longCache.put(i, VALUE);
+        }
+        cache.cleanUp();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt(KEY_COUNT);
+    }
+
+    @Benchmark
+    public Optional<String> get(ThreadState thread) {
+        return cache.get(keys[thread.index++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    public String getIfPresent(ThreadState thread) {
+        return cache.getIfPresent(keys[thread.index++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    public String getOrDefault(ThreadState thread) {
+        return cache.getOrDefault(keys[thread.index++ & KEY_MASK], VALUE);
+    }
+
+    @Benchmark
+    public CompletableFuture<Optional<String>> getAsync(ThreadState thread) {
+        return cache.getAsync(keys[thread.index++ & KEY_MASK], NO_LOADER);
+    }
+
+    @Benchmark
+    public String longGet(ThreadState thread) {
+        return longCache.get(thread.index++ & KEY_MASK);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.cache.benchmark;
+
+import java.util.Random;
+
+/**
+ * How benchmark keys are drawn from the key space.
+ */
+public enum KeyDistribution {
+    /** Every key is equally likely, the worst case for any eviction policy. */
+    UNIFORM {
+        @Override
+        int[] generate(int count, int keySpace, long seed) {
+            Random random = new Random(seed);
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = random.nextInt(keySpace);
+            }
+            return keys;
+        }
+    },
+    /** A few keys receive most requests, as in typical production traffic. */
+    ZIPF {
+        @Override
+        int[] generate(int count, int keySpace, long seed) {
+            Random random = new Random(seed);
+            ZipfGenerator zipf = new ZipfGenerator(keySpace);
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = zipf.next(random);
+            }
+            return keys;
+        }
+    };
+
+    /**
+     * @param count    the number of keys to draw
+     * @param keySpace the number of distinct keys, drawn from {@code [0, keySpace)}
+     * @param seed     the seed, so runs are reproducible
+     * @return the drawn keys
+     */
+    abstract int[] generate(int count, int keySpace, long seed);
+}
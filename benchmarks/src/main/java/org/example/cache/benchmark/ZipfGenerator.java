@@ -0,0 +1,62 @@
+package org.example.cache.benchmark;
+
+import java.util.Random;
+
+/**
+ * Draws integers in {@code [0, items)} following a Zipfian distribution: rank 0 is the most
+ * popular, and the probability of rank {@code i} is proportional to {@code 1 / (i + 1)^theta}.
+ * Uses the closed-form approximation of Gray et al. ("Quickly Generating Billion-Record Synthetic
+ * Databases"), so each draw is O(1) after an O(items) setup.
+ */
+public final class ZipfGenerator {
+    /** Skew of typical web and key-value workloads. */
+    public static final double DEFAULT_THETA = 0.99;
+
+    private final int items;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    public ZipfGenerator(int items) {
+        this(items, DEFAULT_THETA);
+    }
+
+    public ZipfGenerator(int items, double theta) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Items must be greater than 0");
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Theta must be between 0 and 1, exclusive");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.zetaN = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+    }
+
+    /**
+     * @param random the source of randomness
+     * @return the next rank, 0 being the most popular
+     */
+    public int next(Random random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return Math.min(items - 1, (int) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.cache.simulator;
+
+import org.example.cache.EvictionPolicy;
+import org.example.cache.PolicySimulation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays one trace through several policies and capacities at once and reports the hit ratio,
+ * the eviction count and the CPU time each policy spent.
+ *
+ * <p>The trace is read once, in batches. Every batch is handed to each simulation through a small
+ * bounded queue, and every simulation runs on its own thread, so policies replay in parallel while
+ * memory use stays constant however long the trace is. CPU time is the simulation thread's own,
+ * measured per batch; it includes the residency lookup, which costs the same for every policy.
+ * A simulation that fails stops the whole run, rather than leaving the reader waiting on its full queue.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.example.cache.simulator.Simulator \
+ *     --trace zipf:100000:10000000 --policies LRU,LFU,FIFO,TINY_LFU --capacities 1000,10000
+ * </pre>
+ * Traces are {@code text:<file>}, {@code binary:<file>}, {@code zipf:<items>:<length>},
+ * {@code zipf-scan:<items>:<length>:<scan percentage>}, {@code scan:<length>} and
+ * {@code loop:<items>:<length>}.
+ */
+public final class Simulator {
+    private static final int BATCH_SIZE = 4096;
+    /** Batches buffered per simulation before the reader waits for the slowest policy. */
+    private static final int QUEUE_BATCHES = 16;
+    private static final long[] END = new long[0];
+    /** How long the reader waits on a full queue before checking that its simulation is still running. */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private Simulator() {
+    }
+
+    /**
+     * The outcome of replaying the trace through one policy at one capacity.
+     */
+    public record Result(String policy, int capacity, long hits, long misses, long evictions, long cpuNanos) {
+        public long requests() {
+            return hits + misses;
+        }
+
+        public double hitRatio() {
+            return (requests() == 0) ? 0 : (double) hits / requests();
+        }
+    }
+
+    /**
+     * Replays the trace through every combination of policy and capacity, then closes the trace.
+     * @return the results, in the order of the policies and then of the capacities
+     */
+    public static List<Result> run(Trace trace, List<EvictionPolicy> policies, int[] capacities)
+            throws IOException, InterruptedException {
+        List<PolicySimulation> simulations = new ArrayList<>();
+        for (EvictionPolicy policy : policies) {
+            for (int capacity : capacities) {
+                simulations.add(PolicySimulation.of(policy, capacity));
+            }
+        }
+        return run(trace, simulations);
+    }
+
+    static List<Result> run(Trace trace, List<PolicySimulation> simulations) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, simulations.size()));
+        try (trace) {
+            List<BlockingQueue<long[]>> queues = new ArrayList<>();
+            List<Future<Result>> results = new ArrayList<>();
+            for (PolicySimulation simulation : simulations) {
+                BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+                queues.add(queue);
+                results.add(executor.submit(() -> replay(simulation, queue)));
+            }
+
+            long[] buffer = new long[BATCH_SIZE];
+            int count;
+            while ((count = trace.read(buffer)) > 0) {
+                long[] batch = Arrays.copyOf(buffer, count); // Shared read-only by all simulations
+                for (int i = 0; i < queues.size(); i++) {
+                    hand(queues.get(i), batch, results.get(i));
+                }
+            }
+            for (int i = 0; i < queues.size(); i++) {
+                hand(queues.get(i), END, results.get(i));
+            }
+
+            List<Result> completed = new ArrayList<>();
+            for (Future<Result> result : results) {
+                completed.add(result.get());
+            }
+            return completed;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a batch for a simulation, waiting while its queue is full unless the simulation has
+     * ended, which only a failure does before the end of the trace.
+     */
+    private static void hand(BlockingQueue<long[]> queue, long[] batch, Future<Result> result)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (result.isDone()) {
+                result.get(); // Throws the simulation's failure
+                throw new IllegalStateException("Simulation ended before the trace");
+            }
+        }
+    }
+
+    private static Result replay(PolicySimulation simulation, BlockingQueue<long[]> queue) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuNanos = 0;
+        for (long[] batch; (batch = queue.take()) != END; ) {
+            long start = threads.getCurrentThreadCpuTime();
+            for (long key : batch) {
+                simulation.record(key);
+            }
+            cpuNanos += threads.getCurrentThreadCpuTime() - start;
+        }
+        return new Result(simulation.name(), simulation.capacity(), simulation.hits(), simulation.misses(),
+                simulation.evictions(), cpuNanos);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String trace = "zipf:100000:1000000";
+        List<EvictionPolicy> policies = List.of(EvictionPolicy.LRU, EvictionPolicy.LFU, EvictionPolicy.FIFO);
+        int[] capacities = {100, 1_000, 10_000};
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--trace" -> trace = args[i + 1];
+                case "--policies" -> policies = Arrays.stream(args[i + 1].split(","))
+                        .map(name -> EvictionPolicy.valueOf(name.strip().toUpperCase(Locale.ROOT)))
+                        .toList();
+                case "--capacities" -> capacities = Arrays.stream(args[i + 1].split(","))
+                        .mapToInt(capacity -> Integer.parseInt(capacity.strip()))
+                        .toArray();
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<Result> results = run(openTrace(trace), policies, capacities);
+        System.out.printf("%-12s %10s %12s %10s %12s %10s%n", "Policy", "Capacity", "Requests", "Hit ratio", "Evictions", "CPU (ms)");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-12s %10d %12d %9.2f%% %12d %10d%n", result.policy(), result.capacity(),
+                    result.requests(), 100 * result.hitRatio(), result.evictions(), result.cpuNanos() / 1_000_000);
+        }
+    }
+
+    static Trace openTrace(String spec) throws IOException {
+        String[] parts = spec.split(":", 2);
+        String[] arguments = (parts.length > 1) ? parts[1].split(":") : new String[0];
+        return switch (parts[0]) {
+            case "text" -> Traces.text(Path.of(parts[1]));
+            case "binary" -> Traces.binary(Path.of(parts[1]));
+            case "zipf" -> Traces.zipf(Integer.parseInt(arguments[0]), Long.parseLong(arguments[1]), 42);
+            case "zipf-scan" -> Traces.zipfWithScans(Integer.parseInt(arguments[0]), Long.parseLong(arguments[1]),
+                    Integer.parseInt(arguments[2]), 42);
+            case "scan" -> Traces.scan(Long.parseLong(arguments[0]));
+            case "loop" -> Traces.loop(Integer.parseInt(arguments[0]), Long.parseLong(arguments[1]));
+            default -> throw new IllegalArgumentException("Unknown trace: " + spec);
+        };
+    }
+}
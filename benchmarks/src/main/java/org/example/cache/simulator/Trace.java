@@ -0,0 +1,23 @@
+package org.example.cache.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A stream of accessed keys, read in batches so that traces of any length replay in constant memory.
+ * See {@link Traces} for the file formats and synthetic generators.
+ */
+public interface Trace extends Closeable {
+    /**
+     * Reads the next keys into the buffer.
+     *
+     * @param buffer the buffer to fill from its start
+     * @return the number of keys read, or -1 once the trace is exhausted
+     * @throws IOException if the trace cannot be read
+     */
+    int read(long[] buffer) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.cache.simulator;
+
+import org.example.cache.benchmark.ZipfGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Trace sources. Files are read lazily, batch by batch:
+ * <ul>
+ *     <li>Text: one key per line. Integers are used as they are; any other key, such as a URL,
+ *     is hashed to 64 bits. Blank lines and lines starting with {@code #} are skipped.</li>
+ *     <li>Binary: a sequence of big-endian 64-bit keys, as written by {@link java.io.DataOutputStream#writeLong}.</li>
+ * </ul>
+ * The synthetic generators produce the classic patterns that separate recency from frequency
+ * based policies: skewed popularity, one-time scans and loops slightly larger than the cache.
+ */
+public final class Traces {
+
+    private Traces() {
+    }
+
+    public static Trace text(Path path) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        return new Trace() {
+            @Override
+            public int read(long[] buffer) throws IOException {
+                int count = 0;
+                String line;
+                while (count < buffer.length && (line = reader.readLine()) != null) {
+                    line = line.strip();
+                    if (!line.isEmpty() && line.charAt(0) != '#') {
+                        buffer[count++] = parseKey(line);
+                    }
+                }
+                return (count == 0) ? -1 : count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    public static Trace binary(Path path) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        return new Trace() {
+            @Override
+            public int read(long[] buffer) throws IOException {
+                int count = 0;
+                try {
+                    while (count < buffer.length) {
+                        buffer[count] = input.readLong();
+                        count++;
+                    }
+                } catch (EOFException e) {
+                    // End of the trace; a truncated trailing key is ignored
+                }
+                return (count == 0) ? -1 : count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                input.close();
+            }
+        };
+    }
+
+    /**
+     * Keys drawn from {@code [0, items)} with Zipfian popularity, key 0 being the most popular.
+     */
+    public static Trace zipf(int items, long length, long seed) {
+        ZipfGenerator zipf = new ZipfGenerator(items);
+        Random random = new Random(seed);
+        return generate(length, index -> zipf.next(random));
+    }
+
+    /**
+     * Zipfian keys from {@code [0, items)}, interleaved with a scan of distinct negative keys that
+     * makes up the given percentage of the accesses. The scan keys are never seen again, so a
+     * policy must keep them from displacing the popular keys.
+     */
+    public static Trace zipfWithScans(int items, long length, int scanPercentage, long seed) {
+        if (scanPercentage < 0 || scanPercentage > 100) {
+            throw new IllegalArgumentException("Scan percentage must be between 0 and 100");
+        }
+        ZipfGenerator zipf = new ZipfGenerator(items);
+        Random random = new Random(seed);
+        return generate(length, index -> (random.nextInt(100) < scanPercentage) ? -1 - index : zipf.next(random));
+    }
+
+    /**
+     * Distinct keys {@code 0, 1, 2, ...}, each accessed once: every access is a miss, and a policy
+     * that lets them in flushes whatever it held.
+     */
+    public static Trace scan(long length) {
+        return generate(length, index -> index);
+    }
+
+    /**
+     * Keys {@code 0} to {@code items - 1} accessed in order, over and over. LRU and FIFO never hit
+     * once {@code items} exceeds the capacity.
+     */
+    public static Trace loop(int items, long length) {
+        return generate(length, index -> index % items);
+    }
+
+    static long parseKey(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            long hash = 0xcbf29ce484222325L; // FNV-1a
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+
+    private static Trace generate(long length, KeyFunction keyAt) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+        return new Trace() {
+            private long next;
+
+            @Override
+            public int read(long[] buffer) {
+                int count = (int) Math.min(buffer.length, length - next);
+                for (int i = 0; i < count; i++) {
+                    buffer[i] = keyAt.apply(next++);
+                }
+                return (count == 0) ? -1 : count;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface KeyFunction {
+        long apply(long index);
+    }
+}
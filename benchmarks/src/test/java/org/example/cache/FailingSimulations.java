@@ -0,0 +1,22 @@
+package org.example.cache;
+
+/**
+ * Simulations whose policy fails, to check how the simulator reports a failure.
+ */
+public final class FailingSimulations {
+
+    private FailingSimulations() {
+    }
+
+    /**
+     * @return a simulation whose policy throws on the first put
+     */
+    public static PolicySimulation failingOnPut() {
+        return new PolicySimulation("FAILING", new LinkedLRUEvictionPolicy<>(10) {
+            @Override
+            public Long onPut(Long key) {
+                throw new IllegalStateException("Policy failure");
+            }
+        });
+    }
+}
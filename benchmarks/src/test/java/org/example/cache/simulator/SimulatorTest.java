@@ -0,0 +1,152 @@
+package org.example.cache.simulator;
+
+import org.example.cache.EvictionPolicy;
+import org.example.cache.FailingSimulations;
+import org.example.cache.PolicySimulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+
+    @Test
+    void testLoopLargerThanCapacityDefeatsLRU() throws Exception {
+        // Act
+        List<Simulator.Result> results = Simulator.run(Traces.loop(11, 1_100),
+                List.of(EvictionPolicy.LINKED_LRU, EvictionPolicy.FIFO), new int[] {10, 11});
+
+        // Assert
+        assertEquals(4, results.size());
+        assertResult(results.get(0), "LINKED_LRU", 10, 0, 1_090);
+        assertResult(results.get(1), "LINKED_LRU", 11, 1_089, 0);
+        assertResult(results.get(2), "FIFO", 10, 0, 1_090);
+        assertResult(results.get(3), "FIFO", 11, 1_089, 0);
+    }
+
+    @Test
+    void testScanNeverHits() throws Exception {
+        List<Simulator.Result> results = Simulator.run(Traces.scan(10_000), List.of(EvictionPolicy.TINY_LFU), new int[] {100});
+
+        assertResult(results.get(0), "TINY_LFU", 100, 0, 9_900);
+        assertTrue(results.get(0).cpuNanos() >= 0);
+    }
+
+    @Test
+    void testZipfFavorsFrequencyOverRecency() throws Exception {
+        List<Simulator.Result> results = Simulator.run(Traces.zipf(10_000, 200_000, 7),
+                List.of(EvictionPolicy.LINKED_LRU, EvictionPolicy.TINY_LFU), new int[] {100});
+
+        assertEquals(200_000, results.get(0).requests());
+        assertTrue(results.get(1).hitRatio() > results.get(0).hitRatio());
+    }
+
+    @Test
+    void testArcBeatsRecencyAndFrequencyOnScansMixedIntoZipf() throws Exception {
+        // Act
+        List<Simulator.Result> results = Simulator.run(Traces.zipfWithScans(10_000, 200_000, 20, 7),
+                List.of(EvictionPolicy.ARC, EvictionPolicy.LRU, EvictionPolicy.LFU, EvictionPolicy.FIFO), new int[] {100});
+
+        // Assert
+        double arc = results.get(0).hitRatio();
+        for (Simulator.Result result : results.subList(1, results.size())) {
+            assertTrue(arc > result.hitRatio(), "ARC " + arc + " vs " + result.policy() + " " + result.hitRatio());
+        }
+    }
+
+    @Test
+    void testFailedSimulationStopsTheRun() {
+        // Arrange
+        List<PolicySimulation> simulations = List.of(PolicySimulation.of(EvictionPolicy.LRU, 100),
+                FailingSimulations.failingOnPut());
+
+        // Act
+        IllegalStateException error = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(
+                IllegalStateException.class, () -> Simulator.run(Traces.scan(1_000_000), simulations)));
+
+        // Assert
+        assertEquals("Policy failure", error.getCause().getMessage());
+    }
+
+    @Test
+    void testZipfWithScansNeverRepeatsScanKeys() throws IOException {
+        List<Long> keys = readAll(Traces.zipfWithScans(1_000, 10_000, 30, 1), 512);
+
+        List<Long> scanKeys = keys.stream().filter(key -> key < 0).toList();
+        assertTrue(scanKeys.size() > 2_500 && scanKeys.size() < 3_500, scanKeys.size() + " scan keys");
+        assertEquals(scanKeys.size(), scanKeys.stream().distinct().count());
+        assertThrows(IllegalArgumentException.class, () -> Traces.zipfWithScans(1_000, 10, 101, 1));
+    }
+
+    @Test
+    void testTextTrace(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path file = directory.resolve("trace.txt");
+        Files.writeString(file, "# comment\n1\n\nhttps://example.org/a\n3\nhttps://example.org/a\n");
+
+        // Act
+        List<Long> keys = readAll(Traces.text(file), 2);
+
+        // Assert
+        assertEquals(4, keys.size());
+        assertEquals(1L, keys.get(0));
+        assertEquals(3L, keys.get(2));
+        assertEquals(keys.get(1), keys.get(3)); // The same non-numeric key hashes the same way
+    }
+
+    @Test
+    void testBinaryTrace(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path file = directory.resolve("trace.bin");
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+            for (long key = 0; key < 10; key++) {
+                output.writeLong(key * 1_000_000_007L);
+            }
+        }
+
+        // Act
+        List<Long> keys = readAll(Traces.binary(file), 3);
+
+        // Assert
+        assertEquals(10, keys.size());
+        assertEquals(9 * 1_000_000_007L, keys.get(9));
+    }
+
+    @Test
+    void testZipfIsSkewed() throws IOException {
+        List<Long> keys = readAll(Traces.zipf(1_000, 10_000, 1), 512);
+
+        long top = keys.stream().filter(key -> key < 10).count();
+        assertEquals(10_000, keys.size());
+        assertTrue(top > 3_000, "top 1% of keys drew " + top); // Uniform would draw about 100
+        assertTrue(keys.stream().allMatch(key -> key >= 0 && key < 1_000));
+    }
+
+    private static List<Long> readAll(Trace trace, int batchSize) throws IOException {
+        List<Long> keys = new ArrayList<>();
+        try (trace) {
+            long[] buffer = new long[batchSize];
+            for (int count; (count = trace.read(buffer)) > 0; ) {
+                for (int i = 0; i < count; i++) {
+                    keys.add(buffer[i]);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static void assertResult(Simulator.Result result, String policy, int capacity, long hits, long evictions) {
+        assertEquals(policy, result.policy());
+        assertEquals(capacity, result.capacity());
+        assertEquals(hits, result.hits());
+        assertEquals(evictions, result.evictions());
+    }
+}
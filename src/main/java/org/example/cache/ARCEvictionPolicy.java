@@ -0,0 +1,257 @@
+package org.example.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * ARC (Adaptive Replacement Cache) EvictionPolicy implementation.
+ * Resident keys are split between T1, keys seen once recently, and T2, keys seen at least twice.
+ * Evicted keys are remembered in the ghost lists B1 and B2, which hold keys without values. A put
+ * of a key found in B1 shows that T1 was too small, so its target size grows; a put found in B2
+ * shrinks it in favour of T2. The split thus follows the workload between recency and frequency
+ * without any tuning, and a scan only ever passes through T1.
+ *
+ * <p>As in the original algorithm, T1 and B1 together hold at most the capacity, and all four
+ * lists at most twice the capacity. Ghosts are also kept no more numerous than the resident keys,
+ * so that caches bounded by weight, whose entry capacity is effectively unbounded, keep a bounded
+ * history as well.
+ *
+ * @param <K> the type of keys in the eviction policy
+ */
+class ARCEvictionPolicy<K> implements EvictionPolicyHandler<K> {
+    private Map<K, Node<K>> index = new HashMap<>();
+    private final IntrusiveList<Node<K>> recent = new IntrusiveList<>();
+    private final IntrusiveList<Node<K>> frequent = new IntrusiveList<>();
+    private final IntrusiveList<Node<K>> recentGhosts = new IntrusiveList<>();
+    private final IntrusiveList<Node<K>> frequentGhosts = new IntrusiveList<>();
+    private final int capacity;
+    /** Target size of T1, adapted on every ghost hit. */
+    private int target;
+
+    public ARCEvictionPolicy(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized K onPut(K key) {
+        Node<K> node = index.get(key);
+        if (node == null) {
+            return putNew(key);
+        }
+        if (node.list.resident) {
+            onHit(node);
+            return null;
+        }
+
+        boolean frequentGhost = (node.list == ListType.B2);
+        if (frequentGhost) {
+            target = Math.max(target - Math.max(recentGhosts.size() / frequentGhosts.size(), 1), 0);
+            frequentGhosts.unlink(node);
+        } else {
+            target = Math.min(target + Math.max(frequentGhosts.size() / recentGhosts.size(), 1), targetLimit());
+            recentGhosts.unlink(node);
+        }
+        K beEvicted = isFull() ? replace(frequentGhost) : null;
+        node.list = ListType.T2;
+        frequent.linkFirst(node);
+        return beEvicted;
+    }
+
+    @Override
+    public synchronized void onAccess(K key) {
+        Node<K> node = index.get(key);
+        if (node != null && node.list.resident) {
+            onHit(node);
+        }
+    }
+
+    /**
+     * Forgets a resident key without remembering it as a ghost, as it was not evicted.
+     */
+    @Override
+    public synchronized void onRemove(K key) {
+        Node<K> node = index.get(key);
+        if (node != null && node.list.resident) {
+            listOf(node).unlink(node);
+            index.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void onClear() {
+        index = new HashMap<>();
+        recent.clear();
+        frequent.clear();
+        recentGhosts.clear();
+        frequentGhosts.clear();
+        target = 0;
+    }
+
+    @Override
+    public synchronized K evict() {
+        return (recent.isEmpty() && frequent.isEmpty()) ? null : replace(false);
+    }
+
+    /**
+     * Visits T1 before T2, each from its least recently used key. Keys of T2 are reported with a
+     * frequency of 2, so that replaying their access moves them back to T2. Ghosts are not visited.
+     */
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        for (IntrusiveList<Node<K>> list : List.of(recent, frequent)) {
+            int frequency = (list == recent) ? 1 : 2;
+            for (Node<K> node = list.peekLast(); node != null; node = node.prev) {
+                visitor.accept(node.key, frequency);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int skip = from;
+        int visited = 0;
+        for (IntrusiveList<Node<K>> list : List.of(recent, frequent)) {
+            int frequency = (list == recent) ? 1 : 2;
+            for (Node<K> node = list.fromLast(skip); node != null && visited < limit; node = node.prev) {
+                visitor.accept(node.key, frequency);
+                visited++;
+            }
+            skip = Math.max(0, skip - list.size());
+        }
+        return from + visited < size();
+    }
+
+    @Override
+    public synchronized int size() {
+        return recent.size() + frequent.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Puts a key found in none of the lists.
+     */
+    private K putNew(K key) {
+        K beEvicted = null;
+        int recentHistory = recent.size() + recentGhosts.size();
+        if (recentHistory >= capacity) {
+            if (recent.size() < capacity) {
+                forgetEldest(recentGhosts);
+                beEvicted = isFull() ? replace(false) : null;
+            } else {
+                Node<K> eldest = recent.pollLast(); // B1 is empty: the key is dropped without a ghost
+                index.remove(eldest.key);
+                beEvicted = eldest.key;
+            }
+        } else if (recentHistory + frequent.size() + frequentGhosts.size() >= capacity) {
+            if ((long) recentHistory + frequent.size() + frequentGhosts.size() >= 2L * capacity) {
+                forgetEldest(frequentGhosts);
+            }
+            beEvicted = isFull() ? replace(false) : null;
+        }
+
+        Node<K> node = new Node<>(key);
+        index.put(key, node);
+        recent.linkFirst(node);
+        return beEvicted;
+    }
+
+    /**
+     * Evicts the eldest key of T1 if T1 exceeds its target, otherwise the eldest key of T2, and
+     * remembers it in the matching ghost list.
+     * @param frequentGhost whether the key being put was found in B2, which favours evicting from T1
+     * @return the evicted key
+     */
+    private K replace(boolean frequentGhost) {
+        Node<K> victim;
+        if (!recent.isEmpty() && (recent.size() > target
+                || (frequentGhost && recent.size() == target) || frequent.isEmpty())) {
+            victim = recent.pollLast();
+            victim.list = ListType.B1;
+            recentGhosts.linkFirst(victim);
+        } else {
+            victim = frequent.pollLast();
+            victim.list = ListType.B2;
+            frequentGhosts.linkFirst(victim);
+        }
+        trimGhosts();
+        return victim.key;
+    }
+
+    /**
+     * Drops the eldest ghosts of the longer ghost list while there are more ghosts than resident
+     * keys, counting the key about to take the victim's place. A full cache bounded by capacity
+     * already respects this through the list invariants.
+     */
+    private void trimGhosts() {
+        int limit = size() + 1;
+        while (recentGhosts.size() + frequentGhosts.size() > limit) {
+            forgetEldest((recentGhosts.size() >= frequentGhosts.size()) ? recentGhosts : frequentGhosts);
+        }
+    }
+
+    private void forgetEldest(IntrusiveList<Node<K>> ghosts) {
+        Node<K> eldest = ghosts.pollLast();
+        if (eldest != null) {
+            index.remove(eldest.key);
+        }
+    }
+
+    private void onHit(Node<K> node) {
+        if (node.list == ListType.T1) {
+            recent.unlink(node);
+            node.list = ListType.T2;
+            frequent.linkFirst(node);
+        } else {
+            frequent.moveToFront(node);
+        }
+    }
+
+    private boolean isFull() {
+        return size() >= capacity;
+    }
+
+    /**
+     * The target cannot exceed the resident keys: the capacity once the cache is full, and less
+     * while it fills up or when it is bounded by weight.
+     */
+    private int targetLimit() {
+        return Math.min(capacity, size());
+    }
+
+    private IntrusiveList<Node<K>> listOf(Node<K> node) {
+        return switch (node.list) {
+            case T1 -> recent;
+            case T2 -> frequent;
+            case B1 -> recentGhosts;
+            case B2 -> frequentGhosts;
+        };
+    }
+
+    private enum ListType {
+        T1(true), T2(true), B1(false), B2(false);
+
+        final boolean resident;
+
+        ListType(boolean resident) {
+            this.resident = resident;
+        }
+    }
+
+    private static final class Node<K> extends IntrusiveList.Node<Node<K>> {
+        final K key;
+        ListType list = ListType.T1;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
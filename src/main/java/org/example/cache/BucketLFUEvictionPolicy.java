@@ -0,0 +1,162 @@
+package org.example.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * LFU EvictionPolicy implementation with O(1) operations.
+ * Keys are grouped into frequency buckets kept in a doubly linked list ordered by
+ * ascending frequency. Each bucket holds its keys in recency order, so the victim is
+ * always the least recently used key of the lowest frequency bucket.
+ *
+ * @param <K> the type of keys in the eviction policy
+ */
+class BucketLFUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
+    private Map<K, KeyNode<K>> index = new HashMap<>();
+    private final IntrusiveList<FrequencyNode<K>> buckets = new IntrusiveList<>();
+    private final int capacity;
+
+    public BucketLFUEvictionPolicy(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized K onPut(K key) {
+        KeyNode<K> node = index.get(key);
+        if (node != null) {
+            increment(node);
+            return null;
+        }
+
+        K beEvicted = null;
+        if (index.size() >= capacity) {
+            beEvicted = evict();
+        }
+
+        FrequencyNode<K> first = buckets.peekFirst();
+        if (first == null || first.frequency != 1) {
+            first = new FrequencyNode<>(1);
+            buckets.linkFirst(first);
+        }
+        node = new KeyNode<>(key);
+        node.bucket = first;
+        first.keys.linkFirst(node);
+        index.put(key, node);
+        return beEvicted;
+    }
+
+    @Override
+    public synchronized void onAccess(K key) {
+        KeyNode<K> node = index.get(key);
+        if (node != null) {
+            increment(node);
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(K key) {
+        KeyNode<K> node = index.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    @Override
+    public synchronized void onClear() {
+        index = new HashMap<>();
+        buckets.clear();
+    }
+
+    @Override
+    public synchronized K evict() {
+        FrequencyNode<K> lowest = buckets.peekFirst();
+        if (lowest == null) {
+            return null;
+        }
+        KeyNode<K> victim = lowest.keys.peekLast(); // Least recently used among the least frequent
+        unlink(victim);
+        index.remove(victim.key);
+        return victim.key;
+    }
+
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        for (FrequencyNode<K> bucket = buckets.peekFirst(); bucket != null; bucket = bucket.next) {
+            for (KeyNode<K> node = bucket.keys.peekLast(); node != null; node = node.prev) {
+                visitor.accept(node.key, bucket.frequency);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int skip = from;
+        int visited = 0;
+        for (FrequencyNode<K> bucket = buckets.peekFirst(); bucket != null && visited < limit; bucket = bucket.next) {
+            for (KeyNode<K> node = bucket.keys.fromLast(skip); node != null && visited < limit; node = node.prev) {
+                visitor.accept(node.key, bucket.frequency);
+                visited++;
+            }
+            skip = Math.max(0, skip - bucket.keys.size());
+        }
+        return from + visited < index.size();
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Moves the key into the bucket for the next frequency, creating it if needed.
+     */
+    private void increment(KeyNode<K> node) {
+        FrequencyNode<K> current = node.bucket;
+        FrequencyNode<K> next = current.next;
+        if (next == null || next.frequency != current.frequency + 1) {
+            next = new FrequencyNode<>(current.frequency + 1);
+            buckets.linkAfter(current, next);
+        }
+        unlink(node);
+        next.keys.linkFirst(node);
+        node.bucket = next;
+    }
+
+    /**
+     * Removes the key from its bucket, dropping the bucket once it is empty.
+     */
+    private void unlink(KeyNode<K> node) {
+        FrequencyNode<K> bucket = node.bucket;
+        bucket.keys.unlink(node);
+        if (bucket.keys.isEmpty()) {
+            buckets.unlink(bucket);
+        }
+    }
+
+    private static final class FrequencyNode<K> extends IntrusiveList.Node<FrequencyNode<K>> {
+        final int frequency;
+        final IntrusiveList<KeyNode<K>> keys = new IntrusiveList<>();
+
+        FrequencyNode(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    private static final class KeyNode<K> extends IntrusiveList.Node<KeyNode<K>> {
+        final K key;
+        FrequencyNode<K> bucket;
+
+        KeyNode(K key) {
+            this.key = key;
+        }
+    }
+}
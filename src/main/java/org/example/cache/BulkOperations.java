@@ -0,0 +1,191 @@
+package org.example.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bulk operations shared by {@link MemoryCacheImpl} and {@link SegmentedMemoryCache}.
+ * Each key is routed to the {@link MemoryCacheImpl} owning it, so a segmented cache still makes
+ * a single bulk loader call for all of its segments.
+ *
+ * <p>Bulk loads take part in the same single-flight protocol as single-key loads: a missing key
+ * that is already being loaded is waited for instead of loaded again, and the keys loaded by the
+ * batch are registered as in flight, so concurrent single-key callers wait for the batch.
+ *
+ * <p>Each key counts as a hit or a miss in its own segment. The bulk load counts as one load,
+ * recorded in the segment of the first key it loads.
+ */
+final class BulkOperations {
+
+    private BulkOperations() {
+    }
+
+    static <K, V> Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader,
+                                   Function<K, MemoryCacheImpl<K, V>> segmentOf) {
+        Batch<K, V> batch = new Batch<>(keys, segmentOf);
+        if (!batch.owned.isEmpty()) {
+            batch.startLoad();
+            try {
+                batch.complete(bulkLoader.apply(batch.ownedKeys()), null);
+            } catch (Throwable e) {
+                batch.complete(null, e); // Waiters must not hang, even on an Error
+                if (e instanceof Error error) {
+                    throw error;
+                }
+            }
+        }
+        batch.pending.forEach((key, load) -> batch.fill(key, MemoryCacheImpl.join(load)));
+        return batch.result;
+    }
+
+    static <K, V> CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys,
+                                                           Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader,
+                                                           Function<K, MemoryCacheImpl<K, V>> segmentOf) {
+        Batch<K, V> batch = new Batch<>(keys, segmentOf);
+        if (!batch.owned.isEmpty()) {
+            batch.startLoad();
+            try {
+                bulkLoader.apply(batch.ownedKeys()).whenComplete(batch::complete);
+            } catch (Throwable e) {
+                batch.complete(null, e);
+                if (e instanceof Error error) {
+                    throw error;
+                }
+            }
+        }
+        CompletableFuture<?>[] loads = batch.pending.values().toArray(new CompletableFuture<?>[0]);
+        return CompletableFuture.allOf(loads).thenApply(ignored -> {
+            batch.pending.forEach((key, load) -> batch.fill(key, load.join()));
+            return batch.result;
+        });
+    }
+
+    /**
+     * Maps every entry, then schedules maintenance once per segment written to, so that the
+     * eviction policy takes the whole batch under one lock acquisition.
+     */
+    static <K, V> void putAll(Map<? extends K, ? extends V> map, Function<K, MemoryCacheImpl<K, V>> segmentOf) {
+        Objects.requireNonNull(map, "Map cannot be null");
+        Set<MemoryCacheImpl<K, V>> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        map.forEach((key, value) -> {
+            Objects.requireNonNull(key, "Key cannot be null");
+            MemoryCacheImpl<K, V> segment = segmentOf.apply(key);
+            segment.bufferWrite(key, value);
+            written.add(segment);
+        });
+        for (MemoryCacheImpl<K, V> segment : written) {
+            segment.scheduleAfterWrite();
+        }
+    }
+
+    /**
+     * The state of one bulk get: the values found so far in key order, the loads the batch waits
+     * for, and the subset of those loads the batch itself is responsible for.
+     */
+    private static final class Batch<K, V> {
+        /** Values in key order. A missing key holds its position with null until it is filled. */
+        final Map<K, V> result = new LinkedHashMap<>();
+        final Map<K, CompletableFuture<Optional<V>>> pending = new LinkedHashMap<>();
+        final Map<K, CompletableFuture<Optional<V>>> owned = new LinkedHashMap<>();
+        final Function<K, MemoryCacheImpl<K, V>> segmentOf;
+        /** Segment recording the bulk load in its statistics. */
+        private MemoryCacheImpl<K, V> loadingSegment;
+        private long loadStartTime;
+
+        Batch(Iterable<K> keys, Function<K, MemoryCacheImpl<K, V>> segmentOf) {
+            Objects.requireNonNull(keys, "Keys cannot be null");
+            this.segmentOf = segmentOf;
+            for (K key : keys) {
+                Objects.requireNonNull(key, "Key cannot be null");
+                if (!result.containsKey(key)) {
+                    lookUp(key);
+                }
+            }
+        }
+
+        private void lookUp(K key) {
+            MemoryCacheImpl<K, V> segment = segmentOf.apply(key);
+            V value = segment.getLiveValue(key);
+            if (value != null) {
+                segment.recordHits(1);
+                result.put(key, value);
+                return;
+            }
+            segment.recordMisses(1);
+            CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+            CompletableFuture<Optional<V>> inFlight = segment.claimLoad(key, load);
+            if (inFlight != null) {
+                result.put(key, null);
+                pending.put(key, inFlight);
+                return;
+            }
+            // A load that finished just before this one was claimed has already published its value
+            value = segment.getLiveValue(key);
+            if (value != null) {
+                segment.retireLoad(key, load);
+                load.complete(Optional.of(value));
+                result.put(key, value);
+                return;
+            }
+            result.put(key, null);
+            pending.put(key, load);
+            owned.put(key, load);
+        }
+
+        void startLoad() {
+            loadingSegment = segmentOf.apply(owned.keySet().iterator().next());
+            loadStartTime = loadingSegment.startLoad();
+        }
+
+        Set<K> ownedKeys() {
+            return Collections.unmodifiableSet(owned.keySet());
+        }
+
+        /**
+         * Publishes the loaded values, including any the loader returned for keys it was not
+         * asked for, then retires and completes the loads owned by this batch.
+         */
+        void complete(Map<K, V> loaded, Throwable error) {
+            loadingSegment.recordLoad(loadStartTime, error == null && loaded != null);
+            try {
+                if (error == null) {
+                    Map<K, V> present = new HashMap<>();
+                    loaded.forEach((key, value) -> {
+                        if (key != null && value != null) {
+                            present.put(key, value);
+                        }
+                    });
+                    putAll(present, segmentOf);
+                }
+            } catch (RuntimeException | Error e) {
+                error = e; // E.g. the loader returned null; waiters must not hang
+            }
+            for (Map.Entry<K, CompletableFuture<Optional<V>>> entry : owned.entrySet()) {
+                K key = entry.getKey();
+                CompletableFuture<Optional<V>> load = entry.getValue();
+                segmentOf.apply(key).retireLoad(key, load);
+                if (error == null) {
+                    load.complete(Optional.ofNullable(loaded.get(key)));
+                } else {
+                    load.completeExceptionally(error);
+                }
+            }
+        }
+
+        void fill(K key, Optional<V> value) {
+            if (value.isPresent()) {
+                result.put(key, value.get());
+            } else {
+                result.remove(key);
+            }
+        }
+    }
+}
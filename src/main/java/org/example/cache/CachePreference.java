@@ -1,8 +1,37 @@
 package org.example.cache;
 
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
 public class CachePreference {
     private EvictionPolicy evictionPolicy;
     private int capacity;
+    private Executor executor = Runnable::run;
+    private int segments = 1;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    private Duration refreshAfterWrite;
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+    private LongSupplier ticker = System::nanoTime;
+    private LongSupplier wallClock = System::currentTimeMillis;
+    private long maximumWeight;
+    private Weigher<?, ?> weigher;
+    private boolean recordStats;
+    private long offHeapCapacity;
+    private ValueCodec<?> valueCodec;
+    private boolean recordLoadLatency;
+    private CacheWriter<?, ?> cacheWriter;
+    private RemovalListener<?, ?> removalListener;
+    private Executor removalExecutor = ForkJoinPool.commonPool();
+    private Duration writeBehindDelay;
+    private int writeBehindBatchSize = 100;
+    private int writeBehindQueueCapacity = 10_000;
+    private ReferenceStrength valueStrength = ReferenceStrength.STRONG;
+    private double heapPressureThreshold;
+    private double heapPressureTarget = 0.5;
 
     public CachePreference() {
     }
@@ -27,4 +56,323 @@ public class CachePreference {
     public void setCapacity(int capacity) {
         this.capacity = capacity;
     }
+
+    /**
+     * Gets the executor running cache maintenance, such as applying writes to the eviction policy.
+     * Defaults to running maintenance on the thread that triggered it.
+     * @return the maintenance executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+    }
+
+    /**
+     * Gets the number of independent segments the cache is split into.
+     * Each segment has its own eviction policy and a share of the capacity; see
+     * {@link SegmentedMemoryCache} for how far this can drift from a single policy.
+     * @return the segment count, 1 by default
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Gets how long after being written an entry expires.
+     * @return the time-to-live of every entry, or null if entries do not expire after a write
+     */
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = requirePositive(expireAfterWrite);
+    }
+
+    /**
+     * Gets how long after being written or last read an entry expires.
+     * @return the idle time after which entries expire, or null if reads do not matter
+     */
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    public void setExpireAfterAccess(Duration expireAfterAccess) {
+        this.expireAfterAccess = requirePositive(expireAfterAccess);
+    }
+
+    /**
+     * Gets how long after being written an entry is refreshed. A read through a loader after that
+     * time still returns the current value at once, and reloads it in the background with the same
+     * loader; the reload replaces the value if it succeeds and keeps it otherwise.
+     * @return the refresh interval, or null if entries are never refreshed
+     */
+    public Duration getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+        this.refreshAfterWrite = requirePositive(refreshAfterWrite);
+    }
+
+    /**
+     * Gets the executor running background refreshes.
+     * @return the refresh executor, the common {@link ForkJoinPool} by default
+     */
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "Refresh executor cannot be null");
+    }
+
+    /**
+     * Gets the nanosecond time source used for expiration.
+     * @return the time source, {@link System#nanoTime()} by default
+     */
+    public LongSupplier getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(LongSupplier ticker) {
+        this.ticker = Objects.requireNonNull(ticker, "Ticker cannot be null");
+    }
+
+    /**
+     * Gets the wall clock, in milliseconds since the epoch, that dates snapshots. Unlike the
+     * ticker, it can be compared across processes, so a restored entry loses the time it spent in
+     * the file.
+     * @return the wall clock, {@link System#currentTimeMillis()} by default
+     */
+    public LongSupplier getWallClock() {
+        return wallClock;
+    }
+
+    public void setWallClock(LongSupplier wallClock) {
+        this.wallClock = Objects.requireNonNull(wallClock, "Wall clock cannot be null");
+    }
+
+    /**
+     * Gets the maximum total weight of the entries, as computed by the weigher.
+     * When set, the capacity becomes optional and only caps the number of entries.
+     * @return the maximum weight, or 0 if the cache is only bounded by its capacity
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be greater than 0");
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Gets the function computing the weight of each entry, required with a maximum weight.
+     * @return the weigher, or null if entries are not weighed
+     */
+    public Weigher<?, ?> getWeigher() {
+        return weigher;
+    }
+
+    public void setWeigher(Weigher<?, ?> weigher) {
+        this.weigher = Objects.requireNonNull(weigher, "Weigher cannot be null");
+    }
+
+    /**
+     * Gets how many bytes of direct memory hold the values when they are stored off-heap.
+     * Values are then encoded by the value codec, each entry weighs the bytes it occupies, and the
+     * capacity becomes optional and only caps the number of entries. Cannot be combined with a weigher.
+     * @return the off-heap capacity in bytes, or 0 if values are kept on the heap
+     */
+    public long getOffHeapCapacity() {
+        return offHeapCapacity;
+    }
+
+    public void setOffHeapCapacity(long offHeapCapacity) {
+        if (offHeapCapacity <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity must be greater than 0");
+        }
+        this.offHeapCapacity = offHeapCapacity;
+    }
+
+    /**
+     * Gets the codec converting values to bytes, required with an off-heap capacity.
+     * @return the value codec, or null if values are kept on the heap
+     */
+    public ValueCodec<?> getValueCodec() {
+        return valueCodec;
+    }
+
+    public void setValueCodec(ValueCodec<?> valueCodec) {
+        this.valueCodec = Objects.requireNonNull(valueCodec, "Value codec cannot be null");
+    }
+
+    /**
+     * Gets whether the cache counts hits, misses, loads and evictions for {@link MemoryCache#stats()}.
+     * @return true if statistics are recorded, false by default
+     */
+    public boolean isRecordStats() {
+        return recordStats;
+    }
+
+    public void setRecordStats(boolean recordStats) {
+        this.recordStats = recordStats;
+    }
+
+    /**
+     * Gets whether the cache keeps a histogram of load times, which implies recording statistics.
+     * @return true if load latencies are recorded, false by default
+     */
+    public boolean isRecordLoadLatency() {
+        return recordLoadLatency;
+    }
+
+    public void setRecordLoadLatency(boolean recordLoadLatency) {
+        this.recordLoadLatency = recordLoadLatency;
+    }
+
+    /**
+     * Gets the listener notified of every entry leaving the cache, with the cause.
+     * @return the removal listener, or null if removals are not reported
+     */
+    public RemovalListener<?, ?> getRemovalListener() {
+        return removalListener;
+    }
+
+    public void setRemovalListener(RemovalListener<?, ?> removalListener) {
+        this.removalListener = Objects.requireNonNull(removalListener, "Removal listener cannot be null");
+    }
+
+    /**
+     * Gets the executor delivering removal notifications, so that listeners do not slow down writes.
+     * @return the removal executor, the common {@link ForkJoinPool} by default
+     */
+    public Executor getRemovalExecutor() {
+        return removalExecutor;
+    }
+
+    public void setRemovalExecutor(Executor removalExecutor) {
+        this.removalExecutor = Objects.requireNonNull(removalExecutor, "Removal executor cannot be null");
+    }
+
+    /**
+     * Gets the writer that the cache's puts and removals are propagated to.
+     * @return the cache writer, or null if the cache does not write to a backing store
+     */
+    public CacheWriter<?, ?> getCacheWriter() {
+        return cacheWriter;
+    }
+
+    public void setCacheWriter(CacheWriter<?, ?> cacheWriter) {
+        this.cacheWriter = Objects.requireNonNull(cacheWriter, "Cache writer cannot be null");
+    }
+
+    /**
+     * Gets how long a change may wait before it is written, which enables write-behind.
+     * Repeated changes to a key within that time are written once, with the latest value.
+     * @return the write-behind delay, or null if changes are written through as they are made
+     */
+    public Duration getWriteBehindDelay() {
+        return writeBehindDelay;
+    }
+
+    public void setWriteBehindDelay(Duration writeBehindDelay) {
+        this.writeBehindDelay = requirePositive(writeBehindDelay);
+    }
+
+    /**
+     * Gets how many changes are written together with write-behind. A batch is written as soon
+     * as that many keys have changed, without waiting for the delay.
+     * @return the write-behind batch size, 100 by default
+     */
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        if (writeBehindBatchSize <= 0) {
+            throw new IllegalArgumentException("Write-behind batch size must be greater than 0");
+        }
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+
+    /**
+     * Gets how many changed keys can wait to be written with write-behind. When the queue is
+     * full, a writing thread writes a batch itself, so callers slow down to the store's pace.
+     * @return the write-behind queue capacity, 10,000 by default
+     */
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public void setWriteBehindQueueCapacity(int writeBehindQueueCapacity) {
+        if (writeBehindQueueCapacity <= 0) {
+            throw new IllegalArgumentException("Write-behind queue capacity must be greater than 0");
+        }
+        this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+    }
+
+    /**
+     * Gets how strongly the cache holds its values. Softly or weakly held values may be reclaimed
+     * by the garbage collector before the eviction policy would evict them. Cannot be combined
+     * with off-heap storage.
+     * @return the value strength, {@link ReferenceStrength#STRONG} by default
+     */
+    public ReferenceStrength getValueStrength() {
+        return valueStrength;
+    }
+
+    public void setValueStrength(ReferenceStrength valueStrength) {
+        this.valueStrength = Objects.requireNonNull(valueStrength, "Value strength cannot be null");
+    }
+
+    /**
+     * Gets the fraction of the heap that, when still in use after a garbage collection, makes the
+     * cache shrink to its heap pressure target. It is measured on the heap pools that report usage
+     * after collection, typically the old generation.
+     * @return the heap pressure threshold, or 0 if the cache does not watch the heap
+     */
+    public double getHeapPressureThreshold() {
+        return heapPressureThreshold;
+    }
+
+    public void setHeapPressureThreshold(double heapPressureThreshold) {
+        if (!(heapPressureThreshold > 0 && heapPressureThreshold <= 1)) {
+            throw new IllegalArgumentException("Heap pressure threshold must be greater than 0 and at most 1");
+        }
+        this.heapPressureThreshold = heapPressureThreshold;
+    }
+
+    /**
+     * Gets the fraction of its current size, in entries or weight, that the cache evicts down to
+     * under heap pressure. The victims are chosen by the eviction policy.
+     * @return the heap pressure target, 0.5 by default
+     */
+    public double getHeapPressureTarget() {
+        return heapPressureTarget;
+    }
+
+    public void setHeapPressureTarget(double heapPressureTarget) {
+        if (!(heapPressureTarget >= 0 && heapPressureTarget < 1)) {
+            throw new IllegalArgumentException("Heap pressure target must be at least 0 and less than 1");
+        }
+        this.heapPressureTarget = heapPressureTarget;
+    }
+
+    private static Duration requirePositive(Duration duration) {
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        return duration;
+    }
 }
@@ -14,4 +14,13 @@ public interface CacheProvider {
      * @return a memory cache instance with the specified eviction policy
      */
     <K, V> MemoryCache<K, V> getCache(CachePreference cachePreference);
+
+    /**
+     * Retrieves a cache keyed by primitive longs, which avoids boxing keys and allocating on hits.
+     *
+     * @param cachePreference the preference of the Cache being created
+     * @param <V> the type of mapped values
+     * @return a long-keyed cache with the specified eviction policy
+     */
+    <V> LongMemoryCache<V> getLongCache(CachePreference cachePreference);
 }
\ No newline at end of file
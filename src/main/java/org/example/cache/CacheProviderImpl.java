@@ -6,12 +6,69 @@ public class CacheProviderImpl implements CacheProvider {
     @Override
     public <K, V> MemoryCache<K, V> getCache(CachePreference cachePreference) {
         Objects.requireNonNull(cachePreference, "Cache preference cannot be null");
-        return switch (cachePreference.getEvictionPolicy()) {
-            case LRU -> new MemoryCacheImpl<>(new LRUEvictionPolicy<>(cachePreference.getCapacity()));
-            case LFU -> new MemoryCacheImpl<>(new LFUEvictionPolicy<>(cachePreference.getCapacity()));
-            case FIFO -> new MemoryCacheImpl<>(new FIFOEvictionPolicy<>(cachePreference.getCapacity()));
-            default ->
-                    throw new IllegalArgumentException("Unsupported eviction policy: " + cachePreference.getEvictionPolicy());
+        EvictionPolicy evictionPolicy = Objects.requireNonNull(cachePreference.getEvictionPolicy(),
+                "Eviction policy cannot be null");
+        // A cache bounded by weight or bytes does not need an entry count bound as well
+        int entryCapacity = (MemoryCacheImpl.budgetOf(cachePreference) > 0 && cachePreference.getCapacity() <= 0)
+                ? Integer.MAX_VALUE
+                : cachePreference.getCapacity();
+        MemoryCache<K, V> cache = (cachePreference.getSegments() != 1)
+                ? new SegmentedMemoryCache<>(cachePreference.getSegments(), entryCapacity,
+                        capacity -> createEvictionPolicy(evictionPolicy, capacity), cachePreference)
+                : new MemoryCacheImpl<>(createEvictionPolicy(evictionPolicy, entryCapacity), cachePreference);
+        return withWriter(cache, cachePreference);
+    }
+
+    /**
+     * Creates a cache keyed by primitive longs. Supports the LRU, FIFO and LFU policies and
+     * segmenting, but not expiration, weights, off-heap storage, cache writers, refreshing, removal listeners,
+     * soft or weak values or heap pressure.
+     */
+    @Override
+    public <V> LongMemoryCache<V> getLongCache(CachePreference cachePreference) {
+        Objects.requireNonNull(cachePreference, "Cache preference cannot be null");
+        if (cachePreference.getExpireAfterWrite() != null || cachePreference.getExpireAfterAccess() != null
+                || MemoryCacheImpl.budgetOf(cachePreference) > 0) {
+            throw new IllegalArgumentException("Long-keyed caches do not support expiration, weights or off-heap storage");
+        }
+        if (cachePreference.getCacheWriter() != null) {
+            throw new IllegalArgumentException("Long-keyed caches do not support cache writers");
+        }
+        if (cachePreference.getRefreshAfterWrite() != null) {
+            throw new IllegalArgumentException("Long-keyed caches do not support refreshing");
+        }
+        if (cachePreference.getRemovalListener() != null) {
+            throw new IllegalArgumentException("Long-keyed caches do not support removal listeners");
+        }
+        if (cachePreference.getValueStrength() != ReferenceStrength.STRONG || cachePreference.getHeapPressureThreshold() > 0) {
+            throw new IllegalArgumentException("Long-keyed caches do not support soft or weak values or heap pressure");
+        }
+        return new LongMemoryCacheImpl<>(cachePreference.getEvictionPolicy(), cachePreference.getCapacity(),
+                cachePreference.getSegments());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> MemoryCache<K, V> withWriter(MemoryCache<K, V> cache, CachePreference cachePreference) {
+        CacheWriter<K, V> writer = (CacheWriter<K, V>) cachePreference.getCacheWriter();
+        if (writer == null) {
+            if (cachePreference.getWriteBehindDelay() != null) {
+                throw new IllegalArgumentException("A write-behind delay requires a cache writer");
+            }
+            return cache;
+        }
+        return new WriterMemoryCache<>(cache, writer, cachePreference);
+    }
+
+    static <K> EvictionPolicyHandler<K> createEvictionPolicy(EvictionPolicy evictionPolicy, int capacity) {
+        return switch (evictionPolicy) {
+            case LRU, LINKED_LRU -> new LinkedLRUEvictionPolicy<>(capacity);
+            case LFU -> new LFUEvictionPolicy<>(capacity);
+            case FIFO -> new FIFOEvictionPolicy<>(capacity);
+            case BUCKET_LFU -> new BucketLFUEvictionPolicy<>(capacity);
+            case TINY_LFU -> new TinyLFUEvictionPolicy<>(capacity);
+            case CLOCK -> new ClockEvictionPolicy<>(capacity);
+            case ARC -> new ARCEvictionPolicy<>(capacity);
+            default -> throw new IllegalArgumentException("Unsupported eviction policy: " + evictionPolicy);
         };
     }
 }
@@ -0,0 +1,258 @@
+package org.example.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Saves the entries of {@link MemoryCacheImpl} segments to a file and loads them back, shared by
+ * {@link MemoryCacheImpl} and {@link SegmentedMemoryCache}.
+ *
+ * <p>A snapshot starts with a magic number, a version and the wall clock time of the save in
+ * milliseconds, followed by blocks of about 4 MB. Each block holds its entry count and length in
+ * bytes, then its entries:
+ * <pre>
+ * int frequency | long remaining time to live in nanoseconds, or -1 | long remaining idle time in nanoseconds, or -1
+ *     | int key length | key | int value length | value
+ * </pre>
+ * Entries are written segment by segment, each segment from the entry it would evict first to
+ * the one it would evict last, with the frequency reported by its eviction policy. The idle time
+ * is only recorded for entries that expire after access: it is the time left before they expire
+ * unless accessed, while the time to live bounds them regardless of accesses. On loading, the wall
+ * clock time elapsed since the save is taken off both, and the entries that expired meanwhile are
+ * skipped; a clock that went backwards counts as no time elapsed.
+ *
+ * <p>Loading maps one block at a time, decodes up to two blocks per processor in parallel on the
+ * common pool, and applies the blocks in file order: the entries are put in the saved order,
+ * which rebuilds recency and insertion order, then their accesses are replayed, which rebuilds
+ * frequencies. Memory use is bounded by the blocks in flight, whatever the size of the file.
+ */
+final class CacheSnapshot {
+    private static final int MAGIC = 0x4D435331; // "MCS1"
+    private static final int VERSION = 3;
+    private static final int FILE_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final int BLOCK_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int BLOCK_BYTES = 4 << 20;
+    /** Replayed accesses per entry are capped, so restoring stays proportional to the entry count. */
+    static final int MAX_REPLAYED_FREQUENCY = 255;
+    /** Recorded for an entry without a time to live, or without an idle time. */
+    static final long NO_TTL = -1;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Receives the live entries of a segment, see {@link MemoryCacheImpl#forEachInEvictionOrder}.
+     */
+    @FunctionalInterface
+    interface EntryVisitor<K, V> {
+        void visit(K key, V value, int frequency, long ttlNanos, long idleNanos) throws IOException;
+    }
+
+    /**
+     * @param wallClock the time of the save, in milliseconds since the epoch
+     */
+    static <K, V> void save(List<MemoryCacheImpl<K, V>> segments, Path file, ValueCodec<K> keyCodec,
+                            ValueCodec<V> valueCodec, LongSupplier wallClock) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        Objects.requireNonNull(keyCodec, "Key codec cannot be null");
+        Objects.requireNonNull(valueCodec, "Value codec cannot be null");
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(wallClock.getAsLong());
+                BlockWriter block = new BlockWriter(out);
+                for (MemoryCacheImpl<K, V> segment : segments) {
+                    segment.forEachInEvictionOrder((key, value, frequency, ttlNanos, idleNanos) -> block.write(
+                            keyCodec.encode(key), valueCodec.encode(value), frequency, ttlNanos, idleNanos));
+                }
+                block.flush();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param wallClock the time of the load, in milliseconds since the epoch
+     * @return the number of entries restored, leaving out those that expired since the save
+     */
+    static <K, V> int load(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec,
+                           Function<K, MemoryCacheImpl<K, V>> segmentOf, LongSupplier wallClock) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        Objects.requireNonNull(keyCodec, "Key codec cannot be null");
+        Objects.requireNonNull(valueCodec, "Value codec cannot be null");
+        int maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism();
+        Deque<CompletableFuture<List<Entry<K, V>>>> inFlight = new ArrayDeque<>();
+        int restored = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = map(channel, 0, FILE_HEADER_BYTES, size);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(wallClock.getAsLong() - header.getLong(), 0));
+            long position = FILE_HEADER_BYTES;
+            while (position < size) {
+                ByteBuffer blockHeader = map(channel, position, BLOCK_HEADER_BYTES, size);
+                int count = blockHeader.getInt();
+                int length = blockHeader.getInt();
+                MappedByteBuffer block = map(channel, position + BLOCK_HEADER_BYTES, length, size);
+                position += BLOCK_HEADER_BYTES + (long) length;
+                inFlight.add(CompletableFuture.supplyAsync(() -> decode(block, count, keyCodec, valueCodec)));
+                if (inFlight.size() >= maxInFlight) {
+                    restored += apply(await(inFlight.poll()), segmentOf, elapsedNanos);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                restored += apply(await(inFlight.poll()), segmentOf, elapsedNanos);
+            }
+        } finally {
+            inFlight.forEach(load -> load.cancel(false));
+        }
+        return restored;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length, long size) throws IOException {
+        if (length < 0 || position + length > size) {
+            throw new IOException("Truncated cache snapshot");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static <K, V> List<Entry<K, V>> decode(ByteBuffer block, int count,
+                                                   ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) {
+        List<Entry<K, V>> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int frequency = block.getInt();
+            long ttlNanos = block.getLong();
+            long idleNanos = block.getLong();
+            K key = keyCodec.decode(bytes(block));
+            V value = valueCodec.decode(bytes(block));
+            entries.add(new Entry<>(key, value, frequency, ttlNanos, idleNanos));
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(ByteBuffer block) {
+        byte[] bytes = new byte[block.getInt()];
+        block.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Puts the entries of a decoded block that are still live into the cache, then replays their accesses.
+     * @param elapsedNanos the time elapsed since the save, taken off every time to live and idle time
+     * @return the number of entries put
+     */
+    private static <K, V> int apply(List<Entry<K, V>> entries, Function<K, MemoryCacheImpl<K, V>> segmentOf,
+                                    long elapsedNanos) {
+        List<Entry<K, V>> live = new ArrayList<>(entries.size());
+        for (Entry<K, V> entry : entries) {
+            long ttlNanos = remaining(entry.ttlNanos, elapsedNanos);
+            long idleNanos = remaining(entry.idleNanos, elapsedNanos);
+            if (ttlNanos == 0 || idleNanos == 0) {
+                continue; // Expired since the save
+            }
+            segmentOf.apply(entry.key).restore(entry.key, entry.value, ttlNanos, idleNanos);
+            live.add(entry);
+        }
+        for (Entry<K, V> entry : live) {
+            if (entry.frequency > 1) {
+                segmentOf.apply(entry.key).replayAccesses(entry.key,
+                        Math.min(entry.frequency, MAX_REPLAYED_FREQUENCY) - 1);
+            }
+        }
+        return live.size();
+    }
+
+    /**
+     * @return the time left once the elapsed time is taken off, 0 if none is, or {@link #NO_TTL}
+     */
+    private static long remaining(long nanos, long elapsedNanos) {
+        return (nanos == NO_TTL) ? NO_TTL : Math.max(nanos - elapsedNanos, 0);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BufferUnderflowException) {
+                throw new IOException("Corrupt cache snapshot", e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<K, V>(K key, V value, int frequency, long ttlNanos, long idleNanos) {
+    }
+
+    /**
+     * Buffers entries until a block is full, then writes its header and contents.
+     */
+    private static final class BlockWriter {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream block = new DataOutputStream(bytes);
+        private int count;
+
+        BlockWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(byte[] key, byte[] value, int frequency, long ttlNanos, long idleNanos) throws IOException {
+            block.writeInt(frequency);
+            block.writeLong(ttlNanos);
+            block.writeLong(idleNanos);
+            block.writeInt(key.length);
+            block.write(key);
+            block.writeInt(value.length);
+            block.write(value);
+            count++;
+            if (bytes.size() >= BLOCK_BYTES) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            out.writeInt(count);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            bytes.reset();
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.cache;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of a cache's statistics, as returned by {@link MemoryCache#stats()}.
+ * Counters only move while {@link CachePreference#setRecordStats(boolean) recording} is on;
+ * the size and weight are always current.
+ *
+ * <p>A lookup is a hit if it found a live entry, and a miss otherwise, including a caller that
+ * waits for another caller's load. A load fails if the loader throws or finds no value, and a
+ * bulk load counts once however many keys it loads. Load times are in nanoseconds, as measured by
+ * the cache's ticker.
+ *
+ * @param hitCount          lookups that found a live entry
+ * @param missCount         lookups that found no live entry
+ * @param loadSuccessCount  loads that produced a value
+ * @param loadFailureCount  loads that threw or produced no value
+ * @param totalLoadTime     nanoseconds spent loading, successfully or not
+ * @param evictionCounts    entries the cache removed on its own, by cause
+ * @param estimatedSize     entries currently mapped, possibly including expired ones not yet reclaimed
+ * @param weightedSize      total weight of the entries, equal to the size when entries are not weighed
+ * @param loadLatency       distribution of the load times, or null unless
+ *                          {@link CachePreference#setRecordLoadLatency(boolean) recorded}
+ */
+public record CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                         long totalLoadTime, Map<RemovalCause, Long> evictionCounts,
+                         long estimatedSize, long weightedSize, LatencyHistogram.Snapshot loadLatency) {
+
+    public CacheStats {
+        Objects.requireNonNull(evictionCounts, "Eviction counts cannot be null");
+        Map<RemovalCause, Long> copy = new EnumMap<>(RemovalCause.class);
+        copy.putAll(evictionCounts);
+        evictionCounts = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns a snapshot with every counter at zero, as reported by a cache that does not record statistics.
+     */
+    static CacheStats empty(long estimatedSize, long weightedSize) {
+        return new CacheStats(0, 0, 0, 0, 0, Map.of(), estimatedSize, weightedSize, null);
+    }
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return the share of lookups that were hits, 1.0 when there were no lookups
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return the share of lookups that were misses, 0.0 when there were no lookups
+     */
+    public double missRate() {
+        long requestCount = requestCount();
+        return (requestCount == 0) ? 0.0 : (double) missCount / requestCount;
+    }
+
+    public long loadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    /**
+     * @return the mean time spent per load in nanoseconds, 0.0 when nothing was loaded
+     */
+    public double averageLoadPenalty() {
+        long loadCount = loadCount();
+        return (loadCount == 0) ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * @return the number of entries evicted for the given cause, 0 for causes that are not evictions
+     */
+    public long evictionCount(RemovalCause cause) {
+        return evictionCounts.getOrDefault(Objects.requireNonNull(cause, "Cause cannot be null"), 0L);
+    }
+
+    /**
+     * @return the number of entries evicted for any cause
+     */
+    public long evictionCount() {
+        return evictionCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Adds up two snapshots, such as those of the segments of one cache.
+     */
+    public CacheStats plus(CacheStats other) {
+        Map<RemovalCause, Long> evictions = new EnumMap<>(RemovalCause.class);
+        evictions.putAll(evictionCounts);
+        other.evictionCounts.forEach((cause, count) -> evictions.merge(cause, count, Long::sum));
+        LatencyHistogram.Snapshot latency = (loadLatency == null) ? other.loadLatency
+                : (other.loadLatency == null) ? loadLatency : loadLatency.plus(other.loadLatency);
+        return new CacheStats(hitCount + other.hitCount, missCount + other.missCount,
+                loadSuccessCount + other.loadSuccessCount, loadFailureCount + other.loadFailureCount,
+                totalLoadTime + other.totalLoadTime, evictions,
+                estimatedSize + other.estimatedSize, weightedSize + other.weightedSize, latency);
+    }
+}
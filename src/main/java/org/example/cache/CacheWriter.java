@@ -0,0 +1,54 @@
+package org.example.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Propagates the changes made through a cache to the store behind it, such as a database.
+ * Set with {@link CachePreference#setCacheWriter(CacheWriter)}, it is called either while the
+ * cache is updated (write-through) or later, in coalesced batches (write-behind, see
+ * {@link CachePreference#setWriteBehindDelay(java.time.Duration)}).
+ *
+ * <p>Only puts and removals made by callers are written. Values loaded into the cache came from
+ * the store and are not written back, and neither evictions nor {@link MemoryCache#clear()}
+ * delete anything from the store.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public interface CacheWriter<K, V> {
+    /**
+     * Writes a value to the store.
+     *
+     * @param key   the key of the entry
+     * @param value the new value of the entry
+     */
+    void write(K key, V value);
+
+    /**
+     * Deletes a key from the store.
+     *
+     * @param key the key removed from the cache
+     */
+    void delete(K key);
+
+    /**
+     * Writes several values at once. Write-behind batches go through this method, so a store
+     * that supports batch writes should override it.
+     *
+     * @param entries the keys and their new values
+     */
+    default void writeAll(Map<? extends K, ? extends V> entries) {
+        entries.forEach(this::write);
+    }
+
+    /**
+     * Deletes several keys at once. Write-behind batches go through this method, so a store
+     * that supports batch deletes should override it.
+     *
+     * @param keys the keys removed from the cache
+     */
+    default void deleteAll(Collection<? extends K> keys) {
+        keys.forEach(this::delete);
+    }
+}
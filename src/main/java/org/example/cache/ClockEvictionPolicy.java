@@ -0,0 +1,231 @@
+package org.example.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * CLOCK EvictionPolicy implementation, a second-chance approximation of LRU.
+ * Keys sit in the slots of an array with one reference bit each. A hit only sets the bit of the
+ * key's slot, found through a concurrent index, so it takes no lock and relinks nothing. Eviction
+ * sweeps a hand around the array under the lock: a referenced key has its bit cleared and is
+ * skipped, and the first unreferenced key is evicted. The new key takes the freed slot, just
+ * behind the hand, so it is the last one the hand reaches again.
+ *
+ * <p>Lock-free hits only pay off for callers that share the policy between threads without a
+ * lock of their own. {@link MemoryCacheImpl} buffers hits and replays them under its eviction
+ * lock, one thread at a time, so there {@link #onAccess} costs about as much as in the policies
+ * that synchronize it; what remains is that a hit sets a bit instead of relinking a node.
+ *
+ * <p>The arrays are preallocated for capacities up to {@value #PREALLOCATED_SLOTS} slots and
+ * doubled on demand beyond, keeping every key in its slot, as caches bounded by weight have an
+ * effectively unbounded entry capacity.
+ *
+ * @param <K> the type of keys in the eviction policy
+ */
+class ClockEvictionPolicy<K> implements EvictionPolicyHandler<K> {
+    /** Largest number of keys the arrays can hold; capacities above it are capped. */
+    private static final int MAXIMUM_KEYS = 1 << 28;
+    private static final int PREALLOCATED_SLOTS = 1 << 16;
+    private static final VarHandle REFERENCED = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final int capacity;
+    /** The capacity, capped to what the arrays can hold. */
+    private final int maximumKeys;
+    /** Slot of each key; read without the lock on hits. */
+    private volatile ConcurrentHashMap<K, Integer> index;
+    /** Reference bit of each slot; set without the lock on hits, cleared by the hand. */
+    private volatile byte[] referenced;
+    /** Key of each slot, or null for a free slot. */
+    private Object[] keys;
+    /** Free slots below {@link #top}, emptied by evictions and removals. */
+    private int[] freeSlots;
+    private int freeCount;
+    /** Slots ever used; the hand sweeps below it. */
+    private int top;
+    private int hand;
+    private int size;
+
+    public ClockEvictionPolicy(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.maximumKeys = Math.min(capacity, MAXIMUM_KEYS);
+        allocate();
+    }
+
+    @Override
+    public synchronized K onPut(K key) {
+        Integer slot = index.get(key);
+        if (slot != null) {
+            REFERENCED.setOpaque(referenced, slot.intValue(), (byte) 1);
+            return null;
+        }
+        K beEvicted = (size >= maximumKeys) ? sweep() : null;
+        int newSlot = takeFreeSlot();
+        keys[newSlot] = key;
+        referenced[newSlot] = 0;
+        size++;
+        index.put(key, newSlot);
+        return beEvicted;
+    }
+
+    /**
+     * Sets the key's reference bit without taking the lock. A hit racing with the eviction of its
+     * key may mark the key that takes over the slot, which only gives that key a second chance.
+     * Through {@link MemoryCacheImpl}, hits arrive serialized by its eviction lock instead.
+     */
+    @Override
+    public void onAccess(K key) {
+        Integer slot = index.get(key);
+        if (slot != null) {
+            byte[] bits = referenced;
+            if (slot < bits.length) {
+                REFERENCED.setOpaque(bits, slot.intValue(), (byte) 1);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(K key) {
+        Integer slot = index.remove(key);
+        if (slot != null) {
+            release(slot);
+        }
+    }
+
+    /**
+     * Starts over with the preallocated arrays; the old ones are left to the garbage collector.
+     */
+    @Override
+    public synchronized void onClear() {
+        allocate();
+    }
+
+    @Override
+    public synchronized K evict() {
+        return (size == 0) ? null : sweep();
+    }
+
+    /**
+     * Visits the keys in the order the hand would evict them: the unreferenced keys from the
+     * hand onwards, then the referenced ones, which the first turn only clears. Referenced keys
+     * are reported with a frequency of 2, so that replaying their access sets their bit again.
+     */
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        for (int bit = 0; bit <= 1; bit++) {
+            for (int i = 0; i < top; i++) {
+                int slot = (hand + i < top) ? hand + i : hand + i - top;
+                K key = keyAt(slot);
+                if (key != null && referenced[slot] == bit) {
+                    visitor.accept(key, bit + 1);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int position = 0;
+        int visited = 0;
+        for (int bit = 0; bit <= 1; bit++) {
+            for (int i = 0; i < top && visited < limit; i++) {
+                int slot = (hand + i < top) ? hand + i : hand + i - top;
+                K key = keyAt(slot);
+                if (key != null && referenced[slot] == bit && position++ >= from) {
+                    visitor.accept(key, bit + 1);
+                    visited++;
+                }
+            }
+        }
+        return from + visited < size;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Advances the hand to the first unreferenced key, clearing the bits it passes, and evicts
+     * that key. Every key is unreferenced after one turn, so this ends within two.
+     */
+    private K sweep() {
+        byte[] bits = referenced;
+        while (true) {
+            if (hand >= top) {
+                hand = 0;
+            }
+            int slot = hand++;
+            K key = keyAt(slot);
+            if (key == null) {
+                continue;
+            }
+            if ((byte) REFERENCED.getOpaque(bits, slot) != 0) {
+                REFERENCED.setOpaque(bits, slot, (byte) 0);
+                continue;
+            }
+            index.remove(key);
+            release(slot);
+            return key;
+        }
+    }
+
+    private void release(int slot) {
+        keys[slot] = null;
+        referenced[slot] = 0;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Takes the slot freed last, so a key replacing the one just evicted lands behind the hand.
+     */
+    private int takeFreeSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (top == keys.length) {
+            grow();
+        }
+        return top++;
+    }
+
+    /**
+     * Doubles the arrays. Keys keep their slots, so the index stays valid; a hit still reading the
+     * old reference bits may be lost, which only costs its key the second chance.
+     */
+    private void grow() {
+        int slots = Math.min(keys.length * 2, maximumKeys);
+        keys = Arrays.copyOf(keys, slots);
+        freeSlots = Arrays.copyOf(freeSlots, slots);
+        byte[] bits = Arrays.copyOf(referenced, slots);
+        referenced = bits;
+    }
+
+    private void allocate() {
+        int slots = Math.min(maximumKeys, PREALLOCATED_SLOTS);
+        keys = new Object[slots];
+        freeSlots = new int[slots];
+        referenced = new byte[slots];
+        index = new ConcurrentHashMap<>();
+        freeCount = 0;
+        top = 0;
+        hand = 0;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot) {
+        return (K) keys[slot];
+    }
+}
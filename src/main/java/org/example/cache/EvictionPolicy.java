@@ -6,5 +6,10 @@ package org.example.cache;
 public enum EvictionPolicy {
     LRU, // Least Recently Used
     FIFO, // First In First Out
-    LFU // Least Frequently Used
+    LFU, // Least Frequently Used
+    LINKED_LRU, // Same policy as LRU, which is the O(1) hash-indexed linked list; kept for existing configurations
+    BUCKET_LFU, // Least Frequently Used, O(1) frequency buckets with LRU tie-break
+    TINY_LFU, // Window TinyLFU, sketch-based admission in front of a segmented LRU
+    CLOCK, // Second chance, hits set a reference bit that a sweeping hand clears
+    ARC // Adaptive Replacement Cache, balances recency and frequency using ghost lists
 }
\ No newline at end of file
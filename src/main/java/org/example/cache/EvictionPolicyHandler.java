@@ -1,5 +1,7 @@
 package org.example.cache;
 
+import java.util.function.ObjIntConsumer;
+
 /**
  * EvictionPolicy interface for managing cache eviction strategies.
  */
@@ -18,6 +20,54 @@ interface EvictionPolicyHandler<K> {
      */
     void onAccess(K key);
 
+    /**
+     * Notifies the policy that a key has left the cache for a reason other than eviction,
+     * such as expiration or an explicit removal. Unknown keys are ignored.
+     * @param key the key removed
+     */
+    void onRemove(K key);
+
+    /**
+     * Notifies the policy that every key has left the cache. Policies drop their structures
+     * instead of unlinking the keys one by one, so this takes constant time.
+     */
+    void onClear();
+
+    /**
+     * Evicts the key this policy would evict next, regardless of its capacity. Caches bounded
+     * by weight call this until their total weight is back within budget.
+     * @return the evicted key, or null if the policy holds no keys
+     */
+    K evict();
+
+    /**
+     * Visits every key, from the one this policy would evict first to the one it would evict last,
+     * with its access frequency. Snapshots save this order, so that putting the keys back in the
+     * same order and replaying their accesses restores an equivalent policy.
+     * @param visitor receives each key and its frequency, or 1 if the policy does not count accesses
+     */
+    void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor);
+
+    /**
+     * Visits at most limit keys of {@link #forEachInEvictionOrder(ObjIntConsumer)}, starting at the
+     * given position, so that callers can copy the order in chunks and let other threads update the
+     * policy in between. Keys that move meanwhile may be visited twice or not at all. Policies that
+     * cannot start at a position cheaply visit all the keys from the position on in one go.
+     * @param from the position of the first key to visit, 0 for the key evicted first
+     * @param limit the most keys to visit
+     * @param visitor receives each key and its frequency, or 1 if the policy does not count accesses
+     * @return true if keys remain after the ones visited
+     */
+    default boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int[] position = {0};
+        forEachInEvictionOrder((key, frequency) -> {
+            if (position[0]++ >= from) {
+                visitor.accept(key, frequency);
+            }
+        });
+        return false;
+    }
+
     /**
      * Gets the current size of the cache.
      * @return the size of the cache
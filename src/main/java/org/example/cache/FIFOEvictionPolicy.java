@@ -1,35 +1,66 @@
 package org.example.cache;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
 
 /**
  * FIFO EvictionPolicy implementation.
+ * Keys are kept in insertion order in a circular array, and an open-addressing table maps each
+ * key to its slot, so a put allocates nothing. Putting a key that is already present leaves it
+ * where it is. Removing a key from the middle empties its slot, which eviction skips; when the
+ * array fills up, the remaining keys are compacted, or the array doubled if more than half of
+ * it is live. The array holds up to twice the capacity, so each compaction frees at least half
+ * of it and the cost stays constant per put on average.
+ *
+ * <p>The arrays are preallocated for capacities up to {@value #PREALLOCATED_SLOTS} slots and grow
+ * on demand beyond, as caches bounded by weight have an effectively unbounded entry capacity.
  *
  * @param <K> the type of keys in the eviction policy
  */
 class FIFOEvictionPolicy<K> implements EvictionPolicyHandler<K> {
-    private final Queue<K> accessOrder;
+    /** Largest number of keys the arrays can hold; capacities above it are capped. */
+    private static final int MAXIMUM_KEYS = 1 << 28;
+    private static final int PREALLOCATED_SLOTS = 1 << 16;
+    private static final int EMPTY = -1;
+
     private final int capacity;
+    /** The capacity, capped to what the arrays can hold. */
+    private final int maximumKeys;
+    private final int maximumSlots;
+    /** Keys from oldest to newest, starting at the head; null for a key removed from the middle. */
+    private Object[] ring;
+    private int head;
+    /** Slots in use from the head, including emptied ones. */
+    private int used;
+    private int size;
+    /** Ring slot of each key, or {@link #EMPTY}; linear probing, at most half full. */
+    private int[] table;
+    private int mask;
 
     public FIFOEvictionPolicy(int capacity) {
         if (capacity <= 0) {
             throw new IllegalArgumentException("Capacity must be greater than 0");
         }
         this.capacity = capacity;
-        this.accessOrder = new LinkedList<>();
+        this.maximumKeys = Math.min(capacity, MAXIMUM_KEYS);
+        this.maximumSlots = Integer.highestOneBit(maximumKeys * 2 - 1) << 1;
+        allocate(Math.min(maximumSlots, PREALLOCATED_SLOTS));
     }
 
     @Override
     public synchronized K onPut(K key) {
-        K beEvicted = null;
-
-        if (accessOrder.size() >= capacity) {
-             beEvicted = accessOrder.poll(); // Evict the oldest item
-
+        if (find(key) != EMPTY) {
+            return null; // Already queued; FIFO keeps its original position
         }
-        accessOrder.add(key);
-
+        K beEvicted = (size >= maximumKeys) ? pollOldest() : null;
+        if (used == ring.length) {
+            resize((size > ring.length / 2 && ring.length < maximumSlots) ? ring.length * 2 : ring.length);
+        }
+        int slot = (head + used) & (ring.length - 1);
+        ring[slot] = key;
+        used++;
+        size++;
+        insert(slot, hash(key));
         return beEvicted;
     }
 
@@ -38,13 +69,177 @@ class FIFOEvictionPolicy<K> implements EvictionPolicyHandler<K> {
         // No reordering for FIFO
     }
 
+    @Override
+    public synchronized void onRemove(K key) {
+        int tableSlot = findTableSlot(key);
+        if (tableSlot == EMPTY) {
+            return;
+        }
+        ring[table[tableSlot]] = null;
+        deleteTableSlot(tableSlot);
+        size--;
+        if (size == 0) {
+            head = 0; // Every used slot is empty now
+            used = 0;
+        }
+    }
+
+    /**
+     * Starts over with the preallocated arrays; the old ones are left to the garbage collector.
+     */
+    @Override
+    public synchronized void onClear() {
+        allocate(Math.min(maximumSlots, PREALLOCATED_SLOTS));
+    }
+
+    @Override
+    public synchronized K evict() {
+        return pollOldest();
+    }
+
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        int ringMask = ring.length - 1;
+        for (int i = 0; i < used; i++) {
+            K key = keyAt((head + i) & ringMask);
+            if (key != null) {
+                visitor.accept(key, 1);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int ringMask = ring.length - 1;
+        int position = 0;
+        int visited = 0;
+        for (int i = 0; i < used && visited < limit; i++) {
+            K key = keyAt((head + i) & ringMask);
+            if (key != null && position++ >= from) {
+                visitor.accept(key, 1);
+                visited++;
+            }
+        }
+        return from + visited < size;
+    }
+
     @Override
     public synchronized int size() {
-        return accessOrder.size();
+        return size;
     }
 
     @Override
     public int getCapacity() {
         return capacity;
     }
+
+    /**
+     * Removes the oldest key, skipping the slots emptied by removals.
+     */
+    private K pollOldest() {
+        int ringMask = ring.length - 1;
+        while (used > 0) {
+            K key = keyAt(head);
+            if (key != null) {
+                deleteTableSlot(findTableSlot(key));
+                size--;
+            }
+            ring[head] = null;
+            head = (head + 1) & ringMask;
+            used--;
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot) {
+        return (K) ring[slot];
+    }
+
+    private int find(K key) {
+        int tableSlot = findTableSlot(key);
+        return (tableSlot == EMPTY) ? EMPTY : table[tableSlot];
+    }
+
+    private int findTableSlot(K key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (ring[slot].equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(int slot, int hash) {
+        int i = hash & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot;
+    }
+
+    /**
+     * Empties a table slot, moving back any later entry of the same probe run that could no
+     * longer be found past the gap.
+     */
+    private void deleteTableSlot(int tableSlot) {
+        int gap = tableSlot;
+        for (int i = (tableSlot + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int home = hash(ring[table[i]]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table[gap] = table[i];
+                gap = i;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    /**
+     * Moves the remaining keys, in order, to the start of a ring of the given size, and rebuilds
+     * the table for their new slots.
+     */
+    private void resize(int slots) {
+        Object[] old = ring;
+        int oldMask = old.length - 1;
+        ring = new Object[slots];
+        int count = 0;
+        for (int i = 0; i < used; i++) {
+            Object key = old[(head + i) & oldMask];
+            if (key != null) {
+                ring[count++] = key;
+            }
+        }
+        head = 0;
+        used = count;
+        table = newTable(slots);
+        for (int slot = 0; slot < count; slot++) {
+            insert(slot, hash(ring[slot]));
+        }
+    }
+
+    private void allocate(int slots) {
+        ring = new Object[slots];
+        table = newTable(slots);
+        head = 0;
+        used = 0;
+        size = 0;
+    }
+
+    private int[] newTable(int slots) {
+        int[] newTable = new int[slots * 2];
+        Arrays.fill(newTable, EMPTY);
+        mask = newTable.length - 1;
+        return newTable;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
 }
@@ -0,0 +1,124 @@
+package org.example.cache;
+
+/**
+ * Count-Min Sketch with 4-bit counters estimating how often a key has been seen recently.
+ * Each key maps to one counter in each of four rows; the estimate is the minimum of them.
+ * Sixteen counters are packed into every {@code long}, so the sketch costs about eight
+ * bytes per cached entry regardless of how many distinct keys pass through it.
+ * Once the number of recorded increments reaches the sample size, every counter is halved,
+ * letting the sketch forget keys that used to be popular.
+ * The sketch is not thread-safe; callers guard it.
+ *
+ * @param <K> the type of keys counted by the sketch
+ */
+final class FrequencySketch<K> {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_FREQUENCY = 15;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for the given number of cached entries.
+     * @param capacity the maximum number of entries of the cache using the sketch
+     */
+    FrequencySketch(int capacity) {
+        resize(capacity);
+    }
+
+    /**
+     * Grows the sketch if it is too small for the given number of entries. Growing discards
+     * the recorded frequencies, so callers grow it in large steps as their size increases.
+     * @param size the number of entries of the cache using the sketch
+     */
+    void ensureCapacity(int size) {
+        if (size > table.length) {
+            resize(size);
+        }
+    }
+
+    private void resize(int capacity) {
+        int maximum = Math.max(1, Math.min(capacity, 1 << 30));
+        this.table = new long[ceilingPowerOfTwo(maximum)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = (maximum > Integer.MAX_VALUE / 10) ? Integer.MAX_VALUE : 10 * maximum;
+        this.additions = 0;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the key, at most 15.
+     * @param key the key to look up
+     * @return the estimated frequency
+     */
+    int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of the key, halving all counters when the sample period ends.
+     * @param key the key to count
+     */
+    void increment(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves every counter. Truncated odd counts are subtracted from the addition tally
+     * so the next period starts from an accurate baseline.
+     */
+    void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.cache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * Tells caches when the heap is still full after a garbage collection, so that they shrink
+ * before the collector starts thrashing.
+ * It sets the collection usage threshold of every heap {@link MemoryPoolMXBean} that supports one,
+ * typically the old generation, to the lowest threshold among the subscribed caches. Usage after
+ * collection ignores the garbage a collection frees, so a burst of short-lived objects does not
+ * count as pressure. On each notification, every cache whose own threshold is reached is asked to
+ * shrink, on its maintenance executor.
+ *
+ * <p>Caches are held weakly, so a cache dropped without being closed does not leak; it is
+ * unsubscribed when the next notification or subscription finds it gone.
+ */
+final class HeapPressureMonitor implements NotificationListener {
+    private final List<MemoryPoolMXBean> pools;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param pools the memory pools to watch; only heap pools supporting a collection usage threshold are used
+     * @param emitter the source of the threshold notifications, or null to call {@link #checkPools()} directly
+     */
+    HeapPressureMonitor(List<MemoryPoolMXBean> pools, NotificationEmitter emitter) {
+        this.pools = pools.stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported())
+                .toList();
+        if (emitter != null) {
+            emitter.addNotificationListener(this, notification ->
+                    MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType()), null);
+        }
+    }
+
+    /**
+     * @return the monitor of this JVM's heap, created on first use
+     */
+    static HeapPressureMonitor shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Asks the cache to shrink whenever the heap is at least the given fraction full after a collection.
+     */
+    void subscribe(MemoryCacheImpl<?, ?> cache, double threshold) {
+        subscriptions.add(new Subscription(new WeakReference<>(cache), threshold));
+        updateThresholds();
+    }
+
+    void unsubscribe(MemoryCacheImpl<?, ?> cache) {
+        subscriptions.removeIf(subscription -> subscription.cache().get() == cache);
+        updateThresholds();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        checkPools();
+    }
+
+    /**
+     * Compares the fullest watched pool after its last collection with each cache's threshold,
+     * and asks the caches that reached theirs to shrink.
+     */
+    void checkPools() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage collectionUsage = pool.getCollectionUsage();
+            if (collectionUsage != null && collectionUsage.getMax() > 0) {
+                usage = Math.max(usage, (double) collectionUsage.getUsed() / collectionUsage.getMax());
+            }
+        }
+        boolean cleared = false;
+        for (Subscription subscription : subscriptions) {
+            MemoryCacheImpl<?, ?> cache = subscription.cache().get();
+            if (cache == null) {
+                cleared = true;
+            } else if (usage >= subscription.threshold()) {
+                cache.onHeapPressure();
+            }
+        }
+        if (cleared) {
+            updateThresholds();
+        }
+    }
+
+    /**
+     * Sets each pool's threshold to the lowest subscribed one, or disables it without subscribers.
+     */
+    private synchronized void updateThresholds() {
+        subscriptions.removeIf(subscription -> subscription.cache().get() == null);
+        double lowest = subscriptions.stream().mapToDouble(Subscription::threshold).min().orElse(0);
+        for (MemoryPoolMXBean pool : pools) {
+            long max = pool.getUsage().getMax();
+            if (max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * lowest));
+            }
+        }
+    }
+
+    private record Subscription(WeakReference<MemoryCacheImpl<?, ?>> cache, double threshold) {
+    }
+
+    private static final class Shared {
+        static final HeapPressureMonitor INSTANCE = new HeapPressureMonitor(ManagementFactory.getMemoryPoolMXBeans(),
+                (NotificationEmitter) ManagementFactory.getMemoryMXBean());
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.cache;
+
+/**
+ * Doubly linked list whose links live inside the elements themselves.
+ * Because an element knows its neighbours, unlinking or relinking a node that is already
+ * at hand is O(1) and never allocates. The list is not thread-safe; callers guard it.
+ *
+ * @param <N> the type of the nodes in the list
+ */
+final class IntrusiveList<N extends IntrusiveList.Node<N>> {
+    private N head;
+    private N tail;
+    private int size;
+
+    /**
+     * Base class for elements of an {@link IntrusiveList}.
+     * A node can be a member of at most one list at a time.
+     *
+     * @param <N> the concrete node type
+     */
+    abstract static class Node<N extends Node<N>> {
+        N prev;
+        N next;
+    }
+
+    /**
+     * Inserts the node at the head (most recent end) of the list.
+     * @param node the node to insert, must not currently be linked
+     */
+    void linkFirst(N node) {
+        node.prev = null;
+        node.next = head;
+        if (head == null) {
+            tail = node;
+        } else {
+            head.prev = node;
+        }
+        head = node;
+        size++;
+    }
+
+    /**
+     * Inserts the node at the tail (eldest end) of the list.
+     * @param node the node to insert, must not currently be linked
+     */
+    void linkLast(N node) {
+        node.next = null;
+        node.prev = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        size++;
+    }
+
+    /**
+     * Inserts the node directly after an existing member of the list.
+     * @param anchor a node currently linked in this list
+     * @param node the node to insert, must not currently be linked
+     */
+    void linkAfter(N anchor, N node) {
+        N next = anchor.next;
+        node.prev = anchor;
+        node.next = next;
+        anchor.next = node;
+        if (next == null) {
+            tail = node;
+        } else {
+            next.prev = node;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the node from the list.
+     * @param node a node currently linked in this list
+     */
+    void unlink(N node) {
+        N prev = node.prev;
+        N next = node.next;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        node.prev = null;
+        node.next = null;
+        size--;
+    }
+
+    /**
+     * Moves a member of the list to the head.
+     * @param node a node currently linked in this list
+     */
+    void moveToFront(N node) {
+        if (node != head) {
+            unlink(node);
+            linkFirst(node);
+        }
+    }
+
+    /**
+     * Moves a member of the list to the tail.
+     * @param node a node currently linked in this list
+     */
+    void moveToBack(N node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    N peekFirst() {
+        return head;
+    }
+
+    N peekLast() {
+        return tail;
+    }
+
+    /**
+     * Removes and returns the tail (eldest) node.
+     * @return the removed node, or null if the list is empty
+     */
+    N pollLast() {
+        N node = tail;
+        if (node != null) {
+            unlink(node);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node at the given position, counted from the tail, walking in from whichever end
+     * of the list is nearer.
+     * @param position the position, 0 for the tail
+     * @return the node, or null if the list holds no more than position nodes
+     */
+    N fromLast(int position) {
+        if (position >= size) {
+            return null;
+        }
+        N node;
+        if (position < size / 2) {
+            node = tail;
+            for (int i = 0; i < position; i++) {
+                node = node.prev;
+            }
+        } else {
+            node = head;
+            for (int i = size - 1; i > position; i--) {
+                node = node.next;
+            }
+        }
+        return node;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drops every node from the list. Nodes are not individually unlinked.
+     */
+    void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+}
@@ -1,15 +1,18 @@
 package org.example.cache;
 
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 /**
  * LFU EvictionPolicy implementation.
+ * Frequencies are mutable counters, so a hit increments in place instead of boxing a new count.
  *
  * @param <K> the type of keys in the eviction policy
  */
 class LFUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
-    private final Map<K, Integer> frequencyMap;
+    private Map<K, Frequency> frequencyMap;
     private final int capacity;
 
     public LFUEvictionPolicy(int capacity) {
@@ -24,27 +27,49 @@ class LFUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
     public synchronized K onPut(K key) {
         K beEvicted = null;
 
-        if (frequencyMap.size() >= capacity) {
-            // Find the least frequently used key
-            K leastFrequentKey = frequencyMap.entrySet().stream()
-                    .min(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElse(null);
-            if (leastFrequentKey != null) {
-                frequencyMap.remove(leastFrequentKey);
-            }
-            beEvicted = leastFrequentKey;
+        if (frequencyMap.size() >= capacity && !frequencyMap.containsKey(key)) {
+            beEvicted = evict();
         }
-        frequencyMap.put(key, frequencyMap.getOrDefault(key, 0) + 1);
+        frequencyMap.computeIfAbsent(key, k -> new Frequency()).count++;
         return beEvicted;
     }
 
     @Override
     public synchronized void onAccess(K key) {
+        Frequency frequency = frequencyMap.get(key);
+        if (frequency != null) {
+            frequency.count++;
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(K key) {
+        frequencyMap.remove(key);
+    }
+
+    @Override
+    public synchronized void onClear() {
+        frequencyMap = new HashMap<>();
+    }
 
-        if (frequencyMap.containsKey(key)) {
-            frequencyMap.put(key, frequencyMap.getOrDefault(key, 0) + 1);
+    @Override
+    public synchronized K evict() {
+        // Find the least frequently used key
+        K leastFrequentKey = frequencyMap.entrySet().stream()
+                .min(Comparator.comparingInt(entry -> entry.getValue().count))
+                .map(Map.Entry::getKey)
+                .orElse(null);
+        if (leastFrequentKey != null) {
+            frequencyMap.remove(leastFrequentKey);
         }
+        return leastFrequentKey;
+    }
+
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        frequencyMap.entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().count))
+                .forEach(entry -> visitor.accept(entry.getKey(), entry.getValue().count));
     }
 
     @Override
@@ -56,4 +81,8 @@ class LFUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
     public int getCapacity() {
         return capacity;
     }
+
+    private static final class Frequency {
+        int count;
+    }
 }
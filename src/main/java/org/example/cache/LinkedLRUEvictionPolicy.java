@@ -0,0 +1,108 @@
+package org.example.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * LRU EvictionPolicy implementation with O(1) operations, created for both
+ * {@link EvictionPolicy#LRU} and {@link EvictionPolicy#LINKED_LRU}.
+ * Keys are indexed by a HashMap pointing at nodes of an intrusive doubly linked list,
+ * so a hit unlinks and relinks its node instead of scanning the access order.
+ *
+ * @param <K> the type of keys in the eviction policy
+ */
+class LinkedLRUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
+    private Map<K, Node<K>> index = new HashMap<>();
+    private final IntrusiveList<Node<K>> accessOrder = new IntrusiveList<>();
+    private final int capacity;
+
+    public LinkedLRUEvictionPolicy(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized K onPut(K key) {
+        Node<K> node = index.get(key);
+        if (node != null) {
+            accessOrder.moveToFront(node);
+            return null;
+        }
+        node = new Node<>(key);
+        index.put(key, node);
+        accessOrder.linkFirst(node);
+        if (accessOrder.size() > capacity) {
+            return evict(); // Evict the least recently used item
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void onAccess(K key) {
+        Node<K> node = index.get(key);
+        if (node != null) {
+            accessOrder.moveToFront(node);
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(K key) {
+        Node<K> node = index.remove(key);
+        if (node != null) {
+            accessOrder.unlink(node);
+        }
+    }
+
+    @Override
+    public synchronized void onClear() {
+        index = new HashMap<>();
+        accessOrder.clear();
+    }
+
+    @Override
+    public synchronized K evict() {
+        Node<K> eldest = accessOrder.pollLast();
+        if (eldest == null) {
+            return null;
+        }
+        index.remove(eldest.key);
+        return eldest.key;
+    }
+
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        for (Node<K> node = accessOrder.peekLast(); node != null; node = node.prev) {
+            visitor.accept(node.key, 1);
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        Node<K> node = accessOrder.fromLast(from);
+        for (int visited = 0; node != null && visited < limit; visited++, node = node.prev) {
+            visitor.accept(node.key, 1);
+        }
+        return node != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return accessOrder.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Node<K> extends IntrusiveList.Node<Node<K>> {
+        final K key;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
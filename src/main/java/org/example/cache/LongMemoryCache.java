@@ -0,0 +1,65 @@
+package org.example.cache;
+
+import java.util.function.LongFunction;
+
+/**
+ * A memory cache keyed by primitive {@code long} values, such as numeric IDs.
+ * Unlike a {@code MemoryCache<Long, V>}, keys are never boxed, and a cache hit allocates nothing,
+ * which is why lookups return the value itself, or null on a miss, instead of an Optional.
+ *
+ * @param <V> the type of the value
+ */
+public interface LongMemoryCache<V> {
+
+    /**
+     * Retrieves a value from the cache.
+     *
+     * @param key the key to retrieve the value
+     * @return the value, or null if the cache holds no value for the key
+     */
+    V get(long key);
+
+    /**
+     * Retrieves a value from the cache.
+     * If the value is not present, it uses the loader to fetch and store the value in the cache.
+     * Concurrent misses on the same key may each call the loader.
+     *
+     * @param key    the key to retrieve the value
+     * @param loader a function to load the value if it is not present, returning null if there is none
+     * @return the cached or loaded value, or null if the loader found none
+     */
+    V get(long key, LongFunction<? extends V> loader);
+
+    /**
+     * Puts a value into the cache.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     */
+    void put(long key, V value);
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key the key whose associated value is to be removed
+     */
+    void remove(long key);
+
+    /**
+     * Clears the entire cache.
+     */
+    void clear();
+
+    /**
+     * Checks if the cache contains a value for the given key.
+     *
+     * @param key the key to check
+     * @return true if the cache contains a value for the key, false otherwise
+     */
+    boolean containsKey(long key);
+
+    /**
+     * @return the number of entries in the cache
+     */
+    int size();
+}
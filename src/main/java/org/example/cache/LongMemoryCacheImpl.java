@@ -0,0 +1,411 @@
+package org.example.cache;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * LongMemoryCache implementation built from primitive arrays only.
+ * The cache is split into segments like {@link SegmentedMemoryCache}, each guarded by its own
+ * monitor. A segment stores its entries in parallel arrays indexed by an entry number:
+ * <ul>
+ *     <li>An open-addressing hash table of entry numbers, probed linearly and kept at most half
+ *     full. Removals shift the following entries back instead of leaving tombstones.</li>
+ *     <li>The keys in a {@code long[]} and the values in an {@code Object[]}.</li>
+ *     <li>{@code prev}/{@code next} index links for the eviction order, and for LFU an
+ *     {@code int[]} of frequencies.</li>
+ * </ul>
+ * LRU and FIFO keep a single list, LRU moving hit entries to its head. LFU keeps one list per
+ * frequency, like {@link BucketLFUEvictionPolicy}, and evicts the least recently used entry of the
+ * lowest frequency; frequencies stop counting at {@value #MAX_FREQUENCY}. Arrays start small and
+ * double as entries are added, up to the capacity.
+ *
+ * @param <V> the type of the value
+ */
+class LongMemoryCacheImpl<V> implements LongMemoryCache<V> {
+    /** Largest capacity of a segment, so that its hash table size fits in an int. */
+    static final int MAX_SEGMENT_CAPACITY = 1 << 29;
+    static final int MAX_FREQUENCY = 255;
+
+    private final Segment<V>[] segments;
+
+    /**
+     * @param evictionPolicy LRU or LINKED_LRU for LRU order, FIFO, or LFU or BUCKET_LFU for LFU order
+     * @param capacity       the total capacity, distributed across the segments
+     * @param segmentCount   the number of segments, at least 1 and at most the capacity
+     */
+    @SuppressWarnings("unchecked")
+    public LongMemoryCacheImpl(EvictionPolicy evictionPolicy, int capacity, int segmentCount) {
+        Objects.requireNonNull(evictionPolicy, "Eviction policy cannot be null");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be greater than 0");
+        }
+        if (segmentCount > capacity) {
+            throw new IllegalArgumentException("Segment count cannot exceed the capacity");
+        }
+        Order order = switch (evictionPolicy) {
+            case LRU, LINKED_LRU -> Order.LRU;
+            case FIFO -> Order.FIFO;
+            case LFU, BUCKET_LFU -> Order.LFU;
+            default -> throw new IllegalArgumentException("Unsupported eviction policy for long keys: " + evictionPolicy);
+        };
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            if (segmentCapacity > MAX_SEGMENT_CAPACITY) {
+                throw new IllegalArgumentException("Segment capacity cannot exceed " + MAX_SEGMENT_CAPACITY);
+            }
+            segments[i] = new Segment<>(order, segmentCapacity);
+        }
+    }
+
+    @Override
+    public V get(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    @Override
+    public V get(long key, LongFunction<? extends V> loader) {
+        Objects.requireNonNull(loader, "Loader cannot be null");
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(long key, V value) {
+        Objects.requireNonNull(value, "Value cannot be null");
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    @Override
+    public void remove(long key) {
+        int hash = hash(key);
+        segmentFor(hash).remove(key, hash);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Spreads the key's bits, as sequential IDs would otherwise fill runs of the hash table.
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Picks the segment from the high bits of the hash; segments index their table by the low bits.
+     */
+    private Segment<V> segmentFor(int hash) {
+        return segments[(int) (((hash & 0xFFFFFFFFL) * segments.length) >>> 32)];
+    }
+
+    private enum Order {
+        LRU, FIFO, LFU
+    }
+
+    private static final class Segment<V> {
+        private static final int NONE = -1;
+        /** Marks an empty slot of the hash table, which otherwise holds entry numbers. */
+        private static final int EMPTY = -1;
+        private static final int INITIAL_ENTRIES = 16;
+
+        private final Order order;
+        private final int capacity;
+        private int[] table;
+        private int mask;
+        private long[] keys;
+        private Object[] values;
+        private int[] prev;
+        private int[] next;
+        /** Frequency of each entry, LFU only. */
+        private int[] frequency;
+        /** Head and tail of each list: a single list, or one per frequency for LFU. */
+        private final int[] heads;
+        private final int[] tails;
+        /** Lowest frequency that may have entries, LFU only. */
+        private int minFrequency;
+        private int size;
+        /** Entry numbers at and above this one have never been used. */
+        private int unusedFrom;
+        /** Freed entry numbers, chained through {@link #next}. */
+        private int freeHead = NONE;
+
+        Segment(Order order, int capacity) {
+            this.order = order;
+            this.capacity = capacity;
+            int lists = (order == Order.LFU) ? MAX_FREQUENCY + 1 : 1;
+            this.heads = new int[lists];
+            this.tails = new int[lists];
+            allocate(Math.min(capacity, INITIAL_ENTRIES));
+        }
+
+        synchronized V get(long key, int hash) {
+            int entry = find(key, hash);
+            if (entry == NONE) {
+                return null;
+            }
+            onHit(entry);
+            return valueOf(entry);
+        }
+
+        synchronized boolean containsKey(long key, int hash) {
+            return find(key, hash) != NONE;
+        }
+
+        synchronized void put(long key, int hash, V value) {
+            int entry = find(key, hash);
+            if (entry != NONE) {
+                values[entry] = value;
+                onHit(entry); // A put of a present key counts as an access, as in the eviction policies
+                return;
+            }
+            if (size >= capacity) {
+                evict();
+            }
+            entry = newEntry();
+            keys[entry] = key;
+            values[entry] = value;
+            if (order == Order.LFU) {
+                frequency[entry] = 1;
+                minFrequency = 1;
+                linkFirst(1, entry);
+            } else {
+                linkFirst(0, entry);
+            }
+            insert(entry, hash);
+            size++;
+        }
+
+        synchronized void remove(long key, int hash) {
+            int slot = findSlot(key, hash);
+            if (slot != NONE) {
+                removeAt(slot);
+            }
+        }
+
+        synchronized void clear() {
+            allocate(Math.min(capacity, INITIAL_ENTRIES));
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueOf(int entry) {
+            return (V) values[entry];
+        }
+
+        private void onHit(int entry) {
+            switch (order) {
+                case LRU -> {
+                    unlink(0, entry);
+                    linkFirst(0, entry);
+                }
+                case LFU -> {
+                    int current = frequency[entry];
+                    if (current == MAX_FREQUENCY) {
+                        unlink(current, entry);
+                        linkFirst(current, entry);
+                        return;
+                    }
+                    unlink(current, entry);
+                    frequency[entry] = current + 1;
+                    linkFirst(current + 1, entry);
+                    if (minFrequency == current && heads[current] == NONE) {
+                        minFrequency = current + 1;
+                    }
+                }
+                case FIFO -> {
+                    // Insertion order only
+                }
+            }
+        }
+
+        private void evict() {
+            int list = 0;
+            if (order == Order.LFU) {
+                while (heads[minFrequency] == NONE) {
+                    minFrequency++;
+                }
+                list = minFrequency;
+            }
+            int victim = tails[list];
+            removeAt(findSlot(keys[victim], hash(keys[victim])));
+        }
+
+        /**
+         * Removes the entry in the given table slot from the table, its list and the arrays.
+         */
+        private void removeAt(int slot) {
+            int entry = table[slot];
+            deleteSlot(slot);
+            unlink((order == Order.LFU) ? frequency[entry] : 0, entry);
+            values[entry] = null;
+            next[entry] = freeHead;
+            freeHead = entry;
+            size--;
+        }
+
+        private int find(long key, int hash) {
+            int slot = findSlot(key, hash);
+            return (slot == NONE) ? NONE : table[slot];
+        }
+
+        private int findSlot(long key, int hash) {
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot];
+                if (entry == EMPTY) {
+                    return NONE;
+                }
+                if (keys[entry] == key) {
+                    return slot;
+                }
+            }
+        }
+
+        private void insert(int entry, int hash) {
+            int slot = hash & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+
+        /**
+         * Empties a slot, moving back any later entry of the same probe run that could no longer
+         * be found past the gap.
+         */
+        private void deleteSlot(int slot) {
+            int gap = slot;
+            for (int i = (slot + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+                int home = hash(keys[table[i]]) & mask;
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    table[gap] = table[i];
+                    gap = i;
+                }
+            }
+            table[gap] = EMPTY;
+        }
+
+        private int newEntry() {
+            if (freeHead != NONE) {
+                int entry = freeHead;
+                freeHead = next[entry];
+                return entry;
+            }
+            if (unusedFrom == keys.length) {
+                grow(Math.min(capacity, keys.length * 2));
+            }
+            return unusedFrom++;
+        }
+
+        private void linkFirst(int list, int entry) {
+            int head = heads[list];
+            prev[entry] = NONE;
+            next[entry] = head;
+            if (head == NONE) {
+                tails[list] = entry;
+            } else {
+                prev[head] = entry;
+            }
+            heads[list] = entry;
+        }
+
+        private void unlink(int list, int entry) {
+            int before = prev[entry];
+            int after = next[entry];
+            if (before == NONE) {
+                heads[list] = after;
+            } else {
+                next[before] = after;
+            }
+            if (after == NONE) {
+                tails[list] = before;
+            } else {
+                prev[after] = before;
+            }
+        }
+
+        /**
+         * Resets the segment to empty arrays of the given number of entries.
+         */
+        private void allocate(int entries) {
+            keys = new long[entries];
+            values = new Object[entries];
+            prev = new int[entries];
+            next = new int[entries];
+            frequency = (order == Order.LFU) ? new int[entries] : null;
+            table = newTable(entries);
+            Arrays.fill(heads, NONE);
+            Arrays.fill(tails, NONE);
+            minFrequency = 1;
+            size = 0;
+            unusedFrom = 0;
+            freeHead = NONE;
+        }
+
+        /**
+         * Enlarges the entry arrays, rebuilding the table when it would get more than half full.
+         */
+        private void grow(int entries) {
+            keys = Arrays.copyOf(keys, entries);
+            values = Arrays.copyOf(values, entries);
+            prev = Arrays.copyOf(prev, entries);
+            next = Arrays.copyOf(next, entries);
+            if (frequency != null) {
+                frequency = Arrays.copyOf(frequency, entries);
+            }
+            if (table.length < 2 * entries) {
+                int[] old = table;
+                table = newTable(entries);
+                for (int entry : old) {
+                    if (entry != EMPTY) {
+                        insert(entry, hash(keys[entry]));
+                    }
+                }
+            }
+        }
+
+        private int[] newTable(int entries) {
+            int length = Integer.highestOneBit(Math.max(2, entries * 2 - 1)) << 1;
+            int[] newTable = new int[length];
+            Arrays.fill(newTable, EMPTY);
+            mask = length - 1;
+            return newTable;
+        }
+    }
+}
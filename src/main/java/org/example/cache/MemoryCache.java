@@ -1,5 +1,10 @@
 package org.example.cache;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -9,7 +14,7 @@ import java.util.function.Function;
  * @param <K> the type of the key
  * @param <V> the type of the value
  */
-public interface MemoryCache<K, V> {
+public interface MemoryCache<K, V> extends AutoCloseable {
 
     /**
      * Retrieves a value from the cache.
@@ -29,6 +34,26 @@ public interface MemoryCache<K, V> {
      */
     Optional<V> get(K key);
 
+    /**
+     * Retrieves a value from the cache without a loader or an Optional, so a hit allocates nothing.
+     *
+     * @param key the key to retrieve the value
+     * @return the value, or null if the cache holds no value for the key
+     */
+    V getIfPresent(K key);
+
+    /**
+     * Retrieves a value from the cache, falling back to a default without allocating.
+     *
+     * @param key          the key to retrieve the value
+     * @param defaultValue the value to return on a miss
+     * @return the cached value, or the default value if the cache holds no value for the key
+     */
+    default V getOrDefault(K key, V defaultValue) {
+        V value = getIfPresent(key);
+        return (value == null) ? defaultValue : value;
+    }
+
     /**
      * Retrieves a value from the cache asynchronously.
      * If the value is not present, it uses the loader to fetch and store the value in the cache asynchronously.
@@ -39,6 +64,26 @@ public interface MemoryCache<K, V> {
      */
     CompletableFuture<Optional<V>> getAsync(K key, Function<K, CompletableFuture<Optional<V>>> loader);
 
+    /**
+     * Retrieves the values of several keys at once.
+     * The keys that are not present are loaded with a single call to the bulk loader and stored in the cache.
+     *
+     * @param keys       the keys to retrieve the values for
+     * @param bulkLoader a function to load the values of the missing keys; keys it leaves out are absent
+     * @return the cached or loaded values, in the order of the keys, without the keys that have no value
+     */
+    Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader);
+
+    /**
+     * Retrieves the values of several keys at once, asynchronously.
+     * The keys that are not present are loaded with a single call to the bulk loader and stored in the cache.
+     *
+     * @param keys       the keys to retrieve the values for
+     * @param bulkLoader a function to load the values of the missing keys asynchronously
+     * @return a CompletableFuture containing the cached or loaded values, in the order of the keys
+     */
+    CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys, Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader);
+
     /**
      * Puts a value into the cache.
      *
@@ -47,6 +92,23 @@ public interface MemoryCache<K, V> {
      */
     void put(K key, V value);
 
+    /**
+     * Puts a value into the cache that expires after the given time-to-live, regardless of
+     * the cache's default expiration settings.
+     *
+     * @param key   the key associated with the value
+     * @param value the value to store in the cache
+     * @param ttl   how long the value stays in the cache, must be positive
+     */
+    void put(K key, V value, Duration ttl);
+
+    /**
+     * Puts several values into the cache.
+     *
+     * @param map the keys and values to store in the cache
+     */
+    void putAll(Map<? extends K, ? extends V> map);
+
     /**
      * Removes a value from the cache.
      *
@@ -54,6 +116,13 @@ public interface MemoryCache<K, V> {
      */
     void remove(K key);
 
+    /**
+     * Removes the values of several keys from the cache.
+     *
+     * @param keys the keys whose associated values are to be removed
+     */
+    void invalidateAll(Iterable<K> keys);
+
     /**
      * Clears the entire cache.
      */
@@ -66,4 +135,53 @@ public interface MemoryCache<K, V> {
      * @return true if the cache contains a value for the key, false otherwise
      */
     boolean containsKey(K key);
+
+    /**
+     * Performs any pending maintenance, such as replaying buffered reads against the eviction policy.
+     * Maintenance happens automatically; calling this is only needed to observe the policy state
+     * at a precise point, for example in tests.
+     */
+    void cleanUp();
+
+    /**
+     * Saves the live entries to a file, with the eviction policy's order and access frequencies,
+     * so that a new cache can start warm. The file is replaced atomically once complete.
+     * Readers are not blocked; entries changed while the snapshot is taken may or may not be in it.
+     *
+     * @param file       the file to write
+     * @param keyCodec   converts keys to bytes
+     * @param valueCodec converts values to bytes
+     * @throws IOException if the file cannot be written
+     */
+    void saveSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException;
+
+    /**
+     * Puts the entries of a snapshot into the cache, in their saved eviction order, and replays
+     * their access frequencies. The wall clock time elapsed since the save is taken off the time
+     * to live entries had left, and entries that expired meanwhile are skipped. Entries that
+     * expire after access keep doing so if this cache is configured to expire after access.
+     *
+     * @param file       a file written by {@link #saveSnapshot}
+     * @param keyCodec   converts bytes back to keys
+     * @param valueCodec converts bytes back to values
+     * @return the number of entries loaded, leaving out those that expired since the save
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    int loadSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException;
+
+    /**
+     * Returns a snapshot of the cache's statistics. The counters stay at zero unless
+     * {@link CachePreference#setRecordStats(boolean) recording} is enabled.
+     *
+     * @return the current statistics
+     */
+    CacheStats stats();
+
+    /**
+     * Writes the changes still waiting for a write-behind {@link CacheWriter} and stops its
+     * background thread. Does nothing for a cache without a writer.
+     */
+    @Override
+    default void close() {
+    }
 }
\ No newline at end of file
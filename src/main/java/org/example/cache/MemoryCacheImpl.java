@@ -1,90 +1,1529 @@
 package org.example.cache;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ObjIntConsumer;
 
+/**
+ * MemoryCache implementation backed by a ConcurrentHashMap and an eviction policy.
+ * The map is updated directly by the calling thread; the eviction policy is only ever touched
+ * during maintenance, under a single lock:
+ * <ul>
+ *     <li>Cache hits are recorded in a striped, lossy {@link ReadBuffer}.</li>
+ *     <li>Writes are recorded in a bounded {@link WriteBuffer} that is never lossy.</li>
+ * </ul>
+ * Removals are recorded in the write buffer too, so that the policy forgets the removed keys.
+ * Maintenance replays both buffers against the policy and removes the keys it evicts. It is
+ * scheduled on the configured executor after a write, or after a read when a buffer stripe fills
+ * up. If the write buffer is full, the writer performs maintenance inline before retrying.
+ *
+ * <p>Entries can expire a fixed time after they were written or last read, or after a
+ * per-entry time-to-live. Reads check the deadline themselves, so an expired entry is never
+ * returned. Maintenance reclaims expired entries by advancing a {@link TimerWheel}.
+ *
+ * <p>Loads are single-flight: while a loader runs for a key, other callers missing the same key
+ * wait for its in-flight future instead of calling their own loader. The value is published to
+ * the map before the future is retired, so a caller arriving afterwards finds it there. Failed
+ * and empty loads are not cached; the next miss loads again.
+ *
+ * <p>With a {@link Weigher} and a maximum weight, maintenance keeps the total weight of the
+ * entries within budget by asking the eviction policy for victims until it fits. The replaced or
+ * removed node of a key is queued as well, so its weight is released and its timer stopped in the
+ * same order the map changed.
+ *
+ * <p>In off-heap mode, values are encoded by a {@link ValueCodec} into an {@link OffHeapStore},
+ * and nodes only keep the location of their bytes. The cache is then weighted by the bytes each
+ * value occupies, with the store's capacity as the maximum weight, so the eviction policy still
+ * decides what to free. A node's bytes are freed once it has left the map and maintenance has
+ * seen it for the last time. Reads copy the bytes without locking and retry if the node was
+ * freed meanwhile, in which case the bytes may have been reused. A writer that finds the store
+ * full performs maintenance and evicts victims itself until the value fits.
+ *
+ * <p>With refresh-after-write, a hit through a loader on an entry older than the refresh interval
+ * returns the current value and reloads it on the refresh executor. A node starts at most one
+ * refresh, claimed by swapping its refresh time for {@link #NO_EXPIRATION}. The reloaded value
+ * replaces the node only if it is still mapped, so a put made meanwhile wins. A failed reload
+ * restores the refresh time, so that the next hit tries again, and keeps the value; an empty
+ * reload removes the entry, as the key no longer has a value.
+ *
+ * <p>With a {@link RemovalListener}, every node leaving the map is reported to a
+ * {@link RemovalNotifier} by the thread that unmapped it: callers for removals and replacements,
+ * maintenance for evictions and expirations. A node that had expired is reported as such even
+ * when a write replaced or removed it first. The notifier delivers the notifications on its own
+ * executor. Notifications of removals made under the eviction lock are held back until it is
+ * released, so that a caller delivering them when the notifier's queue is full never runs the
+ * listener under the lock, where a listener calling back into the cache would deadlock.
+ *
+ * <p>With soft or weak values, a node holds its value through a reference registered with a
+ * {@link ReferenceQueue}. A node whose value was collected reads as a miss and schedules
+ * maintenance, which drains the queue and removes the collected nodes from the map and the
+ * eviction policy. Completed futures are not kept on such nodes, as they would hold the value.
+ *
+ * <p>With a heap pressure threshold, the cache subscribes to the {@link HeapPressureMonitor}. When
+ * the heap stays full after a collection, maintenance asks the eviction policy for victims until
+ * the cache is down to the target fraction of its size.
+ *
+ * <p>When statistics are recorded, hits, misses, loads and evictions go to striped counters
+ * reported by {@link #stats()}. Otherwise the cache has no counters at all, and recording costs a
+ * null check; in particular, the ticker is not read to time loads.
+ */
 class MemoryCacheImpl<K, V> implements MemoryCache<K, V> {
-    private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+    /** Maintenance state: nothing pending. */
+    static final int IDLE = 0;
+    /** Maintenance state: buffered work is waiting for a drain to be scheduled. */
+    static final int REQUIRED = 1;
+    /** Maintenance state: a drain is scheduled or running and nothing new arrived. */
+    static final int PROCESSING_TO_IDLE = 2;
+    /** Maintenance state: a drain is running and new work arrived meanwhile. */
+    static final int PROCESSING_TO_REQUIRED = 3;
+
+    private static final int WRITE_BUFFER_SIZE = 128 * Runtime.getRuntime().availableProcessors();
+    private static final int REMOVAL_QUEUE_SIZE = 4096;
+    /** Most keys of the eviction order copied per hold of the eviction lock. */
+    private static final int EVICTION_ORDER_CHUNK = 4096;
+    /** Expiration time of a node that never expires. */
+    static final long NO_EXPIRATION = Long.MAX_VALUE;
+    /** Upper bound on durations, so that adding one to the current time cannot overflow. */
+    private static final long MAX_DURATION_NANOS = Long.MAX_VALUE >> 2;
+
+    private final ConcurrentHashMap<K, Node<K, V>> cache = new ConcurrentHashMap<>();
+    /** Loads in progress, so concurrent misses on a key share one loader call. */
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> loads = new ConcurrentHashMap<>();
     private final EvictionPolicyHandler<K> evictionPolicy;
+    private final Executor executor;
+    private final LongSupplier ticker;
+    private final LongSupplier wallClock;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    private final Executor refreshExecutor;
+    /** Null when the cache is only bounded by the policy's entry capacity. */
+    private final Weigher<? super K, ? super V> weigher;
+    private final long maximumWeight;
+    /** Whether entries have individual weights: with a weigher or off-heap, where the weight is in bytes. */
+    private final boolean weighted;
+    /** Null unless values are stored off-heap. */
+    private final OffHeapStore store;
+    private final ValueCodec<V> codec;
+    /** Null when statistics are not recorded. */
+    private final StatsCounter stats;
+    /** Null without a removal listener. */
+    private final RemovalNotifier<K, V> notifier;
+    /** Notifications held back until the eviction lock is released; null without a removal listener. */
+    private final List<RemovalNotifier.Notification<K, V>> deferredNotifications;
+    private final ReferenceStrength valueStrength;
+    /** Null with strong values. */
+    private final ReferenceQueue<V> collectedValues;
+    /** 0 unless the cache shrinks under heap pressure. */
+    private final double heapPressureThreshold;
+    private final double heapPressureTarget;
+    private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+    private final WriteBuffer<Node<K, V>> writeBuffer = new WriteBuffer<>(WRITE_BUFFER_SIZE);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicInteger drainStatus = new AtomicInteger(IDLE);
+    private final Consumer<Node<K, V>> accessRecorder = this::recordAccess;
+    private final Runnable drainBuffersTask = this::performCleanUp;
+    private final Runnable readDrainTask = this::performReadCleanUp;
+    private final Consumer<Node<K, V>> expirer = this::expire;
+    /** Created on first use, as most caches never expire anything. Guarded by the eviction lock. */
+    private TimerWheel<K, V> timerWheel;
+    /** Total weight of the admitted nodes. Guarded by the eviction lock. */
+    private long weightedSize;
 
     public MemoryCacheImpl(EvictionPolicyHandler<K> evictionPolicy) {
+        this(evictionPolicy, new CachePreference());
+    }
+
+    public MemoryCacheImpl(EvictionPolicyHandler<K> evictionPolicy, Executor executor) {
+        this(evictionPolicy, withExecutor(executor));
+    }
+
+    /**
+     * Creates a cache using the settings of the preference other than the eviction policy and
+     * capacity, which are carried by the given policy instance.
+     */
+    public MemoryCacheImpl(EvictionPolicyHandler<K> evictionPolicy, CachePreference preference) {
+        this(evictionPolicy, preference, budgetOf(Objects.requireNonNull(preference, "Cache preference cannot be null")));
+    }
+
+    /**
+     * Creates a cache with its own budget instead of the preference's, such as a segment's share of it.
+     * @param budget the maximum weight, or the off-heap capacity in bytes if values are stored off-heap
+     */
+    @SuppressWarnings("unchecked")
+    MemoryCacheImpl(EvictionPolicyHandler<K> evictionPolicy, CachePreference preference, long budget) {
         this.evictionPolicy = Objects.requireNonNull(evictionPolicy, "Eviction policy cannot be null");
+        Objects.requireNonNull(preference, "Cache preference cannot be null");
+        this.executor = preference.getExecutor();
+        this.ticker = preference.getTicker();
+        this.wallClock = preference.getWallClock();
+        this.expireAfterWriteNanos = toNanos(preference.getExpireAfterWrite());
+        this.expireAfterAccessNanos = toNanos(preference.getExpireAfterAccess());
+        this.refreshAfterWriteNanos = toNanos(preference.getRefreshAfterWrite());
+        this.refreshExecutor = preference.getRefreshExecutor();
+        this.weigher = (Weigher<? super K, ? super V>) preference.getWeigher();
+        if (preference.getOffHeapCapacity() > 0) {
+            if (weigher != null || preference.getMaximumWeight() > 0) {
+                throw new IllegalArgumentException("Off-heap values are weighed by their size; a weigher cannot be set");
+            }
+            if (preference.getValueStrength() != ReferenceStrength.STRONG) {
+                throw new IllegalArgumentException("Off-heap values cannot be held by soft or weak references");
+            }
+            this.codec = (ValueCodec<V>) Objects.requireNonNull(preference.getValueCodec(),
+                    "Value codec cannot be null when storing values off-heap");
+            this.store = new OffHeapStore(budget);
+            this.maximumWeight = store.capacity();
+        } else {
+            if ((budget > 0) != (weigher != null)) {
+                throw new IllegalArgumentException("A maximum weight and a weigher must be set together");
+            }
+            this.codec = null;
+            this.store = null;
+            this.maximumWeight = budget;
+        }
+        this.weighted = (weigher != null) || (store != null);
+        this.stats = (preference.isRecordStats() || preference.isRecordLoadLatency())
+                ? new StatsCounter(preference.isRecordLoadLatency())
+                : null;
+        RemovalListener<K, V> listener = (RemovalListener<K, V>) preference.getRemovalListener();
+        this.notifier = (listener == null)
+                ? null
+                : new RemovalNotifier<>(listener, preference.getRemovalExecutor(), REMOVAL_QUEUE_SIZE);
+        this.deferredNotifications = (listener == null) ? null : new ArrayList<>();
+        this.valueStrength = preference.getValueStrength();
+        this.collectedValues = (valueStrength == ReferenceStrength.STRONG) ? null : new ReferenceQueue<>();
+        this.heapPressureThreshold = preference.getHeapPressureThreshold();
+        this.heapPressureTarget = preference.getHeapPressureTarget();
+        if (heapPressureThreshold > 0) {
+            HeapPressureMonitor.shared().subscribe(this, heapPressureThreshold);
+        }
     }
 
     @Override
     public Optional<V> get(K key, Function<K, Optional<V>> loader) {
         Objects.requireNonNull(key, "Key cannot be null");
-        V value = cache.get(key);
+        V value = getLiveValue(key);
         if (value != null) {
-            evictionPolicy.onAccess(key);
+            recordHits(1);
+            if (refreshAfterWriteNanos > 0) {
+                refreshIfDue(key, loader, null);
+            }
             return Optional.of(value);
         }
+        recordMisses(1);
 
+        CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+
+        Optional<V> loadedValue;
         try {
-            Optional<V> loadedValue = loader.apply(key);
-            loadedValue.ifPresent(val -> put(key, val));
-            return loadedValue;
-        } catch (Exception e) {
-            // Log the exception and rethrow as needed
+            // A load that finished just before this one started has already published its value
+            value = getLiveValue(key);
+            loadedValue = (value != null) ? Optional.of(value) : load(key, loader);
+            if (value == null) {
+                loadedValue.ifPresent(val -> put(key, val));
+            }
+        } catch (Throwable e) {
+            // Waiters must not hang, even on an Error
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
             throw new RuntimeException("Error during loading", e);
         }
+        loads.remove(key, load);
+        load.complete(loadedValue);
+        return loadedValue;
     }
 
     @Override
     public Optional<V> get(K key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(K key) {
         Objects.requireNonNull(key, "Key cannot be null");
-        V value = cache.get(key);
-        if (value != null) {
-            evictionPolicy.onAccess(key);
+        V value = getLiveValue(key);
+        if (value == null) {
+            recordMisses(1);
+            return null;
         }
-        return Optional.ofNullable(value);
+        recordHits(1);
+        return value;
     }
 
     @Override
     public CompletableFuture<Optional<V>> getAsync(K key, Function<K, CompletableFuture<Optional<V>>> loader) {
         Objects.requireNonNull(key, "Key cannot be null");
 
-        V value = cache.get(key);
+        CompletableFuture<Optional<V>> hit = getLiveFuture(key);
+        if (hit != null) {
+            recordHits(1);
+            if (refreshAfterWriteNanos > 0) {
+                refreshIfDue(key, null, loader);
+            }
+            return hit;
+        }
+        recordMisses(1);
+
+        CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return inFlight.copy(); // Callers completing their copy cannot affect the others
+        }
+
+        V value = getLiveValue(key);
         if (value != null) {
-            evictionPolicy.onAccess(key);
-            return CompletableFuture.completedFuture(Optional.of(value));
+            loads.remove(key, load);
+            load.complete(Optional.of(value));
+            return load.copy();
         }
+        long startTime = startLoad();
+        try {
+            loader.apply(key).whenComplete((loadedValue, error) -> {
+                recordLoad(startTime, error == null && loadedValue != null && loadedValue.isPresent());
+                completeLoad(key, load, loadedValue, error);
+            });
+        } catch (Throwable e) {
+            recordLoad(startTime, false);
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error; // Waiters see it through the failed load
+            }
+        }
+        return load.copy();
+    }
 
-        return loader.apply(key).thenApply(loadedValue -> {
-            loadedValue.ifPresent(val -> put(key, val));
-            return loadedValue;
-        });
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        return BulkOperations.getAll(keys, bulkLoader, key -> this);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys,
+                                                    Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader) {
+        return BulkOperations.getAllAsync(keys, bulkLoader, key -> this);
     }
 
     @Override
     public void put(K key, V value) {
+        bufferWrite(key, value);
+        scheduleAfterWrite();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        BulkOperations.<K, V>putAll(map, key -> this);
+    }
+
+    /**
+     * Maps the value with the default expiration and queues the write for the eviction policy,
+     * without scheduling maintenance. Batches call {@link #scheduleAfterWrite()} once at the end.
+     */
+    void bufferWrite(K key, V value) {
         Objects.requireNonNull(key, "Key cannot be null");
         Objects.requireNonNull(value, "Value cannot be null");
+        mapAndEnqueue(newWriteNode(key, value));
+    }
 
-        K evictedKey = evictionPolicy.onPut(key);
-        if (evictedKey != null) {
-            cache.remove(evictedKey);
+    /**
+     * Creates the node of a write with the default expiration.
+     */
+    private Node<K, V> newWriteNode(K key, V value) {
+        long now = (expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0) ? ticker.getAsLong() : 0L;
+        long writeExpirationTime = (expireAfterWriteNanos > 0) ? now + expireAfterWriteNanos : NO_EXPIRATION;
+        long expirationTime = (expireAfterAccessNanos > 0)
+                ? Math.min(writeExpirationTime, now + expireAfterAccessNanos)
+                : writeExpirationTime;
+        return newNode(key, value, writeExpirationTime, expirationTime, expireAfterAccessNanos > 0);
+    }
+
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        Objects.requireNonNull(value, "Value cannot be null");
+        Objects.requireNonNull(ttl, "TTL cannot be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
         }
-        cache.put(key, value);
+
+        long expirationTime = ticker.getAsLong() + toNanos(ttl);
+        Node<K, V> node = newNode(key, value, expirationTime, expirationTime, false);
+        node.customTtl = true;
+        mapAndEnqueue(node);
+        scheduleAfterWrite();
     }
 
     @Override
     public void remove(K key) {
         Objects.requireNonNull(key, "Key cannot be null");
-        cache.remove(key);
+        Node<K, V> removed = cache.remove(key);
+        if (removed == null) {
+            return;
+        }
+        if (notifier != null) {
+            notifyRemoval(removed, causeOf(removed, RemovalCause.EXPLICIT));
+        }
+        afterWrite(removed); // Lets maintenance remove the key from the policy and release its weight
+    }
+
+    @Override
+    public void invalidateAll(Iterable<K> keys) {
+        Objects.requireNonNull(keys, "Keys cannot be null");
+        for (K key : keys) {
+            remove(key);
+        }
     }
 
+    /**
+     * Applies the pending writes, then empties the map and the eviction policy under the eviction
+     * lock. Entries written concurrently may or may not survive. Without weights or a removal
+     * listener, nothing needs to be done per entry, and the map, the policy and the timer wheel
+     * are simply dropped.
+     */
     @Override
     public void clear() {
-        cache.clear();
+        evictionLock.lock();
+        try {
+            maintenance();
+            if (!weighted && notifier == null) {
+                // Nodes removed concurrently keep their weight until their queued write retires them
+                for (Node<K, V> node : cache.values()) {
+                    if (node.admitted) {
+                        retire(node);
+                    }
+                }
+                cache.clear();
+            } else {
+                for (Node<K, V> node : cache.values()) {
+                    if (cache.remove(node.key, node)) {
+                        notifyRemoval(node, causeOf(node, RemovalCause.EXPLICIT));
+                        if (node.admitted) {
+                            retire(node);
+                        }
+                    }
+                }
+            }
+            evictionPolicy.onClear();
+        } finally {
+            unlockEviction();
+        }
     }
 
     @Override
     public boolean containsKey(K key) {
         Objects.requireNonNull(key, "Key cannot be null");
-        return cache.containsKey(key);
+        Node<K, V> node = cache.get(key);
+        return (node != null) && !node.hasExpired(ticker) && !node.isCollected();
+    }
+
+    @Override
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    @Override
+    public void saveSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        CacheSnapshot.save(List.of(this), file, keyCodec, valueCodec, wallClock);
+    }
+
+    @Override
+    public int loadSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        return CacheSnapshot.load(file, keyCodec, valueCodec, key -> this, wallClock);
+    }
+
+    /**
+     * Visits the live entries, from the one the eviction policy would evict first to the one it
+     * would evict last. The policy's order is copied in chunks of {@value #EVICTION_ORDER_CHUNK}
+     * keys, each after applying the pending writes, and the eviction lock is released between
+     * chunks so writers wait for one chunk at most. Values are read from the map without locking
+     * or recording accesses. The order is weakly consistent: a key moved by a write between two
+     * chunks is visited once, and entries the chunks missed, such as those written meanwhile, are
+     * visited last.
+     */
+    void forEachInEvictionOrder(CacheSnapshot.EntryVisitor<K, V> visitor) throws IOException {
+        Set<K> visited = new HashSet<>();
+        OrderChunk<K> chunk = new OrderChunk<>();
+        boolean more = true;
+        for (int from = 0; more; from += chunk.size) {
+            chunk.size = 0;
+            evictionLock.lock();
+            try {
+                maintenance();
+                more = evictionPolicy.forEachInEvictionOrder(from, EVICTION_ORDER_CHUNK, chunk);
+            } finally {
+                unlockEviction();
+            }
+            for (int i = 0; i < chunk.size; i++) {
+                if (visited.add(chunk.keys[i])) {
+                    visitLive(chunk.keys[i], chunk.frequencies[i], visitor);
+                }
+            }
+        }
+        for (K key : cache.keySet()) {
+            if (!visited.contains(key)) {
+                visitLive(key, 1, visitor);
+            }
+        }
+    }
+
+    private void visitLive(K key, int frequency, CacheSnapshot.EntryVisitor<K, V> visitor) throws IOException {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return;
+        }
+        long ttlNanos = CacheSnapshot.NO_TTL;
+        long idleNanos = CacheSnapshot.NO_TTL;
+        long expirationTime = node.expirationTime;
+        if (expirationTime != NO_EXPIRATION) {
+            long now = ticker.getAsLong();
+            if (expirationTime - now <= 0) {
+                return;
+            }
+            if (node.expiresAfterAccess) {
+                idleNanos = expirationTime - now;
+                if (node.writeExpirationTime != NO_EXPIRATION) {
+                    ttlNanos = node.writeExpirationTime - now;
+                }
+            } else {
+                ttlNanos = expirationTime - now;
+            }
+        }
+        V value = valueOf(node);
+        if (value != null) {
+            visitor.visit(key, value, frequency, ttlNanos, idleNanos);
+        }
+    }
+
+    /**
+     * Puts an entry loaded from a snapshot with the time it has left. An entry that expired after
+     * access keeps doing so, extended by this cache's expire-after-access duration on each hit; if
+     * this cache does not expire entries after access, its idle time left becomes a fixed deadline.
+     * An entry saved without expiration takes this cache's default one.
+     * @param ttlNanos the time left before the entry expires regardless of accesses, or {@link CacheSnapshot#NO_TTL}
+     * @param idleNanos the time left before the entry expires unless accessed, or {@link CacheSnapshot#NO_TTL}
+     */
+    void restore(K key, V value, long ttlNanos, long idleNanos) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        Objects.requireNonNull(value, "Value cannot be null");
+        if (ttlNanos == CacheSnapshot.NO_TTL && idleNanos == CacheSnapshot.NO_TTL) {
+            put(key, value);
+            return;
+        }
+        long now = ticker.getAsLong();
+        long writeExpirationTime = (ttlNanos == CacheSnapshot.NO_TTL) ? NO_EXPIRATION : now + ttlNanos;
+        long expirationTime = (idleNanos == CacheSnapshot.NO_TTL)
+                ? writeExpirationTime
+                : Math.min(writeExpirationTime, now + idleNanos);
+        boolean expiresAfterAccess = (idleNanos != CacheSnapshot.NO_TTL) && expireAfterAccessNanos > 0;
+        mapAndEnqueue(newNode(key, value, expiresAfterAccess ? writeExpirationTime : expirationTime,
+                expirationTime, expiresAfterAccess));
+        scheduleAfterWrite();
+    }
+
+    /**
+     * @return the wall clock dating snapshots, in milliseconds since the epoch
+     */
+    LongSupplier wallClock() {
+        return wallClock;
+    }
+
+    /**
+     * Tells the eviction policy the key was accessed the given number of times, applying pending
+     * writes first so that the policy knows the key.
+     */
+    void replayAccesses(K key, int accesses) {
+        evictionLock.lock();
+        try {
+            maintenance();
+            for (int i = 0; i < accesses; i++) {
+                evictionPolicy.onAccess(key);
+            }
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        long estimatedSize = cache.size();
+        long weight = weighted ? weightedSize() : estimatedSize;
+        return (stats == null) ? CacheStats.empty(estimatedSize, weight) : stats.snapshot(estimatedSize, weight);
+    }
+
+    /**
+     * Returns the total weight of the entries the eviction policy has taken in.
+     */
+    long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    /**
+     * Returns the number of nodes the timer wheel is holding until their deadline.
+     */
+    int scheduledSize() {
+        evictionLock.lock();
+        try {
+            return (timerWheel == null) ? 0 : timerWheel.size();
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    void recordHits(int count) {
+        if (stats != null) {
+            stats.recordHits(count);
+        }
+    }
+
+    void recordMisses(int count) {
+        if (stats != null) {
+            stats.recordMisses(count);
+        }
+    }
+
+    /**
+     * @return the start time of a load to pass to {@link #recordLoad}, read only if statistics are recorded
+     */
+    long startLoad() {
+        return (stats == null) ? 0L : ticker.getAsLong();
+    }
+
+    void recordLoad(long startTime, boolean success) {
+        if (stats == null) {
+            return;
+        }
+        long loadTime = ticker.getAsLong() - startTime;
+        if (success) {
+            stats.recordLoadSuccess(loadTime);
+        } else {
+            stats.recordLoadFailure(loadTime);
+        }
+    }
+
+    /**
+     * Calls the loader, recording how long it took and whether it found a value.
+     */
+    private Optional<V> load(K key, Function<K, Optional<V>> loader) {
+        long startTime = startLoad();
+        Optional<V> loadedValue;
+        try {
+            loadedValue = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            recordLoad(startTime, false);
+            throw e;
+        }
+        recordLoad(startTime, loadedValue != null && loadedValue.isPresent());
+        return loadedValue;
+    }
+
+    /**
+     * Creates the node of a write, due for a refresh if configured to.
+     */
+    private Node<K, V> newNode(K key, V value, long writeExpirationTime, long expirationTime, boolean expiresAfterAccess) {
+        Node<K, V> node = allocateNode(key, value, writeExpirationTime, expirationTime, expiresAfterAccess);
+        if (refreshAfterWriteNanos > 0) {
+            node.refreshTime = ticker.getAsLong() + refreshAfterWriteNanos;
+        }
+        return node;
+    }
+
+    /**
+     * Creates a node, storing the value off-heap if configured to.
+     */
+    private Node<K, V> allocateNode(K key, V value, long writeExpirationTime, long expirationTime,
+                                    boolean expiresAfterAccess) {
+        if (store == null) {
+            int weight = weigh(key, value);
+            return (collectedValues == null)
+                    ? new Node<>(key, value, weight, writeExpirationTime, expirationTime, expiresAfterAccess)
+                    : new ReferenceNode<>(key, value, valueStrength, collectedValues, weight,
+                            writeExpirationTime, expirationTime, expiresAfterAccess);
+        }
+        byte[] bytes = Objects.requireNonNull(codec.encode(value), "Encoded value cannot be null");
+        long footprint = OffHeapStore.footprint(bytes.length);
+        if (footprint > store.capacity()) {
+            throw new IllegalArgumentException("Value is larger than the off-heap capacity");
+        }
+        int head = store.allocate(bytes);
+        while (head < 0) {
+            makeRoom(bytes.length);
+            head = store.allocate(bytes);
+        }
+        return new OffHeapNode<>(key, head, bytes.length, (int) Math.min(Integer.MAX_VALUE, footprint),
+                writeExpirationTime, expirationTime, expiresAfterAccess);
+    }
+
+    /**
+     * Frees off-heap room for a value the store could not allocate: applies the pending writes,
+     * which may release replaced values, then evicts the policy's victims until the value fits.
+     */
+    private void makeRoom(int length) {
+        evictionLock.lock();
+        try {
+            maintenance();
+            while (!store.hasRoom(length)) {
+                K victim = evictionPolicy.evict();
+                if (victim == null) {
+                    throw new IllegalStateException("Off-heap store is full of values still being written");
+                }
+                evict(victim);
+            }
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the live value mapped to the key and records the access, or returns null on a miss.
+     */
+    V getLiveValue(K key) {
+        for (;;) {
+            Node<K, V> node = getLiveNode(key);
+            if (node == null) {
+                return null;
+            }
+            V value = valueOf(node);
+            if (value != null) {
+                return value;
+            }
+            // Freed while being read, so it is no longer mapped, or collected: look up the current node
+        }
+    }
+
+    /**
+     * Returns a completed future of the live value, or null on a miss. A strongly held heap node
+     * keeps the future it hands out, so repeated asynchronous hits on an entry allocate nothing.
+     * Callers share it safely: it is already complete, and it refuses to be obtruded.
+     */
+    private CompletableFuture<Optional<V>> getLiveFuture(K key) {
+        if (store != null || collectedValues != null) {
+            V value = getLiveValue(key);
+            return (value == null) ? null : CompletableFuture.completedFuture(Optional.of(value));
+        }
+        Node<K, V> node = getLiveNode(key);
+        if (node == null) {
+            return null;
+        }
+        CompletableFuture<Optional<V>> future = node.completedFuture;
+        if (future == null) {
+            future = new CompletedFuture<>(Optional.of(node.value));
+            node.completedFuture = future; // A racing hit may create its own; either is fine
+        }
+        return future;
+    }
+
+    /**
+     * Returns the value of the node, reading it from the off-heap store if needed.
+     * @return the value, or null if the node's bytes were freed while being read or its value was collected
+     */
+    private V valueOf(Node<K, V> node) {
+        if (store == null) {
+            return node.getValue();
+        }
+        OffHeapNode<K, V> offHeapNode = (OffHeapNode<K, V>) node;
+        byte[] bytes = store.read(offHeapNode.head, offHeapNode.length);
+        VarHandle.loadLoadFence(); // The bytes must be read before checking they were still live
+        if (bytes == null || offHeapNode.released) {
+            return null;
+        }
+        return codec.decode(bytes);
+    }
+
+    /**
+     * Returns the live node mapped to the key and records the hit, or returns null on a miss.
+     * An expired or collected node counts as a miss; it stays mapped until maintenance reclaims it.
+     */
+    private Node<K, V> getLiveNode(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.isCollected()) {
+            drainStatus.compareAndSet(IDLE, REQUIRED);
+            scheduleDrainBuffers(readDrainTask); // Maintenance drains the collected values
+            return null;
+        }
+        if (node.expirationTime != NO_EXPIRATION) {
+            long now = ticker.getAsLong();
+            if (node.expirationTime - now <= 0) {
+                return null;
+            }
+            if (node.expiresAfterAccess) {
+                node.expirationTime = Math.min(node.writeExpirationTime, now + expireAfterAccessNanos);
+            }
+        }
+        afterRead(node);
+        return node;
+    }
+
+    /**
+     * Records a hit without blocking, scheduling maintenance if the caller's buffer stripe is
+     * full or writes are waiting to be applied.
+     */
+    private void afterRead(Node<K, V> node) {
+        boolean full = readBuffer.offer(node) == ReadBuffer.FULL;
+        if (full || drainStatus.get() == REQUIRED) {
+            scheduleDrainBuffers(readDrainTask);
+        }
+    }
+
+    /**
+     * Queues the written node for the eviction policy. When the buffer is full the writer
+     * performs maintenance itself, which both makes room and bounds how far the map can
+     * outgrow the policy's capacity.
+     */
+    private void afterWrite(Node<K, V> node) {
+        enqueueWrite(node);
+        scheduleAfterWrite();
+    }
+
+    /**
+     * Maps the node and queues it for the eviction policy. The node it replaces is queued first, so
+     * maintenance retires it, releasing its weight and taking it out of the timer wheel, before
+     * adding the new one.
+     */
+    private void mapAndEnqueue(Node<K, V> node) {
+        Node<K, V> replaced = cache.put(node.key, node);
+        if (replaced != null) {
+            notifyReplaced(replaced);
+            enqueueWrite(replaced);
+        }
+        enqueueWrite(node);
+    }
+
+    private void enqueueWrite(Node<K, V> node) {
+        while (!writeBuffer.offer(node)) {
+            cleanUp();
+        }
+    }
+
+    /**
+     * Makes sure the writes queued so far will be applied, scheduling a drain unless one is
+     * already pending.
+     */
+    void scheduleAfterWrite() {
+        for (;;) {
+            switch (drainStatus.get()) {
+                case IDLE -> {
+                    drainStatus.compareAndSet(IDLE, REQUIRED);
+                    scheduleDrainBuffers(drainBuffersTask);
+                    return;
+                }
+                case REQUIRED -> {
+                    scheduleDrainBuffers(drainBuffersTask);
+                    return;
+                }
+                case PROCESSING_TO_IDLE -> {
+                    if (drainStatus.compareAndSet(PROCESSING_TO_IDLE, PROCESSING_TO_REQUIRED)) {
+                        return;
+                    }
+                }
+                default -> {
+                    return; // PROCESSING_TO_REQUIRED: the running drain will go around again
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands a drain task to the executor unless one is already scheduled or running.
+     * Falls back to the calling thread if the executor rejects the task.
+     */
+    private void scheduleDrainBuffers(Runnable task) {
+        int status = drainStatus.get();
+        if (status >= PROCESSING_TO_IDLE || !drainStatus.compareAndSet(status, PROCESSING_TO_IDLE)) {
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * The drain task. Keeps going while writes arrived during the previous pass, so that no
+     * buffered write is left behind once the writers go quiet.
+     */
+    private void performCleanUp() {
+        do {
+            cleanUp();
+        } while (drainStatus.compareAndSet(REQUIRED, PROCESSING_TO_IDLE));
+    }
+
+    /**
+     * The drain task scheduled by reads, which may run on the reader's thread with the default
+     * executor. A read never waits for the eviction lock: if it is held, the drain is left
+     * pending, to the next read or write that schedules one.
+     */
+    private void performReadCleanUp() {
+        do {
+            if (!evictionLock.tryLock()) {
+                drainStatus.set(REQUIRED);
+                return;
+            }
+            try {
+                maintenance();
+            } finally {
+                unlockEviction();
+            }
+        } while (drainStatus.compareAndSet(REQUIRED, PROCESSING_TO_IDLE));
+    }
+
+    /**
+     * Applies buffered reads, then buffered writes, to the eviction policy, and reclaims
+     * collected and expired entries. Must be called while holding the eviction lock.
+     */
+    private void maintenance() {
+        drainStatus.set(PROCESSING_TO_IDLE);
+        readBuffer.drainTo(accessRecorder);
+        drainWriteBuffer();
+        if (collectedValues != null) {
+            drainCollectedValues();
+        }
+        if (timerWheel != null && !timerWheel.isEmpty()) {
+            timerWheel.advance(ticker.getAsLong(), expirer);
+        }
+        if (!drainStatus.compareAndSet(PROCESSING_TO_IDLE, IDLE)) {
+            drainStatus.set(REQUIRED);
+        }
+    }
+
+    private void drainWriteBuffer() {
+        for (int i = 0; i < writeBuffer.capacity(); i++) {
+            Node<K, V> node = writeBuffer.poll();
+            if (node == null) {
+                return;
+            }
+            applyWrite(node);
+        }
+        drainStatus.set(PROCESSING_TO_REQUIRED); // Drain was cut short; go around again
+    }
+
+    /**
+     * Removes the nodes whose value the garbage collector reclaimed, unless they were already
+     * replaced or removed. A node not admitted yet is released when maintenance reaches its write.
+     */
+    @SuppressWarnings("unchecked")
+    private void drainCollectedValues() {
+        Reference<? extends V> reference;
+        while ((reference = collectedValues.poll()) != null) {
+            Node<K, V> node = ((ValueReference<K, V>) reference).node();
+            if (cache.remove(node.key, node)) {
+                notifyRemoval(node, RemovalCause.COLLECTED);
+                if (node.admitted) {
+                    evictionPolicy.onRemove(node.key);
+                    retire(node);
+                }
+                if (stats != null) {
+                    stats.recordEviction(RemovalCause.COLLECTED);
+                }
+            }
+        }
+    }
+
+    private void recordAccess(Node<K, V> node) {
+        // The node may have been replaced, evicted or removed since it was read
+        if (node.admitted && cache.get(node.key) == node) {
+            evictionPolicy.onAccess(node.key);
+        }
+    }
+
+    private void applyWrite(Node<K, V> node) {
+        Node<K, V> current = cache.get(node.key);
+        if (current != node) {
+            if (node.admitted) {
+                retire(node); // Queued again after being replaced or removed
+                if (current == null) {
+                    evictionPolicy.onRemove(node.key); // Removed; a replaced key stays for its new node
+                }
+            } else {
+                release(node); // Replaced or removed before maintenance caught up
+            }
+            return;
+        }
+        node.admitted = true;
+        weightedSize += node.weight;
+        if (node.expirationTime != NO_EXPIRATION) {
+            if (timerWheel == null) {
+                timerWheel = new TimerWheel<>(ticker.getAsLong());
+            }
+            timerWheel.schedule(node);
+        }
+        K evictedKey = evictionPolicy.onPut(node.key);
+        if (evictedKey != null) {
+            evict(evictedKey);
+        }
+        if (weighted) {
+            evictToMaximumWeight();
+        }
+        if (node.hasExpired(ticker)) {
+            expire(node); // Already due, e.g. when maintenance lagged behind a short TTL
+        }
+    }
+
+    /**
+     * Removes the key chosen by the policy, unless the mapping was replaced by a write the
+     * policy has not seen yet. That write's pending event will re-register the key.
+     */
+    private void evict(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node != null && node.admitted && cache.remove(key, node)) {
+            notifyRemoval(node, RemovalCause.SIZE);
+            retire(node);
+            if (stats != null) {
+                stats.recordEviction(RemovalCause.SIZE);
+            }
+        }
+    }
+
+    /**
+     * Evicts the policy's victims until the admitted entries fit within the maximum weight.
+     * A victim whose mapping was replaced by a write still in the buffer is skipped; the weight
+     * of the replaced value is released when maintenance reaches that write.
+     */
+    private void evictToMaximumWeight() {
+        while (weightedSize > maximumWeight) {
+            K victim = evictionPolicy.evict();
+            if (victim == null) {
+                return;
+            }
+            evict(victim);
+        }
+    }
+
+    /**
+     * Called by the {@link HeapPressureMonitor}: shrinks the cache on the maintenance executor, or on
+     * the calling thread if the executor rejects the task.
+     */
+    void onHeapPressure() {
+        try {
+            executor.execute(this::evictUnderHeapPressure);
+        } catch (RuntimeException e) {
+            evictUnderHeapPressure();
+        }
+    }
+
+    /**
+     * Evicts the policy's victims until the admitted entries weigh no more than the heap pressure
+     * target fraction of what they weighed before. Without a weigher, every entry weighs 1.
+     */
+    void evictUnderHeapPressure() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            long targetWeight = (long) (weightedSize * heapPressureTarget);
+            while (weightedSize > targetWeight) {
+                K victim = evictionPolicy.evict();
+                if (victim == null) {
+                    return;
+                }
+                evict(victim);
+            }
+        } finally {
+            unlockEviction();
+        }
+    }
+
+    /**
+     * Stops watching the heap.
+     */
+    @Override
+    public void close() {
+        if (heapPressureThreshold > 0) {
+            HeapPressureMonitor.shared().unsubscribe(this);
+        }
+    }
+
+    /**
+     * Forgets a node that has left the map: releases its weight and stops its timer.
+     */
+    private void retire(Node<K, V> node) {
+        node.admitted = false;
+        weightedSize -= node.weight;
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+        release(node);
+    }
+
+    /**
+     * Frees the off-heap bytes of a node that has left the map, once. Readers still holding the
+     * node notice the release and look the key up again.
+     */
+    private void release(Node<K, V> node) {
+        if (store == null) {
+            return;
+        }
+        OffHeapNode<K, V> offHeapNode = (OffHeapNode<K, V>) node;
+        if (!offHeapNode.released) {
+            offHeapNode.released = true;
+            store.free(offHeapNode.head, offHeapNode.length);
+        }
+    }
+
+    /**
+     * Removes an expired node from the map and the eviction policy, unless it was already
+     * replaced or removed.
+     */
+    private void expire(Node<K, V> node) {
+        timerWheel.deschedule(node);
+        if (cache.remove(node.key, node)) {
+            evictionPolicy.onRemove(node.key);
+            notifyRemoval(node, RemovalCause.EXPIRED);
+            retire(node);
+            if (stats != null) {
+                stats.recordEviction(RemovalCause.EXPIRED);
+            }
+        }
+    }
+
+    /**
+     * Reloads the entry of a hit in the background if it is due for a refresh and no refresh of
+     * it is in flight. Exactly one of the loaders is given, depending on the kind of read.
+     */
+    private void refreshIfDue(K key, Function<K, Optional<V>> loader,
+                              Function<K, CompletableFuture<Optional<V>>> asyncLoader) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return;
+        }
+        long refreshTime = node.refreshTime;
+        if (refreshTime == NO_EXPIRATION || refreshTime - ticker.getAsLong() > 0
+                || !node.claimRefresh(refreshTime)) {
+            return;
+        }
+        long startTime = startLoad();
+        CompletableFuture<Optional<V>> reload;
+        try {
+            reload = (asyncLoader == null)
+                    ? CompletableFuture.supplyAsync(() -> loader.apply(key), refreshExecutor)
+                    : CompletableFuture.supplyAsync(() -> asyncLoader.apply(key), refreshExecutor)
+                            .thenCompose(Function.identity());
+        } catch (RuntimeException e) {
+            node.refreshTime = refreshTime; // E.g. the executor rejected the task
+            recordLoad(startTime, false);
+            return;
+        }
+        reload.whenComplete((reloadedValue, error) -> {
+            boolean success = (error == null) && (reloadedValue != null);
+            recordLoad(startTime, success && reloadedValue.isPresent());
+            if (!success) {
+                node.refreshTime = refreshTime; // Keep the value, and let the next hit try again
+            } else {
+                completeRefresh(node, reloadedValue);
+            }
+        });
+    }
+
+    /**
+     * Replaces a refreshed node with its reloaded value, or removes it if the reload was empty,
+     * unless a write replaced or removed it meanwhile. The reloaded value keeps a time to live
+     * given with the write; otherwise it gets the default expiration, as a new write would.
+     */
+    private void completeRefresh(Node<K, V> node, Optional<V> reloadedValue) {
+        if (reloadedValue.isEmpty()) {
+            if (cache.remove(node.key, node)) {
+                notifyRemoval(node, RemovalCause.EXPLICIT);
+                afterWrite(node);
+            }
+            return;
+        }
+        Node<K, V> refreshed;
+        if (node.customTtl) {
+            refreshed = newNode(node.key, reloadedValue.get(), node.writeExpirationTime, node.expirationTime, false);
+            refreshed.customTtl = true;
+        } else {
+            refreshed = newWriteNode(node.key, reloadedValue.get());
+        }
+        if (cache.replace(node.key, node, refreshed)) {
+            notifyReplaced(node);
+            enqueueWrite(node);
+            afterWrite(refreshed);
+        } else if (store != null) {
+            afterWrite(refreshed); // Never mapped: maintenance frees its bytes
+        }
+    }
+
+    /**
+     * Reports a node replaced by a write, as expired or collected if it was already dead.
+     */
+    private void notifyReplaced(Node<K, V> replaced) {
+        if (notifier != null) {
+            notifyRemoval(replaced, causeOf(replaced, RemovalCause.REPLACED));
+        }
+    }
+
+    /**
+     * @return the cause of a node leaving the map at the caller's request, unless it was already dead
+     */
+    private RemovalCause causeOf(Node<K, V> node, RemovalCause cause) {
+        if (node.hasExpired(ticker)) {
+            return RemovalCause.EXPIRED;
+        }
+        return node.isCollected() ? RemovalCause.COLLECTED : cause;
+    }
+
+    /**
+     * Queues the notification of a node that left the map, or holds it back until the eviction lock
+     * is released if the caller holds it. Must be called before the node is retired, while an
+     * off-heap value can still be read.
+     */
+    private void notifyRemoval(Node<K, V> node, RemovalCause cause) {
+        if (notifier == null) {
+            return;
+        }
+        RemovalNotifier.Notification<K, V> notification = new RemovalNotifier.Notification<>(node.key, valueOf(node), cause);
+        if (evictionLock.isHeldByCurrentThread()) {
+            deferredNotifications.add(notification);
+        } else {
+            notifier.notify(notification);
+        }
+    }
+
+    /**
+     * Releases the eviction lock, then hands the notifications held back under it to the notifier.
+     */
+    private void unlockEviction() {
+        if (deferredNotifications == null || deferredNotifications.isEmpty() || evictionLock.getHoldCount() > 1) {
+            evictionLock.unlock();
+            return;
+        }
+        List<RemovalNotifier.Notification<K, V>> pending = new ArrayList<>(deferredNotifications);
+        deferredNotifications.clear();
+        evictionLock.unlock();
+        for (RemovalNotifier.Notification<K, V> notification : pending) {
+            notifier.notify(notification);
+        }
+    }
+
+    /**
+     * Registers the load as the in-flight load of the key.
+     * @return the load already in flight for the key, or null if the given one was registered
+     */
+    CompletableFuture<Optional<V>> claimLoad(K key, CompletableFuture<Optional<V>> load) {
+        return loads.putIfAbsent(key, load);
+    }
+
+    /**
+     * Unregisters a finished load. Its value, if any, must already be in the map.
+     */
+    void retireLoad(K key, CompletableFuture<Optional<V>> load) {
+        loads.remove(key, load);
+    }
+
+    /**
+     * Publishes the outcome of an asynchronous load: the value goes into the map first, then
+     * the in-flight future is retired and completed for everyone waiting on it.
+     */
+    private void completeLoad(K key, CompletableFuture<Optional<V>> load, Optional<V> loadedValue, Throwable error) {
+        try {
+            if (error == null) {
+                loadedValue.ifPresent(val -> put(key, val));
+            }
+        } catch (RuntimeException | Error e) {
+            error = e; // E.g. the loader completed with null; waiters must not hang
+        }
+        loads.remove(key, load);
+        if (error == null) {
+            load.complete(loadedValue);
+        } else {
+            load.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Waits for a load started by another caller, reporting its failure the same way as a
+     * load performed by this caller.
+     */
+    static <V> Optional<V> join(CompletableFuture<Optional<V>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error during loading", e.getCause());
+        }
+    }
+
+    /**
+     * @return the off-heap capacity if values are stored off-heap, the maximum weight otherwise
+     */
+    static long budgetOf(CachePreference preference) {
+        return (preference.getOffHeapCapacity() > 0) ? preference.getOffHeapCapacity() : preference.getMaximumWeight();
+    }
+
+    private static CachePreference withExecutor(Executor executor) {
+        CachePreference preference = new CachePreference();
+        preference.setExecutor(executor);
+        return preference;
+    }
+
+    private static long toNanos(Duration duration) {
+        if (duration == null) {
+            return 0L;
+        }
+        return (duration.compareTo(Duration.ofNanos(MAX_DURATION_NANOS)) >= 0)
+                ? MAX_DURATION_NANOS
+                : duration.toNanos();
+    }
+
+    /**
+     * A mapping in the cache. A new node is created for every put, so node identity tells
+     * maintenance whether a buffered event still describes the current mapping.
+     */
+    static class Node<K, V> {
+        final K key;
+        final V value;
+        /** Weight computed by the weigher when the node was written, 1 without a weigher. */
+        final int weight;
+        /** Deadline imposed by the write alone, or {@link #NO_EXPIRATION}. */
+        final long writeExpirationTime;
+        /** Whether reads push the deadline back, up to the write deadline. */
+        final boolean expiresAfterAccess;
+        /** Whether the write gave its own time to live, which a refresh keeps. Set before the node is mapped. */
+        boolean customTtl;
+        /** Current deadline in ticker time, or {@link #NO_EXPIRATION}. */
+        volatile long expirationTime;
+        /** Whether the eviction policy knows about this node. Guarded by the eviction lock. */
+        boolean admitted;
+        /** Future handed out to asynchronous hits, created on the first one. */
+        volatile CompletableFuture<Optional<V>> completedFuture;
+        /**
+         * When a hit starts a refresh in ticker time, or {@link #NO_EXPIRATION} while one is in flight.
+         * Only set with refresh-after-write.
+         */
+        volatile long refreshTime;
+        /** Links of the timer wheel bucket holding this node. Guarded by the eviction lock. */
+        Node<K, V> prevInTimer;
+        Node<K, V> nextInTimer;
+
+        Node(K key, V value) {
+            this(key, value, NO_EXPIRATION, NO_EXPIRATION, false);
+        }
+
+        Node(K key, V value, long writeExpirationTime, long expirationTime, boolean expiresAfterAccess) {
+            this(key, value, 1, writeExpirationTime, expirationTime, expiresAfterAccess);
+        }
+
+        Node(K key, V value, int weight, long writeExpirationTime, long expirationTime, boolean expiresAfterAccess) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeExpirationTime = writeExpirationTime;
+            this.expirationTime = expirationTime;
+            this.expiresAfterAccess = expiresAfterAccess;
+        }
+
+        /**
+         * @return the value, or null if it was collected
+         */
+        V getValue() {
+            return value;
+        }
+
+        /**
+         * @return whether the garbage collector reclaimed the value, which only happens with soft or weak values
+         */
+        boolean isCollected() {
+            return false;
+        }
+
+        boolean hasExpired(LongSupplier ticker) {
+            long deadline = expirationTime;
+            return deadline != NO_EXPIRATION && deadline - ticker.getAsLong() <= 0;
+        }
+
+        /**
+         * Claims the refresh of the node, so that concurrent hits start only one.
+         * @return true if the refresh time was still the expected one
+         */
+        boolean claimRefresh(long expectedRefreshTime) {
+            return REFRESH_TIME.compareAndSet(this, expectedRefreshTime, NO_EXPIRATION);
+        }
+
+        private static final VarHandle REFRESH_TIME;
+
+        static {
+            try {
+                REFRESH_TIME = MethodHandles.lookup().findVarHandle(Node.class, "refreshTime", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * A mapping whose value lives in the {@link OffHeapStore}; only the location of its bytes is on heap.
+     */
+    static final class OffHeapNode<K, V> extends Node<K, V> {
+        /** First block of the encoded value. */
+        final int head;
+        /** Length of the encoded value in bytes. */
+        final int length;
+        /** Set before the bytes are freed. Written under the eviction lock. */
+        volatile boolean released;
+
+        OffHeapNode(K key, int head, int length, int weight,
+                    long writeExpirationTime, long expirationTime, boolean expiresAfterAccess) {
+            super(key, null, weight, writeExpirationTime, expirationTime, expiresAfterAccess);
+            this.head = head;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A mapping whose value is held softly or weakly. The reference points back to the node, so
+     * that maintenance finds the node to remove when the reference is queued.
+     */
+    static final class ReferenceNode<K, V> extends Node<K, V> {
+        private final Reference<V> valueReference;
+
+        ReferenceNode(K key, V value, ReferenceStrength strength, ReferenceQueue<V> queue, int weight,
+                      long writeExpirationTime, long expirationTime, boolean expiresAfterAccess) {
+            super(key, null, weight, writeExpirationTime, expirationTime, expiresAfterAccess);
+            this.valueReference = (strength == ReferenceStrength.SOFT)
+                    ? new SoftValueReference<>(value, queue, this)
+                    : new WeakValueReference<>(value, queue, this);
+        }
+
+        @Override
+        V getValue() {
+            return valueReference.get();
+        }
+
+        @Override
+        boolean isCollected() {
+            return valueReference.get() == null;
+        }
+    }
+
+    /**
+     * A reference to a value that knows the node holding it.
+     */
+    interface ValueReference<K, V> {
+        Node<K, V> node();
+    }
+
+    static final class SoftValueReference<K, V> extends SoftReference<V> implements ValueReference<K, V> {
+        private final Node<K, V> node;
+
+        SoftValueReference(V value, ReferenceQueue<V> queue, Node<K, V> node) {
+            super(value, queue);
+            this.node = node;
+        }
+
+        @Override
+        public Node<K, V> node() {
+            return node;
+        }
+    }
+
+    static final class WeakValueReference<K, V> extends WeakReference<V> implements ValueReference<K, V> {
+        private final Node<K, V> node;
+
+        WeakValueReference(V value, ReferenceQueue<V> queue, Node<K, V> node) {
+            super(value, queue);
+            this.node = node;
+        }
+
+        @Override
+        public Node<K, V> node() {
+            return node;
+        }
+    }
+
+    /**
+     * Keys and frequencies of the eviction order, copied under the eviction lock one chunk at a time.
+     */
+    private static final class OrderChunk<K> implements ObjIntConsumer<K> {
+        K[] keys;
+        int[] frequencies = new int[EVICTION_ORDER_CHUNK];
+        int size;
+
+        @SuppressWarnings("unchecked")
+        OrderChunk() {
+            keys = (K[]) new Object[EVICTION_ORDER_CHUNK];
+        }
+
+        @Override
+        public void accept(K key, int frequency) {
+            if (size == keys.length) { // Policies that cannot stop early deliver the rest at once
+                keys = Arrays.copyOf(keys, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            keys[size] = key;
+            frequencies[size++] = frequency;
+        }
+    }
+
+    /**
+     * A future completed on creation and shared between callers. Completing or cancelling it has
+     * no effect, as it is already complete; obtruding a different outcome is refused.
+     */
+    static final class CompletedFuture<T> extends CompletableFuture<T> {
+        CompletedFuture(T value) {
+            super.complete(value);
+        }
+
+        @Override
+        public void obtrudeValue(T value) {
+            throw new UnsupportedOperationException("A shared completed future cannot be obtruded");
+        }
+
+        @Override
+        public void obtrudeException(Throwable ex) {
+            throw new UnsupportedOperationException("A shared completed future cannot be obtruded");
+        }
     }
-}
\ No newline at end of file
+}
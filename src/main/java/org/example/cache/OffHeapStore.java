@@ -0,0 +1,166 @@
+package org.example.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stores encoded values in direct memory, outside the Java heap.
+ * Memory is divided into 64-byte blocks carved out of 1 MB direct {@link ByteBuffer} slabs, which
+ * are allocated on first use up to the capacity. A value occupies a chain of blocks: each block
+ * starts with the index of the next one, followed by up to 60 bytes of the value. Free blocks are
+ * chained the same way, so the free list takes no heap at all, and since every block fits every
+ * value, freed memory never becomes unusable for values of another size.
+ *
+ * <p>Allocation and freeing are synchronized. Reads take no lock: a reader may see a chain that
+ * is being freed and reused, and must check afterwards that the value was still live, see
+ * {@link MemoryCacheImpl}. A read never fails on such a chain; it returns garbage or null. Slabs
+ * are published with release semantics and read with acquire semantics, so a reader that finds
+ * a slab also sees it fully constructed.
+ */
+final class OffHeapStore {
+    static final int BLOCK_SIZE = 64;
+    private static final int NEXT_SIZE = Integer.BYTES;
+    private static final int PAYLOAD_SIZE = BLOCK_SIZE - NEXT_SIZE;
+    private static final int SLAB_SHIFT = 14;
+    private static final int SLAB_BLOCKS = 1 << SLAB_SHIFT;
+    private static final int NO_BLOCK = -1;
+
+    /** Slabs allocated so far; set under the lock, read without it. */
+    private final AtomicReferenceArray<ByteBuffer> slabs;
+    private final int totalBlocks;
+    /** Blocks below this index have been handed out at least once. Guarded by this. */
+    private int unusedFrom;
+    /** Head of the chain of freed blocks. Guarded by this. */
+    private int freeHead = NO_BLOCK;
+    /** Number of blocks in the chain of freed blocks. Guarded by this. */
+    private int freeCount;
+
+    OffHeapStore(long capacity) {
+        long blocks = capacity / BLOCK_SIZE;
+        if (blocks <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity must be at least " + BLOCK_SIZE + " bytes");
+        }
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap capacity cannot exceed " + (long) Integer.MAX_VALUE * BLOCK_SIZE + " bytes");
+        }
+        this.totalBlocks = (int) blocks;
+        this.slabs = new AtomicReferenceArray<>((int) ((blocks + SLAB_BLOCKS - 1) >>> SLAB_SHIFT));
+    }
+
+    /**
+     * @return the number of bytes a value of the given length takes up, counting whole blocks
+     */
+    static long footprint(int length) {
+        return (long) blocksFor(length) * BLOCK_SIZE;
+    }
+
+    /**
+     * @return the capacity in bytes, rounded down to whole blocks
+     */
+    long capacity() {
+        return (long) totalBlocks * BLOCK_SIZE;
+    }
+
+    /**
+     * @return true if a value of the given length can be allocated right now
+     */
+    synchronized boolean hasRoom(int length) {
+        return blocksFor(length) <= freeCount + (totalBlocks - unusedFrom);
+    }
+
+    /**
+     * Copies the bytes into a new chain of blocks.
+     * @return the first block of the chain, or -1 if there are not enough free blocks
+     */
+    synchronized int allocate(byte[] bytes) {
+        int needed = blocksFor(bytes.length);
+        if (needed > freeCount + (totalBlocks - unusedFrom)) {
+            return NO_BLOCK;
+        }
+        int head = takeBlock();
+        int block = head;
+        for (int copied = 0; ; ) {
+            ByteBuffer slab = slabOf(block);
+            int offset = offsetOf(block);
+            int length = Math.min(PAYLOAD_SIZE, bytes.length - copied);
+            slab.put(offset + NEXT_SIZE, bytes, copied, length);
+            copied += length;
+            if (copied >= bytes.length) {
+                slab.putInt(offset, NO_BLOCK);
+                return head;
+            }
+            int next = takeBlock();
+            slab.putInt(offset, next);
+            block = next;
+        }
+    }
+
+    /**
+     * Returns the chain of a value of the given length to the free list.
+     */
+    synchronized void free(int head, int length) {
+        int tail = head;
+        for (int i = 1; i < blocksFor(length); i++) {
+            tail = slabOf(tail).getInt(offsetOf(tail));
+        }
+        slabOf(tail).putInt(offsetOf(tail), freeHead);
+        freeHead = head;
+        freeCount += blocksFor(length);
+    }
+
+    /**
+     * Copies a value out of its chain without locking.
+     * @return the bytes, or null if the chain was found to be corrupt because it was reused meanwhile
+     */
+    byte[] read(int head, int length) {
+        byte[] bytes = new byte[length];
+        int block = head;
+        int copied = 0;
+        do {
+            if (block < 0 || block >= totalBlocks) {
+                return null;
+            }
+            ByteBuffer slab = slabs.getAcquire(block >>> SLAB_SHIFT);
+            if (slab == null) {
+                return null;
+            }
+            int offset = offsetOf(block);
+            int chunk = Math.min(PAYLOAD_SIZE, length - copied);
+            slab.get(offset + NEXT_SIZE, bytes, copied, chunk);
+            copied += chunk;
+            block = slab.getInt(offset);
+        } while (copied < length);
+        return bytes;
+    }
+
+    private int takeBlock() {
+        if (freeHead != NO_BLOCK) {
+            int block = freeHead;
+            freeHead = slabOf(block).getInt(offsetOf(block));
+            freeCount--;
+            return block;
+        }
+        int block = unusedFrom++;
+        int slab = block >>> SLAB_SHIFT;
+        if (slabs.getPlain(slab) == null) {
+            int blocks = Math.min(SLAB_BLOCKS, totalBlocks - (slab << SLAB_SHIFT));
+            slabs.setRelease(slab, ByteBuffer.allocateDirect(blocks * BLOCK_SIZE));
+        }
+        return block;
+    }
+
+    /**
+     * Finds the slab of a block under the lock, which orders it after the slab's allocation.
+     */
+    private ByteBuffer slabOf(int block) {
+        return slabs.getPlain(block >>> SLAB_SHIFT);
+    }
+
+    private static int offsetOf(int block) {
+        return (block & (SLAB_BLOCKS - 1)) * BLOCK_SIZE;
+    }
+
+    private static int blocksFor(int length) {
+        return Math.max(1, (length + PAYLOAD_SIZE - 1) / PAYLOAD_SIZE);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy buffer of read events waiting to be replayed against the eviction policy.
+ * Each thread hashes to one of several small ring buffers, so concurrent readers rarely touch
+ * the same memory. When a ring is full, or a slot is being claimed by another thread, the event
+ * is simply dropped: a missed access only makes the policy slightly less precise, whereas
+ * blocking would put every reader back behind the policy lock.
+ * Offers are thread-safe; draining must be done by a single thread at a time.
+ *
+ * @param <E> the type of the buffered events
+ */
+final class ReadBuffer<E> {
+    static final int SUCCESS = 0;
+    static final int FAILED = 1;
+    static final int FULL = 2;
+
+    static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe<E>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        int count = Math.min(MAX_STRIPES, ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 4));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Records an event in the calling thread's stripe without blocking.
+     * @param event the event to record
+     * @return {@link #SUCCESS} if recorded, {@link #FAILED} if dropped due to contention,
+     *         or {@link #FULL} if dropped because the stripe needs draining
+     */
+    int offer(E event) {
+        Stripe<E> stripe = stripes[stripeIndex()];
+        long head = stripe.readCounter.get();
+        long tail = stripe.writeCounter.get();
+        if (tail - head >= BUFFER_SIZE) {
+            return FULL;
+        }
+        if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+            stripe.buffer.lazySet((int) (tail & BUFFER_MASK), event);
+            return SUCCESS;
+        }
+        return FAILED;
+    }
+
+    /**
+     * Hands every published event to the consumer and frees its slot.
+     * @param consumer receives the drained events
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            long head = stripe.readCounter.get();
+            long tail = stripe.writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & BUFFER_MASK);
+                E event = stripe.buffer.get(index);
+                if (event == null) {
+                    break; // Slot claimed but not yet published; pick it up next time
+                }
+                stripe.buffer.lazySet(index, null);
+                consumer.accept(event);
+                head++;
+            }
+            stripe.readCounter.lazySet(head);
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & stripeMask;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+
+    private static final class Stripe<E> {
+        final AtomicLong readCounter = new AtomicLong();
+        final AtomicLong writeCounter = new AtomicLong();
+        final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.cache;
+
+/**
+ * How strongly the cache holds its values, set with {@link CachePreference#setValueStrength}.
+ * Softly or weakly held values can be reclaimed by the garbage collector; the cache then drops
+ * their entries during maintenance and reports them as {@link RemovalCause#COLLECTED}.
+ */
+public enum ReferenceStrength {
+    /** Values are kept until the cache removes them. */
+    STRONG,
+    /** Values are kept until the heap runs short, least recently used first. */
+    SOFT,
+    /** Values are kept only while the application references them elsewhere. */
+    WEAK
+}
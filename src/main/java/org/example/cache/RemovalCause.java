@@ -0,0 +1,24 @@
+package org.example.cache;
+
+/**
+ * Why an entry left the cache.
+ */
+public enum RemovalCause {
+    /** Removed by the caller through {@code remove}, {@code invalidateAll} or {@code clear}. */
+    EXPLICIT,
+    /** Its value was replaced by a new put for the same key. */
+    REPLACED,
+    /** Evicted by the eviction policy to respect the capacity or the maximum weight. */
+    SIZE,
+    /** Its time-to-live ran out, including when it was replaced or removed before being reclaimed. */
+    EXPIRED,
+    /** Its soft or weak value was reclaimed by the garbage collector, including when it was replaced or removed afterwards. */
+    COLLECTED;
+
+    /**
+     * @return true if the cache removed the entry on its own rather than at the caller's request
+     */
+    public boolean wasEvicted() {
+        return this == SIZE || this == EXPIRED || this == COLLECTED;
+    }
+}
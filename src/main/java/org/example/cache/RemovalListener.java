@@ -0,0 +1,25 @@
+package org.example.cache;
+
+/**
+ * Notified when an entry leaves the cache, for example to release a resource held by its value
+ * or to log evictions. Set with {@link CachePreference#setRemovalListener(RemovalListener)}.
+ *
+ * <p>Notifications are delivered on the removal executor, in batches, in the order the entries
+ * left each segment of the cache. A listener that throws does not stop the delivery of the
+ * following notifications.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+    /**
+     * Called once for each entry that left the cache.
+     *
+     * @param key   the key of the entry
+     * @param value the value of the entry; null if it was {@link RemovalCause#COLLECTED}, and for an
+     *              off-heap cache, if its bytes were freed before they could be read
+     * @param cause why the entry left the cache
+     */
+    void onRemoval(K key, V value, RemovalCause cause);
+}
@@ -0,0 +1,86 @@
+package org.example.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers removal notifications to a {@link RemovalListener} off the thread that removed the
+ * entries. Notifications wait in a bounded queue, and a single task on the executor delivers
+ * everything queued by the time it runs, so a burst of removals costs one task.
+ *
+ * <p>When the queue is full, the thread adding a notification delivers a batch itself before
+ * retrying, so notifications are never dropped and a listener that cannot keep up slows down
+ * the removals instead. Deliveries are serialized, keeping notifications in the order they were
+ * added. The caller must not hold a lock the listener may need, as it may end up delivering.
+ */
+final class RemovalNotifier<K, V> {
+    /** Notifications delivered per pass, so the queue frees up while a long burst is delivered. */
+    private static final int BATCH_SIZE = 256;
+
+    private final RemovalListener<K, V> listener;
+    private final Executor executor;
+    private final ArrayBlockingQueue<Notification<K, V>> queue;
+    /** Whether a delivery task is submitted and has not started yet. */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    private final Runnable deliveryTask = this::runDelivery;
+
+    RemovalNotifier(RemovalListener<K, V> listener, Executor executor, int capacity) {
+        this.listener = listener;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void notify(Notification<K, V> notification) {
+        while (!queue.offer(notification)) {
+            deliverBatch();
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(deliveryTask);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                runDelivery(); // The executor is shutting down; deliver here rather than never
+            }
+        }
+    }
+
+    private void runDelivery() {
+        scheduled.set(false); // Notifications queued from now on schedule another task
+        while (deliverBatch()) {
+            // Keep going until the queue is empty
+        }
+    }
+
+    /**
+     * @return false if there was nothing to deliver
+     */
+    private boolean deliverBatch() {
+        List<Notification<K, V>> batch = new ArrayList<>(BATCH_SIZE);
+        deliveryLock.lock();
+        try {
+            if (queue.drainTo(batch, BATCH_SIZE) == 0) {
+                return false;
+            }
+            for (Notification<K, V> notification : batch) {
+                try {
+                    listener.onRemoval(notification.key(), notification.value(), notification.cause());
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+            return true;
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    record Notification<K, V>(K key, V value, RemovalCause cause) {
+    }
+}
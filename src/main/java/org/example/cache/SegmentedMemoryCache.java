@@ -0,0 +1,218 @@
+package org.example.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * MemoryCache implementation split into independent segments.
+ * Each key belongs to exactly one segment, chosen from its spread hash. Every segment is a
+ * {@link MemoryCacheImpl} with its own map, buffers, eviction lock and eviction policy instance,
+ * so operations on keys of different segments never contend.
+ *
+ * <p>The capacity is divided as evenly as possible: each segment gets {@code capacity / n}
+ * entries and the first {@code capacity % n} segments one more. A maximum weight is divided
+ * the same way, and so is an off-heap capacity, each segment having its own store. Eviction decisions are local to
+ * a segment, which bounds how far the cache can drift from a single global policy. For LRU:
+ * <ul>
+ *     <li>The cache never holds more than {@code capacity} entries, as with a global LRU.</li>
+ *     <li>A key among the {@code capacity / n} most recently used keys of the whole cache is
+ *     always resident, because it is then also among the most recent keys of its own segment.</li>
+ *     <li>Keys beyond that can be evicted earlier than under a global LRU when their segment
+ *     receives more than its share of the hot set. With hashing, a segment's share deviates by
+ *     roughly {@code sqrt(capacity / n)} keys, so the hit ratio differs from a global LRU by
+ *     about {@code 1 / sqrt(capacity / n)}: around 3% at 1,000 entries per segment and 1% at
+ *     10,000. Keep segments large, and use fewer of them for small caches.</li>
+ * </ul>
+ * The same reasoning applies to the frequency and FIFO based policies.
+ *
+ * <p>Bulk operations span segments: {@link #getAll} loads the missing keys of every segment
+ * with one bulk loader call.
+ */
+class SegmentedMemoryCache<K, V> implements MemoryCache<K, V> {
+    private final MemoryCacheImpl<K, V>[] segments;
+
+    /**
+     * @param segmentCount  the number of segments, at least 1 and at most the capacity
+     * @param capacity      the total capacity, distributed across the segments
+     * @param policyFactory creates the eviction policy of one segment from its capacity
+     * @param executor      the executor running maintenance of every segment
+     */
+    public SegmentedMemoryCache(int segmentCount, int capacity,
+                                IntFunction<EvictionPolicyHandler<K>> policyFactory, Executor executor) {
+        this(segmentCount, capacity, policyFactory, withExecutor(executor));
+    }
+
+    /**
+     * @param segmentCount  the number of segments, at least 1 and at most the capacity
+     * @param capacity      the total capacity, distributed across the segments
+     * @param policyFactory creates the eviction policy of one segment from its capacity
+     * @param preference    the remaining settings shared by every segment, such as expiration
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedMemoryCache(int segmentCount, int capacity,
+                                IntFunction<EvictionPolicyHandler<K>> policyFactory, CachePreference preference) {
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be greater than 0");
+        }
+        if (segmentCount > capacity) {
+            throw new IllegalArgumentException("Segment count cannot exceed the capacity");
+        }
+        Objects.requireNonNull(policyFactory, "Eviction policy factory cannot be null");
+        long budget = MemoryCacheImpl.budgetOf(Objects.requireNonNull(preference, "Cache preference cannot be null"));
+        if (budget > 0 && segmentCount > budget) {
+            throw new IllegalArgumentException("Segment count cannot exceed the maximum weight");
+        }
+        this.segments = new MemoryCacheImpl[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            long segmentBudget = budget / segmentCount + (i < budget % segmentCount ? 1 : 0);
+            segments[i] = new MemoryCacheImpl<>(policyFactory.apply(segmentCapacity), preference, segmentBudget);
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        return segmentFor(key).get(key, loader);
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        return segmentFor(key).get(key);
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return segmentFor(key).getIfPresent(key);
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> getAsync(K key, Function<K, CompletableFuture<Optional<V>>> loader) {
+        return segmentFor(key).getAsync(key, loader);
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        return BulkOperations.getAll(keys, bulkLoader, this::segmentFor);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys,
+                                                    Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader) {
+        return BulkOperations.getAllAsync(keys, bulkLoader, this::segmentFor);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value);
+    }
+
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        segmentFor(key).put(key, value, ttl);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        BulkOperations.<K, V>putAll(map, this::segmentFor);
+    }
+
+    @Override
+    public void remove(K key) {
+        segmentFor(key).remove(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<K> keys) {
+        Objects.requireNonNull(keys, "Keys cannot be null");
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (MemoryCacheImpl<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return segmentFor(key).containsKey(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        for (MemoryCacheImpl<K, V> segment : segments) {
+            segment.cleanUp();
+        }
+    }
+
+    /**
+     * Saves the segments one after the other, each in its own eviction order.
+     */
+    @Override
+    public void saveSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        CacheSnapshot.save(List.of(segments), file, keyCodec, valueCodec, segments[0].wallClock());
+    }
+
+    /**
+     * Loads the entries into the segments owning their keys, which may differ from the segments
+     * they were saved from; each segment still sees its entries in their saved relative order.
+     */
+    @Override
+    public int loadSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        return CacheSnapshot.load(file, keyCodec, valueCodec, this::segmentFor, segments[0].wallClock());
+    }
+
+    /**
+     * Adds up the statistics of the segments.
+     */
+    @Override
+    public CacheStats stats() {
+        CacheStats total = segments[0].stats();
+        for (int i = 1; i < segments.length; i++) {
+            total = total.plus(segments[i].stats());
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        for (MemoryCacheImpl<K, V> segment : segments) {
+            segment.close();
+        }
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Picks the segment from the high bits of a remixed hash. The segment's own map indexes by
+     * the low bits of the original hash, so keys of one segment still spread across its table.
+     */
+    MemoryCacheImpl<K, V> segmentFor(K key) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        int hash = key.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        int index = (int) (((hash & 0xFFFFFFFFL) * segments.length) >>> 32);
+        return segments[index];
+    }
+
+    private static CachePreference withExecutor(Executor executor) {
+        CachePreference preference = new CachePreference();
+        preference.setExecutor(executor);
+        return preference;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the statistics of one cache. Every counter is a {@link LongAdder}, which stripes
+ * its cells across threads, so recording never contends on a shared cache line.
+ * A cache that does not record statistics holds no counter at all; see {@link MemoryCacheImpl}.
+ */
+final class StatsCounter {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder[] evictionCounts = new LongAdder[RemovalCause.values().length];
+    /** Null unless load latencies are recorded. */
+    private final LatencyHistogram loadLatency;
+
+    StatsCounter(boolean recordLoadLatency) {
+        for (int i = 0; i < evictionCounts.length; i++) {
+            evictionCounts[i] = new LongAdder();
+        }
+        this.loadLatency = recordLoadLatency ? new LatencyHistogram() : null;
+    }
+
+    void recordHits(int count) {
+        hitCount.add(count);
+    }
+
+    void recordMisses(int count) {
+        missCount.add(count);
+    }
+
+    void recordLoadSuccess(long loadTime) {
+        loadSuccessCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    void recordLoadFailure(long loadTime) {
+        loadFailureCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    void recordEviction(RemovalCause cause) {
+        evictionCounts[cause.ordinal()].increment();
+    }
+
+    private void recordLoadTime(long loadTime) {
+        totalLoadTime.add(loadTime);
+        if (loadLatency != null) {
+            loadLatency.record(loadTime);
+        }
+    }
+
+    CacheStats snapshot(long estimatedSize, long weightedSize) {
+        Map<RemovalCause, Long> evictions = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause.wasEvicted()) {
+                evictions.put(cause, evictionCounts[cause.ordinal()].sum());
+            }
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), evictions, estimatedSize, weightedSize,
+                (loadLatency == null) ? null : loadLatency.snapshot());
+    }
+}
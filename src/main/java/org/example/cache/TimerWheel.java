@@ -0,0 +1,159 @@
+package org.example.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel that finds expired cache entries in amortized O(1).
+ * Each level is a ring of buckets covering a coarser time span than the level below:
+ * about 1.07 seconds, 1.14 minutes, 1.22 hours, 0.81 days and 3.26 days per bucket.
+ * An entry is placed in the bucket of the finest level whose range still covers its deadline.
+ * Advancing the wheel only visits the buckets whose time has passed; an entry found there that
+ * is not due yet (its deadline was extended, or it sits on a coarse level) is re-inserted into a
+ * finer bucket. Entries are therefore moved at most once per level before they expire.
+ * The wheel is not thread-safe; callers hold the eviction lock.
+ *
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of mapped values
+ */
+final class TimerWheel<K, V> {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            1L << 30, // 1.07s
+            1L << 36, // 1.14m
+            1L << 42, // 1.22h
+            1L << 46, // 0.81d
+            1L << 48, // 3.26d
+            1L << 48  // 3.26d
+    };
+    private static final int[] SHIFT = {30, 36, 42, 46, 48};
+
+    private final MemoryCacheImpl.Node<K, V>[][] wheel;
+    private final long origin;
+    private long nanos;
+    private int size;
+
+    /**
+     * @param currentTimeNanos the current time of the cache's ticker
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(long currentTimeNanos) {
+        this.origin = currentTimeNanos;
+        this.wheel = new MemoryCacheImpl.Node[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheel[level] = new MemoryCacheImpl.Node[BUCKETS[level]];
+            for (int i = 0; i < BUCKETS[level]; i++) {
+                MemoryCacheImpl.Node<K, V> sentinel = new MemoryCacheImpl.Node<>(null, null);
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+                wheel[level][i] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Adds a node to the bucket matching its expiration time.
+     * @param node a node that is not currently scheduled
+     */
+    void schedule(MemoryCacheImpl.Node<K, V> node) {
+        MemoryCacheImpl.Node<K, V> sentinel = findBucket(relative(node.expirationTime));
+        MemoryCacheImpl.Node<K, V> last = sentinel.prevInTimer;
+        node.prevInTimer = last;
+        node.nextInTimer = sentinel;
+        last.nextInTimer = node;
+        sentinel.prevInTimer = node;
+        size++;
+    }
+
+    /**
+     * Removes a node from the wheel if it is scheduled.
+     * @param node the node to remove
+     */
+    void deschedule(MemoryCacheImpl.Node<K, V> node) {
+        if (node.nextInTimer != null) {
+            node.nextInTimer.prevInTimer = node.prevInTimer;
+            node.prevInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer = null;
+            node.prevInTimer = null;
+            size--;
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time, handing every node whose deadline has passed to
+     * the expirer. Nodes that are not due yet are re-inserted at their proper level.
+     *
+     * @param currentTimeNanos the current time of the cache's ticker
+     * @param expirer          removes an expired node from the cache if it is still mapped
+     */
+    void advance(long currentTimeNanos, Consumer<MemoryCacheImpl.Node<K, V>> expirer) {
+        long previous = nanos;
+        long current = relative(currentTimeNanos);
+        if (current <= previous) {
+            return;
+        }
+        nanos = current;
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previous >>> SHIFT[level];
+            long currentTicks = current >>> SHIFT[level];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            expire(level, previousTicks, delta, expirer);
+        }
+    }
+
+    /**
+     * Returns true if no node is scheduled.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void expire(int level, long previousTicks, long delta,
+                        Consumer<MemoryCacheImpl.Node<K, V>> expirer) {
+        MemoryCacheImpl.Node<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            MemoryCacheImpl.Node<K, V> sentinel = buckets[i & mask];
+            MemoryCacheImpl.Node<K, V> node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            while (node != sentinel) {
+                MemoryCacheImpl.Node<K, V> next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                size--;
+                if (relative(node.expirationTime) - nanos > 0L) {
+                    schedule(node);
+                } else {
+                    expirer.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private MemoryCacheImpl.Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int length = wheel.length - 1;
+        for (int level = 0; level < length; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = time >>> SHIFT[level];
+                int index = (int) (ticks & (wheel[level].length - 1));
+                return wheel[level][index];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    private long relative(long time) {
+        return time - origin;
+    }
+}
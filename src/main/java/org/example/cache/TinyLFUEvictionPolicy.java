@@ -0,0 +1,229 @@
+package org.example.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.List;
+
+/**
+ * W-TinyLFU EvictionPolicy implementation.
+ * New keys enter a small LRU window (1% of capacity). Keys leaving the window compete for a
+ * place in the main region, a segmented LRU split into probation (20%) and protected (80%).
+ * A {@link FrequencySketch} decides admission: the window candidate only displaces the main
+ * region's victim if it has been seen more often, so one-hit wonders from scans are dropped
+ * instead of flushing the hot set. The sketch halves its counters periodically, so old
+ * popularity fades.
+ *
+ * <p>When the cache is bounded by weight, {@link #evict()} runs the same contest: the window's
+ * eldest key is admitted only if it beats the main region's victim, otherwise it is evicted.
+ *
+ * @param <K> the type of keys in the eviction policy
+ */
+class TinyLFUEvictionPolicy<K> implements EvictionPolicyHandler<K> {
+    private static final double WINDOW_PERCENTAGE = 0.01;
+    private static final double PROTECTED_PERCENTAGE = 0.80;
+    /** Initial sketch size; the sketch grows with the number of entries up to the capacity. */
+    private static final int INITIAL_SKETCH_CAPACITY = 1024;
+
+    private Map<K, Node<K>> index = new HashMap<>();
+    private final IntrusiveList<Node<K>> window = new IntrusiveList<>();
+    private final IntrusiveList<Node<K>> probation = new IntrusiveList<>();
+    private final IntrusiveList<Node<K>> protectedRegion = new IntrusiveList<>();
+    private final FrequencySketch<K> sketch;
+    private final int capacity;
+    private final int maxWindow;
+    private final int maxMain;
+    private final int maxProtected;
+
+    public TinyLFUEvictionPolicy(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.maxWindow = Math.max(1, (int) (capacity * WINDOW_PERCENTAGE));
+        this.maxMain = capacity - maxWindow;
+        this.maxProtected = (int) (maxMain * PROTECTED_PERCENTAGE);
+        this.sketch = new FrequencySketch<>(Math.min(capacity, INITIAL_SKETCH_CAPACITY));
+    }
+
+    @Override
+    public synchronized K onPut(K key) {
+        sketch.increment(key);
+        Node<K> node = index.get(key);
+        if (node != null) {
+            onHit(node);
+            return null;
+        }
+
+        node = new Node<>(key);
+        index.put(key, node);
+        sketch.ensureCapacity(index.size());
+        window.linkFirst(node);
+        if (window.size() <= windowLimit()) {
+            return null;
+        }
+
+        Node<K> candidate = window.pollLast();
+        if (probation.size() + protectedRegion.size() < maxMain) {
+            candidate.region = Region.PROBATION;
+            probation.linkFirst(candidate);
+            return null;
+        }
+        return admit(candidate);
+    }
+
+    @Override
+    public synchronized void onAccess(K key) {
+        Node<K> node = index.get(key);
+        if (node != null) {
+            sketch.increment(key);
+            onHit(node);
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(K key) {
+        Node<K> node = index.remove(key);
+        if (node != null) {
+            regionOf(node).unlink(node);
+        }
+    }
+
+    @Override
+    public synchronized void onClear() {
+        index = new HashMap<>();
+        window.clear();
+        probation.clear();
+        protectedRegion.clear();
+        // The sketch is kept: it describes how popular keys are, not which ones are cached
+    }
+
+    @Override
+    public synchronized K evict() {
+        if (probation.isEmpty() && protectedRegion.isEmpty()) {
+            Node<K> eldest = window.pollLast();
+            if (eldest == null) {
+                return null;
+            }
+            index.remove(eldest.key);
+            return eldest.key;
+        }
+        Node<K> candidate = window.peekLast();
+        if (candidate == null) {
+            IntrusiveList<Node<K>> victimRegion = probation.isEmpty() ? protectedRegion : probation;
+            Node<K> victim = victimRegion.pollLast();
+            index.remove(victim.key);
+            return victim.key;
+        }
+        window.unlink(candidate);
+        return admit(candidate);
+    }
+
+    /**
+     * Visits the main region before the window, so that restored keys pass through the window
+     * last, and reports the sketch's estimate as the frequency.
+     */
+    @Override
+    public synchronized void forEachInEvictionOrder(ObjIntConsumer<? super K> visitor) {
+        for (IntrusiveList<Node<K>> region : List.of(probation, protectedRegion, window)) {
+            for (Node<K> node = region.peekLast(); node != null; node = node.prev) {
+                visitor.accept(node.key, Math.max(1, sketch.frequency(node.key)));
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean forEachInEvictionOrder(int from, int limit, ObjIntConsumer<? super K> visitor) {
+        int skip = from;
+        int visited = 0;
+        for (IntrusiveList<Node<K>> region : List.of(probation, protectedRegion, window)) {
+            for (Node<K> node = region.fromLast(skip); node != null && visited < limit; node = node.prev) {
+                visitor.accept(node.key, Math.max(1, sketch.frequency(node.key)));
+                visited++;
+            }
+            skip = Math.max(0, skip - region.size());
+        }
+        return from + visited < index.size();
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Lets the window candidate and the main region's victim compete for one slot.
+     * @return the key that lost and must be evicted
+     */
+    private K admit(Node<K> candidate) {
+        IntrusiveList<Node<K>> victimRegion = probation.isEmpty() ? protectedRegion : probation;
+        Node<K> victim = victimRegion.peekLast();
+        if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            index.remove(candidate.key);
+            return candidate.key;
+        }
+        victimRegion.unlink(victim);
+        index.remove(victim.key);
+        candidate.region = Region.PROBATION;
+        probation.linkFirst(candidate);
+        return victim.key;
+    }
+
+    private void onHit(Node<K> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToFront(node);
+            case PROTECTED -> protectedRegion.moveToFront(node);
+            case PROBATION -> {
+                // A second hit proves the key is warm: promote it, demoting the coldest protected key
+                probation.unlink(node);
+                node.region = Region.PROTECTED;
+                protectedRegion.linkFirst(node);
+                if (protectedRegion.size() > protectedLimit()) {
+                    Node<K> demoted = protectedRegion.pollLast();
+                    demoted.region = Region.PROBATION;
+                    probation.linkFirst(demoted);
+                }
+            }
+        }
+    }
+
+    /**
+     * The window's share of the entries. It follows the current size rather than the capacity,
+     * so the regions keep their proportions when the cache is bounded by weight and the entry
+     * capacity is never reached.
+     */
+    private int windowLimit() {
+        return Math.min(maxWindow, Math.max(1, (int) (index.size() * WINDOW_PERCENTAGE)));
+    }
+
+    private int protectedLimit() {
+        int mainSize = probation.size() + protectedRegion.size();
+        return Math.min(maxProtected, (int) (mainSize * PROTECTED_PERCENTAGE));
+    }
+
+    private IntrusiveList<Node<K>> regionOf(Node<K> node) {
+        return switch (node.region) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedRegion;
+        };
+    }
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node<K> extends IntrusiveList.Node<Node<K>> {
+        final K key;
+        Region region = Region.WINDOW;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts values to and from bytes, so that an off-heap cache can keep them outside the Java heap
+ * (see {@link CachePreference#setOffHeapCapacity(long)}), and so that snapshots can save keys and
+ * values to a file (see {@link MemoryCache#saveSnapshot}).
+ *
+ * @param <V> the type of values
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * @param value the value to store, never null
+     * @return the bytes representing the value
+     */
+    byte[] encode(V value);
+
+    /**
+     * @param bytes bytes produced by {@link #encode}
+     * @return a value equal to the one that was encoded
+     */
+    V decode(byte[] bytes);
+
+    /**
+     * @return a codec storing strings as UTF-8
+     */
+    static ValueCodec<String> utf8() {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
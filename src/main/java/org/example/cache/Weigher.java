@@ -0,0 +1,21 @@
+package org.example.cache;
+
+/**
+ * Computes the weight of a cache entry, such as its approximate size in bytes.
+ * A cache with a maximum weight evicts entries until the sum of their weights fits within it.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    /**
+     * Returns the weight of an entry. The weight is computed once, when the entry is written.
+     *
+     * @param key   the key of the entry
+     * @param value the value of the entry
+     * @return the weight of the entry, never negative; an entry of weight 0 is only evicted by
+     *         the entry count bound
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,261 @@
+package org.example.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Changes waiting to be written to a {@link CacheWriter}, coalesced by key.
+ * Only the latest change of a key is kept, at the position of its first change, so a key updated
+ * many times within the delay is written once. A daemon thread writes the oldest changes in
+ * batches, as soon as a batch is full or the oldest change has waited for the delay.
+ *
+ * <p>The queue is bounded by the number of distinct keys. A thread adding a key to a full queue
+ * writes a batch itself before retrying, which slows callers down to the store's pace without
+ * dropping changes. Batches are written one at a time, oldest first, so the store sees the
+ * changes of a key in order.
+ *
+ * <p>A batch that fails is reported to the writing thread's uncaught exception handler and is
+ * not retried. {@link #close()} writes whatever is left and reports a failure by throwing.
+ */
+final class WriteBehindQueue<K, V> implements AutoCloseable {
+    private final CacheWriter<K, V> writer;
+    private final long delayNanos;
+    private final int batchSize;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    /** Serializes batches, so that the changes of a key reach the store in order. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** The latest change of each key, oldest first. Guarded by the lock. */
+    private final LinkedHashMap<K, Change<V>> pending = new LinkedHashMap<>();
+    /** The batch being written, still visible to {@link #lookup}. Guarded by the lock. */
+    private Map<K, Change<V>> flushing = Map.of();
+    /** Guarded by the lock. */
+    private boolean closed;
+    private final Thread flusher;
+
+    WriteBehindQueue(CacheWriter<K, V> writer, long delayNanos, int batchSize, int capacity) {
+        this.writer = writer;
+        this.delayNanos = delayNanos;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flusher = new Thread(this::runFlusher, "cache-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a change, writing a batch first if the queue is full.
+     * @param value the new value, or null to delete the key
+     * @throws IllegalStateException if the queue is closed
+     */
+    void enqueue(K key, V value) {
+        while (!offer(key, value)) {
+            try {
+                flushBatch();
+            } catch (RuntimeException e) {
+                report(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the change of a key that is not written yet, so that a miss can be served from it
+     * instead of loading a stale value from the store.
+     * @return the pending change, whose value is null for a delete, or null if there is none
+     */
+    Change<V> lookup(K key) {
+        lock.lock();
+        try {
+            Change<V> change = pending.get(key);
+            return (change != null) ? change : flushing.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flusher and writes every pending change on the calling thread.
+     * @throws RuntimeException the first failure of the remaining batches, after all were tried
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true; // Finish flushing, the changes would be lost otherwise
+            }
+        }
+        RuntimeException failure = null;
+        while (true) {
+            try {
+                if (!flushBatch()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean offer(K key, V value) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Cache writer is closed");
+            }
+            Change<V> previous = pending.get(key);
+            if (previous != null) {
+                // Replacing the value of an existing key keeps its position in the queue
+                pending.put(key, new Change<>(value, previous.time()));
+                return true;
+            }
+            if (pending.size() >= capacity) {
+                return false;
+            }
+            pending.put(key, new Change<>(value, System.nanoTime()));
+            if (pending.size() == 1 || pending.size() == batchSize) {
+                changed.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (awaitBatch()) {
+            try {
+                flushBatch();
+            } catch (RuntimeException e) {
+                report(e);
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is full or the oldest change is due.
+     * @return false once the queue is closed
+     */
+    private boolean awaitBatch() {
+        lock.lock();
+        try {
+            while (!closed) {
+                if (pending.size() >= batchSize) {
+                    return true;
+                }
+                if (pending.isEmpty()) {
+                    changed.await();
+                } else {
+                    long remaining = pending.values().iterator().next().time() + delayNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        return true;
+                    }
+                    changed.awaitNanos(remaining);
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            return false; // close() writes what is left
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the oldest changes, at most a batch of them.
+     * @return false if there was nothing to write
+     */
+    private boolean flushBatch() {
+        flushLock.lock();
+        try {
+            Map<K, Change<V>> batch = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                Iterator<Map.Entry<K, Change<V>>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<K, Change<V>> entry = iterator.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+                if (batch.isEmpty()) {
+                    return false;
+                }
+                flushing = batch;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                write(batch);
+            } finally {
+                lock.lock();
+                try {
+                    flushing = Map.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<K, Change<V>> batch) {
+        Map<K, V> writes = new LinkedHashMap<>();
+        List<K> deletes = new ArrayList<>();
+        batch.forEach((key, change) -> {
+            if (change.value() != null) {
+                writes.put(key, change.value());
+            } else {
+                deletes.add(key);
+            }
+        });
+        if (!writes.isEmpty()) {
+            writer.writeAll(writes);
+        }
+        if (!deletes.isEmpty()) {
+            writer.deleteAll(deletes);
+        }
+    }
+
+    private static void report(RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    /**
+     * The latest change of a key.
+     * @param value the value to write, or null to delete the key
+     * @param time  when the key first changed since it was last written, from {@link System#nanoTime()}
+     */
+    record Change<V>(V value, long time) {
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue of pending write events.
+ * Producers claim a slot with a CAS on the producer index and then publish into it; the single
+ * consumer (the thread holding the eviction lock) frees slots in order. Unlike {@link ReadBuffer}
+ * this buffer is not lossy: a failed offer tells the producer to make room by draining it.
+ *
+ * @param <E> the type of the buffered events
+ */
+final class WriteBuffer<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param capacity the requested capacity, rounded up to a power of two
+     */
+    WriteBuffer(int capacity) {
+        int size = 1 << -Integer.numberOfLeadingZeros(Math.max(2, capacity) - 1);
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Appends the event if there is room.
+     * @param event the event to append
+     * @return false if the buffer is full
+     */
+    boolean offer(E event) {
+        for (;;) {
+            long producer = producerIndex.get();
+            if (producer - consumerIndex.get() > mask) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(producer, producer + 1)) {
+                buffer.lazySet((int) (producer & mask), event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the eldest event. Must only be called by one thread at a time.
+     * @return the eldest event, or null if the buffer is empty
+     */
+    E poll() {
+        long consumer = consumerIndex.get();
+        int index = (int) (consumer & mask);
+        E event = buffer.get(index);
+        if (event == null) {
+            if (consumer == producerIndex.get()) {
+                return null;
+            }
+            // A producer claimed the slot but has not published it yet
+            do {
+                Thread.onSpinWait();
+                event = buffer.get(index);
+            } while (event == null);
+        }
+        buffer.lazySet(index, null);
+        consumerIndex.lazySet(consumer + 1);
+        return event;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
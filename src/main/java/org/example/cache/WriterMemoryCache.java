@@ -0,0 +1,329 @@
+package org.example.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * MemoryCache decorator propagating puts and removals to a {@link CacheWriter}.
+ * The store and the cache are updated under a lock stripe of the key, so concurrent writers of
+ * a key leave the store and the cache with the same last value:
+ * <ul>
+ *     <li>Write-through: the writer is called first, and the cache is only updated if it succeeds.</li>
+ *     <li>Write-behind: the change is queued in a {@link WriteBehindQueue} and the cache updated
+ *     at once; the store receives coalesced batches later.</li>
+ * </ul>
+ * Loads go to the underlying cache directly, so loaded values are not written back. With
+ * write-behind, a miss first looks for a change of the key that is not written yet, so a value
+ * evicted before reaching the store is not loaded stale from it.
+ */
+class WriterMemoryCache<K, V> implements MemoryCache<K, V> {
+    private static final int STRIPES = 64;
+
+    private final MemoryCache<K, V> cache;
+    private final CacheWriter<K, V> writer;
+    /** Null in write-through mode. */
+    private final WriteBehindQueue<K, V> queue;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * @param cache the cache to decorate
+     * @param writer the writer receiving the changes
+     * @param preference the write-behind settings; changes are written through without a write-behind delay
+     */
+    WriterMemoryCache(MemoryCache<K, V> cache, CacheWriter<K, V> writer, CachePreference preference) {
+        this.cache = Objects.requireNonNull(cache, "Cache cannot be null");
+        this.writer = Objects.requireNonNull(writer, "Cache writer cannot be null");
+        Duration delay = preference.getWriteBehindDelay();
+        this.queue = (delay == null) ? null : new WriteBehindQueue<>(writer, delay.toNanos(),
+                preference.getWriteBehindBatchSize(), preference.getWriteBehindQueueCapacity());
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        if (queue == null) {
+            return cache.get(key, loader);
+        }
+        return cache.get(key, k -> {
+            WriteBehindQueue.Change<V> change = queue.lookup(k);
+            return (change != null) ? Optional.ofNullable(change.value()) : loader.apply(k);
+        });
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> getAsync(K key, Function<K, CompletableFuture<Optional<V>>> loader) {
+        if (queue == null) {
+            return cache.getAsync(key, loader);
+        }
+        return cache.getAsync(key, k -> {
+            WriteBehindQueue.Change<V> change = queue.lookup(k);
+            return (change != null) ? CompletableFuture.completedFuture(Optional.ofNullable(change.value())) : loader.apply(k);
+        });
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        if (queue == null) {
+            return cache.getAll(keys, bulkLoader);
+        }
+        return cache.getAll(keys, missing -> {
+            Map<K, V> loaded = new HashMap<>();
+            Set<K> unwritten = pendingValues(missing, loaded);
+            if (unwritten.size() < missing.size()) {
+                loaded.putAll(bulkLoader.apply(withoutKeys(missing, unwritten)));
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys,
+                                                    Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader) {
+        if (queue == null) {
+            return cache.getAllAsync(keys, bulkLoader);
+        }
+        return cache.getAllAsync(keys, missing -> {
+            Map<K, V> loaded = new HashMap<>();
+            Set<K> unwritten = pendingValues(missing, loaded);
+            if (unwritten.size() == missing.size()) {
+                return CompletableFuture.completedFuture(loaded);
+            }
+            return bulkLoader.apply(withoutKeys(missing, unwritten)).thenApply(values -> {
+                loaded.putAll(values);
+                return loaded;
+            });
+        });
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        Objects.requireNonNull(value, "Value cannot be null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            write(key, value);
+            cache.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        Objects.requireNonNull(value, "Value cannot be null");
+        Objects.requireNonNull(ttl, "TTL cannot be null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            write(key, value);
+            cache.put(key, value, ttl);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * In write-through mode, the values are written with a single {@link CacheWriter#writeAll}
+     * call, under the lock stripes of all their keys.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Objects.requireNonNull(map, "Map cannot be null");
+        Map<K, V> entries = new LinkedHashMap<>(map);
+        entries.forEach((key, value) -> {
+            Objects.requireNonNull(key, "Key cannot be null");
+            Objects.requireNonNull(value, "Value cannot be null");
+        });
+        if (queue != null) {
+            entries.forEach(this::put);
+            return;
+        }
+        Set<Integer> stripes = lockAll(entries.keySet());
+        try {
+            writer.writeAll(entries);
+            cache.putAll(entries);
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (queue != null) {
+                queue.enqueue(key, null);
+            } else {
+                writer.delete(key);
+            }
+            cache.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * In write-through mode, the keys are deleted with a single {@link CacheWriter#deleteAll}
+     * call, under the lock stripes of all of them.
+     */
+    @Override
+    public void invalidateAll(Iterable<K> keys) {
+        Objects.requireNonNull(keys, "Keys cannot be null");
+        Set<K> distinct = new LinkedHashSet<>();
+        for (K key : keys) {
+            distinct.add(Objects.requireNonNull(key, "Key cannot be null"));
+        }
+        if (queue != null) {
+            distinct.forEach(this::remove);
+            return;
+        }
+        Set<Integer> stripes = lockAll(distinct);
+        try {
+            writer.deleteAll(distinct);
+            cache.invalidateAll(distinct);
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    /**
+     * Empties the cache only; the store keeps its entries.
+     */
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    @Override
+    public void saveSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        cache.saveSnapshot(file, keyCodec, valueCodec);
+    }
+
+    /**
+     * Loads the entries into the cache without writing them, as they came from the cache.
+     */
+    @Override
+    public int loadSnapshot(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) throws IOException {
+        return cache.loadSnapshot(file, keyCodec, valueCodec);
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Writes the pending changes with write-behind; later puts and removals throw an
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        try {
+            if (queue != null) {
+                queue.close();
+            }
+        } finally {
+            cache.close();
+        }
+    }
+
+    private void write(K key, V value) {
+        if (queue != null) {
+            queue.enqueue(key, value);
+        } else {
+            writer.write(key, value);
+        }
+    }
+
+    /**
+     * Adds the values of the keys that have an unwritten change to the map.
+     * @return the keys that have an unwritten change, including deletes
+     */
+    private Set<K> pendingValues(Set<K> keys, Map<K, V> values) {
+        Set<K> unwritten = new HashSet<>();
+        for (K key : keys) {
+            WriteBehindQueue.Change<V> change = queue.lookup(key);
+            if (change != null) {
+                unwritten.add(key);
+                if (change.value() != null) {
+                    values.put(key, change.value());
+                }
+            }
+        }
+        return unwritten;
+    }
+
+    private static <K> Set<K> withoutKeys(Set<K> keys, Set<K> excluded) {
+        Set<K> remaining = new HashSet<>(keys);
+        remaining.removeAll(excluded);
+        return remaining;
+    }
+
+    private ReentrantLock lockFor(K key) {
+        return locks[stripeOf(key)];
+    }
+
+    private static int stripeOf(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Locks the stripes of the keys in ascending order, so that two batches cannot deadlock.
+     */
+    private Set<Integer> lockAll(Set<K> keys) {
+        Set<Integer> stripes = new TreeSet<>();
+        for (K key : keys) {
+            stripes.add(stripeOf(key));
+        }
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return stripes;
+    }
+
+    private void unlockAll(Set<Integer> stripes) {
+        for (int stripe : stripes) {
+            locks[stripe].unlock();
+        }
+    }
+}
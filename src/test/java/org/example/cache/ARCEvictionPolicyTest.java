@@ -0,0 +1,151 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ARCEvictionPolicyTest {
+
+    @Test
+    void testFillsToCapacityWithoutEviction() {
+        ARCEvictionPolicy<String> policy = new ARCEvictionPolicy<>(3);
+        assertNull(policy.onPut("A"));
+        assertNull(policy.onPut("B"));
+        assertNull(policy.onPut("C"));
+        assertEquals(3, policy.size());
+        assertEquals(3, policy.getCapacity());
+    }
+
+    @Test
+    void testScanDoesNotFlushFrequentKeys() {
+        // Arrange
+        ARCEvictionPolicy<String> policy = new ARCEvictionPolicy<>(4);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onAccess("A");
+        policy.onAccess("B");
+
+        // Act
+        List<String> evicted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String key = policy.onPut("scan" + i);
+            if (key != null) {
+                evicted.add(key);
+            }
+        }
+
+        // Assert
+        assertEquals(18, evicted.size());
+        assertFalse(evicted.contains("A"));
+        assertFalse(evicted.contains("B"));
+        assertEquals(4, policy.size());
+    }
+
+    @Test
+    void testGhostHitsAdaptTheTarget() {
+        // Arrange
+        ARCEvictionPolicy<String> policy = new ARCEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onAccess("B"); // T1 = [A], T2 = [B]
+        assertEquals("A", policy.onPut("C")); // "A" becomes a ghost in B1
+
+        // Act & Assert
+        assertEquals("B", policy.onPut("A")); // A B1 hit grows T1's target, so T2 gives up "B"
+        assertEquals(List.of("C1", "A2"), visit(policy));
+        assertEquals("C", policy.onPut("B")); // A B2 hit shrinks it again, so T1 gives up "C"
+        assertEquals(List.of("A2", "B2"), visit(policy));
+    }
+
+    @Test
+    void testGhostHistoryIsBounded() {
+        // Arrange
+        ARCEvictionPolicy<Integer> policy = new ARCEvictionPolicy<>(10);
+        for (int key = 0; key < 10; key++) {
+            policy.onPut(key);
+        }
+        for (int key = 0; key < 5; key++) {
+            policy.onAccess(key); // T2 holds half of the cache, leaving room for ghosts in B1
+        }
+        for (int key = 10; key < 100; key++) {
+            policy.onPut(key);
+        }
+
+        // Act
+        policy.onPut(92); // Still remembered as a ghost
+        policy.onPut(50); // Long forgotten: T1 and B1 together hold at most the capacity
+
+        // Assert
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        policy.forEachInEvictionOrder(frequencies::put);
+        assertEquals(2, frequencies.get(92));
+        assertEquals(1, frequencies.get(50));
+        assertEquals(10, policy.size());
+    }
+
+    @Test
+    void testOnRemoveAndEvict() {
+        ARCEvictionPolicy<String> policy = new ARCEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+
+        policy.onRemove("B");
+        policy.onRemove("unknown");
+
+        assertEquals(2, policy.size());
+        assertNull(policy.onPut("D")); // Room was freed, nothing to evict
+        assertEquals("C", policy.evict());
+        assertEquals("D", policy.evict());
+        assertEquals("A", policy.evict());
+        assertNull(policy.evict());
+    }
+
+    @Test
+    void testEvictBoundsGhostsByResidentKeys() {
+        // Arrange
+        ARCEvictionPolicy<Integer> policy = new ARCEvictionPolicy<>(Integer.MAX_VALUE);
+        for (int key = 0; key < 1_000; key++) {
+            policy.onPut(key);
+        }
+
+        // Act
+        for (int i = 0; i < 990; i++) {
+            policy.evict();
+        }
+        policy.onPut(0); // Its ghost was dropped, as only 11 ghosts remain
+
+        // Assert
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        policy.forEachInEvictionOrder(frequencies::put);
+        assertEquals(1, frequencies.get(0));
+        assertEquals(11, policy.size());
+    }
+
+    @Test
+    void testOnClear() {
+        ARCEvictionPolicy<String> policy = new ARCEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C"); // "A" becomes a ghost
+
+        policy.onClear();
+
+        assertEquals(0, policy.size());
+        assertNull(policy.evict());
+        assertNull(policy.onPut("A"));
+        assertEquals(List.of("A1"), visit(policy)); // Not a ghost hit any more
+    }
+
+    private static List<String> visit(ARCEvictionPolicy<String> policy) {
+        List<String> visited = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> visited.add(key + frequency));
+        return visited;
+    }
+}
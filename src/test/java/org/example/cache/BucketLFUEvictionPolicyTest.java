@@ -0,0 +1,155 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketLFUEvictionPolicyTest {
+
+    @Test
+    void testBucketLFUEvictionPolicy() {
+        // Arrange
+        BucketLFUEvictionPolicy<String> lfu = new BucketLFUEvictionPolicy<>(3);
+
+        // Act & Assert
+        assertNull(lfu.onPut("A")); // No eviction yet
+        assertNull(lfu.onPut("B"));
+        assertNull(lfu.onPut("C"));
+
+        lfu.onAccess("A"); // Increment frequency of "A"
+        lfu.onAccess("A");
+        lfu.onAccess("B"); // Increment frequency of "B"
+
+        assertEquals("C", lfu.onPut("D")); // Evict "C" (least frequently used)
+
+        lfu.onAccess("D"); // "B" and "D" now tie, "B" is less recent
+        assertEquals("B", lfu.onPut("E"));
+
+        assertEquals(3, lfu.size());
+        assertEquals(3, lfu.getCapacity());
+
+        lfu.onAccess("E");
+        assertEquals("D", lfu.onPut("F")); // Evict "D"
+        lfu.onAccess("F");
+        lfu.onAccess("A");
+        assertEquals("E", lfu.onPut("G")); // Evict "E"
+    }
+
+    @Test
+    void testTiesBrokenByRecency() {
+        // Arrange
+        BucketLFUEvictionPolicy<String> lfu = new BucketLFUEvictionPolicy<>(3);
+        lfu.onPut("A");
+        lfu.onPut("B");
+        lfu.onPut("C");
+
+        // Act & Assert
+        assertEquals("A", lfu.onPut("D")); // All at frequency 1, "A" is the eldest
+        assertEquals("B", lfu.onPut("E"));
+    }
+
+    @Test
+    void testPutExistingKeyCountsAsAccess() {
+        // Arrange
+        BucketLFUEvictionPolicy<String> lfu = new BucketLFUEvictionPolicy<>(2);
+        lfu.onPut("A");
+        lfu.onPut("B");
+
+        // Act
+        assertNull(lfu.onPut("A")); // Present already, no eviction
+
+        // Assert
+        assertEquals(2, lfu.size());
+        assertEquals("B", lfu.onPut("C"));
+    }
+
+    @Test
+    void testAccessUnknownKeyIsIgnored() {
+        BucketLFUEvictionPolicy<String> lfu = new BucketLFUEvictionPolicy<>(2);
+        lfu.onPut("A");
+        lfu.onAccess("B");
+        assertEquals(1, lfu.size());
+    }
+
+    @Test
+    void testBucketLFUConcurrentAccess() throws InterruptedException {
+        // Arrange
+        BucketLFUEvictionPolicy<String> lfu = new BucketLFUEvictionPolicy<>(3);
+        Thread[] threads = new Thread[10];
+
+        // Act
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                lfu.onPut("Key" + index);
+                lfu.onAccess("Key" + index);
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(3, lfu.size());
+        assertEquals(3, lfu.getCapacity());
+    }
+
+    @Test
+    void testEvict() {
+        BucketLFUEvictionPolicy<String> policy = new BucketLFUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+        policy.onAccess("A");
+        policy.onAccess("C");
+
+        assertEquals("B", policy.evict());
+        assertEquals("C", policy.evict());
+        assertEquals("A", policy.evict());
+        assertNull(policy.evict());
+        assertEquals(0, policy.size());
+    }
+
+    @Test
+    void testOnRemove() {
+        BucketLFUEvictionPolicy<String> policy = new BucketLFUEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onRemove("A");
+        policy.onRemove("unknown");
+
+        assertEquals(1, policy.size());
+        assertNull(policy.onPut("C")); // Room was freed, nothing to evict
+        assertEquals(2, policy.size());
+    }
+
+    @Test
+    void testForEachInEvictionOrder() {
+        BucketLFUEvictionPolicy<String> policy = new BucketLFUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+        policy.onAccess("A");
+        policy.onAccess("C");
+
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        policy.forEachInEvictionOrder(frequencies::put);
+
+        assertEquals(List.of("B", "C", "A"), List.copyOf(frequencies.keySet()));
+        assertEquals(List.of(1, 2, 3), List.copyOf(frequencies.values()));
+    }
+
+    @Test
+    void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BucketLFUEvictionPolicy<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new BucketLFUEvictionPolicy<>(-1));
+    }
+}
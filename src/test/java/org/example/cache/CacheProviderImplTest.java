@@ -3,6 +3,8 @@ package org.example.cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CacheProviderImplTest {
@@ -59,6 +61,76 @@ public class CacheProviderImplTest {
         assertEquals(EvictionPolicy.LFU, preference.getEvictionPolicy());
     }
 
+    @Test
+    public void testGetCache_LinkedLRU() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.LINKED_LRU);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertNotNull(cache);
+        assertInstanceOf(MemoryCacheImpl.class, cache);
+        assertEquals(EvictionPolicy.LINKED_LRU, preference.getEvictionPolicy());
+    }
+
+    @Test
+    public void testGetCache_BucketLFU() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.BUCKET_LFU);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertNotNull(cache);
+        assertInstanceOf(MemoryCacheImpl.class, cache);
+        assertEquals(EvictionPolicy.BUCKET_LFU, preference.getEvictionPolicy());
+    }
+
+    @Test
+    public void testGetCache_TinyLFU() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.TINY_LFU);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertNotNull(cache);
+        assertInstanceOf(MemoryCacheImpl.class, cache);
+        assertEquals(EvictionPolicy.TINY_LFU, preference.getEvictionPolicy());
+    }
+
+    @Test
+    public void testGetCache_Clock() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.CLOCK);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertNotNull(cache);
+        assertInstanceOf(MemoryCacheImpl.class, cache);
+        assertEquals(EvictionPolicy.CLOCK, preference.getEvictionPolicy());
+    }
+
+    @Test
+    public void testGetCache_ARC() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.ARC);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertNotNull(cache);
+        assertInstanceOf(MemoryCacheImpl.class, cache);
+        assertEquals(EvictionPolicy.ARC, preference.getEvictionPolicy());
+    }
+
     @Test
     public void testGetCache_InvalidEvictionPolicy() {
         // Arrange
@@ -82,6 +154,49 @@ public class CacheProviderImplTest {
         assertInstanceOf(MemoryCacheImpl.class, cache);
     }
 
+    @Test
+    public void testGetCache_UsesConfiguredExecutor() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        preference.setEvictionPolicy(EvictionPolicy.LINKED_LRU);
+        preference.setExecutor(task -> {
+            executions.incrementAndGet();
+            task.run();
+        });
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+        cache.put("key1", "value1");
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertThrows(NullPointerException.class, () -> preference.setExecutor(null));
+    }
+
+    @Test
+    public void testGetCache_Segmented() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.LINKED_LRU);
+        preference.setSegments(4);
+
+        // Act
+        MemoryCache<String, String> cache = provider.getCache(preference);
+
+        // Assert
+        assertInstanceOf(SegmentedMemoryCache.class, cache);
+        assertEquals(4, ((SegmentedMemoryCache<String, String>) cache).segmentCount());
+    }
+
+    @Test
+    public void testGetCache_InvalidSegments() {
+        preference.setEvictionPolicy(EvictionPolicy.LRU);
+        preference.setSegments(0);
+        assertThrows(IllegalArgumentException.class, () -> provider.getCache(preference));
+
+        preference.setSegments(101);
+        assertThrows(IllegalArgumentException.class, () -> provider.getCache(preference));
+    }
+
     @Test
     public void testGetCache_MultipleCaches() {
         // Arrange
@@ -104,10 +219,26 @@ public class CacheProviderImplTest {
         assertInstanceOf(MemoryCacheImpl.class, cache1);
         assertInstanceOf(MemoryCacheImpl.class, cache2);
     }
-}
-
-
 
+    @Test
+    public void testGetLongCache() {
+        // Arrange
+        preference.setEvictionPolicy(EvictionPolicy.LFU);
+        preference.setSegments(4);
 
+        // Act
+        LongMemoryCache<String> cache = provider.getLongCache(preference);
+        cache.put(1L, "one");
 
+        // Assert
+        assertInstanceOf(LongMemoryCacheImpl.class, cache);
+        assertEquals("one", cache.get(1L));
+    }
 
+    @Test
+    public void testGetLongCacheRejectsUnsupportedSettings() {
+        preference.setEvictionPolicy(EvictionPolicy.LRU);
+        preference.setExpireAfterWrite(java.time.Duration.ofMinutes(1));
+        assertThrows(IllegalArgumentException.class, () -> provider.getLongCache(preference));
+    }
+}
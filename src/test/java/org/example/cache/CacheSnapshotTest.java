@@ -0,0 +1,287 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSnapshotTest {
+    private static final ValueCodec<String> UTF8 = ValueCodec.utf8();
+    private static final ValueCodec<Integer> INT = new ValueCodec<>() {
+        @Override
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        @Override
+        public Integer decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestoresEntriesAndLRUOrder() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(3));
+        source.put("key1", "value1");
+        source.put("key2", "value2");
+        source.put("key3", "value3");
+        source.get("key1"); // key2 becomes the least recently used
+
+        // Act
+        source.saveSnapshot(file, UTF8, UTF8);
+        MemoryCacheImpl<String, String> restored = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(3));
+        int loaded = restored.loadSnapshot(file, UTF8, UTF8);
+
+        // Assert
+        assertEquals(3, loaded);
+        assertEquals("value3", restored.getIfPresent("key3"));
+        restored.put("key4", "value4");
+        restored.cleanUp();
+        assertFalse(restored.containsKey("key2"));
+        assertTrue(restored.containsKey("key1"));
+    }
+
+    @Test
+    void testRestoresLFUFrequencies() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new BucketLFUEvictionPolicy<>(3));
+        source.put("hot", "1");
+        source.put("warm", "2");
+        source.put("cold", "3");
+        for (int i = 0; i < 5; i++) {
+            source.get("hot");
+        }
+        source.get("warm");
+
+        // Act
+        source.saveSnapshot(file, UTF8, UTF8);
+        MemoryCacheImpl<String, String> restored = new MemoryCacheImpl<>(new BucketLFUEvictionPolicy<>(3));
+        restored.loadSnapshot(file, UTF8, UTF8);
+        restored.put("new", "4");
+        restored.cleanUp();
+
+        // Assert
+        assertFalse(restored.containsKey("cold"));
+        restored.put("newer", "5"); // "new" has the lowest frequency now
+        restored.cleanUp();
+        assertFalse(restored.containsKey("new"));
+        assertTrue(restored.containsKey("hot"));
+        assertTrue(restored.containsKey("warm"));
+    }
+
+    @Test
+    void testKeepsRemainingTimeToLive() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        AtomicLong ticker = new AtomicLong();
+        CachePreference preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        source.put("short", "1", Duration.ofMinutes(1));
+        source.put("expired", "2", Duration.ofSeconds(10));
+        source.put("forever", "3");
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        // Act
+        source.saveSnapshot(file, UTF8, UTF8);
+        MemoryCacheImpl<String, String> restored = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        int loaded = restored.loadSnapshot(file, UTF8, UTF8);
+
+        // Assert
+        assertEquals(2, loaded);
+        ticker.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals("1", restored.getIfPresent("short"));
+        ticker.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(restored.getIfPresent("short"));
+        assertEquals("3", restored.getIfPresent("forever"));
+    }
+
+    @Test
+    void testTimeBetweenSaveAndLoadCountsAgainstTimeToLive() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        AtomicLong ticker = new AtomicLong();
+        AtomicLong wallClock = new AtomicLong(1_700_000_000_000L);
+        CachePreference preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        preference.setWallClock(wallClock::get);
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        source.put("long", "1", Duration.ofMinutes(10));
+        source.put("short", "2", Duration.ofMinutes(1));
+        source.put("forever", "3");
+        source.saveSnapshot(file, UTF8, UTF8);
+
+        // Act
+        wallClock.addAndGet(Duration.ofMinutes(2).toMillis()); // E.g. a deploy; the new process has its own ticker
+        MemoryCacheImpl<String, String> restored = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        int loaded = restored.loadSnapshot(file, UTF8, UTF8);
+
+        // Assert
+        assertEquals(2, loaded);
+        assertNull(restored.getIfPresent("short"));
+        assertEquals("3", restored.getIfPresent("forever"));
+        ticker.addAndGet(Duration.ofMinutes(8).minusNanos(1).toNanos());
+        assertEquals("1", restored.getIfPresent("long"));
+        ticker.addAndGet(1);
+        assertNull(restored.getIfPresent("long"));
+    }
+
+    @Test
+    void testKeepsExpiringAfterAccess() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        AtomicLong ticker = new AtomicLong();
+        AtomicLong wallClock = new AtomicLong(1_700_000_000_000L);
+        CachePreference preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        preference.setWallClock(wallClock::get);
+        preference.setExpireAfterWrite(Duration.ofMinutes(10));
+        preference.setExpireAfterAccess(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        source.put("idle", "1");
+        source.put("busy", "2");
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+        source.saveSnapshot(file, UTF8, UTF8);
+
+        // Act
+        wallClock.addAndGet(Duration.ofSeconds(10).toMillis());
+        MemoryCacheImpl<String, String> restored = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        int loaded = restored.loadSnapshot(file, UTF8, UTF8);
+
+        // Assert
+        assertEquals(2, loaded);
+        ticker.addAndGet(Duration.ofSeconds(19).toNanos()); // 1s of idle time left
+        assertEquals("2", restored.getIfPresent("busy")); // Extends it by a minute
+        ticker.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(restored.getIfPresent("idle"));
+        ticker.addAndGet(Duration.ofSeconds(50).toNanos()); // Would be gone with the 20s it had left
+        assertEquals("2", restored.getIfPresent("busy"));
+        for (int i = 0; i < 9; i++) { // Accessed often, it still expires 10 minutes after its write
+            ticker.addAndGet(Duration.ofSeconds(50).toNanos());
+            assertEquals("2", restored.getIfPresent("busy"));
+        }
+        ticker.addAndGet(Duration.ofSeconds(50).toNanos());
+        assertNull(restored.getIfPresent("busy"));
+    }
+
+    @Test
+    void testManyBlocksIntoSegmentedCache() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        String padding = "x".repeat(100);
+        MemoryCache<Integer, String> source = new SegmentedMemoryCache<>(4, 200_000,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        for (int i = 0; i < 100_000; i++) {
+            source.put(i, padding + i); // About 12 MB, so several blocks
+        }
+
+        // Act
+        source.saveSnapshot(file, INT, UTF8);
+        MemoryCache<Integer, String> restored = new SegmentedMemoryCache<>(8, 200_000,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        int loaded = restored.loadSnapshot(file, INT, UTF8);
+
+        // Assert
+        assertEquals(100_000, loaded);
+        for (int i = 0; i < 100_000; i += 997) {
+            assertEquals(Optional.of(padding + i), restored.get(i));
+        }
+    }
+
+    @Test
+    void testReadersProceedWhileSaving() throws Exception {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(50_000));
+        for (int i = 0; i < 50_000; i++) {
+            cache.put(i, "value" + i);
+        }
+        AtomicBoolean saving = new AtomicBoolean(true);
+        List<Throwable> errors = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            int i = 0;
+            while (saving.get()) {
+                try {
+                    assertEquals("value" + (i % 50_000), cache.getIfPresent(i % 50_000));
+                    cache.put(i % 50_000, "value" + (i % 50_000));
+                    i++;
+                } catch (Throwable t) {
+                    errors.add(t);
+                    return;
+                }
+            }
+        });
+
+        // Act
+        reader.start();
+        cache.saveSnapshot(file, INT, UTF8);
+        saving.set(false);
+        reader.join();
+
+        // Assert
+        assertTrue(errors.isEmpty(), () -> errors.get(0).toString());
+        MemoryCacheImpl<Integer, String> restored = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(50_000));
+        assertEquals(50_000, restored.loadSnapshot(file, INT, UTF8));
+    }
+
+    @Test
+    void testWritesBetweenChunksVisitEachEntryOnce() throws IOException {
+        // Arrange
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(20_000));
+        for (int i = 0; i < 20_000; i++) {
+            cache.put(i, "value" + i);
+        }
+        List<Integer> visited = new ArrayList<>();
+
+        // Act
+        cache.forEachInEvictionOrder((key, value, frequency, ttlNanos, idleNanos) -> {
+            if (visited.isEmpty()) {
+                for (int i = 100; i < 5_100; i++) {
+                    cache.put(i, "value" + i); // Moves keys of the next chunks to the back of the order
+                }
+            }
+            visited.add(key);
+        });
+
+        // Assert
+        assertEquals(20_000, visited.size());
+        assertEquals(20_000, visited.stream().distinct().count());
+        assertEquals(0, visited.get(0));
+    }
+
+    @Test
+    void testRejectsInvalidFiles() throws IOException {
+        // Arrange
+        Path notSnapshot = directory.resolve("other");
+        Files.write(notSnapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        Path truncated = directory.resolve("truncated");
+        MemoryCacheImpl<String, String> source = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(3));
+        source.put("key1", "value1");
+        source.saveSnapshot(truncated, UTF8, UTF8);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(3));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> cache.loadSnapshot(notSnapshot, UTF8, UTF8));
+        assertThrows(IOException.class, () -> cache.loadSnapshot(truncated, UTF8, UTF8));
+        assertThrows(IOException.class, () -> cache.loadSnapshot(directory.resolve("missing"), UTF8, UTF8));
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockEvictionPolicyTest {
+
+    @Test
+    void testClockEvictionPolicy() {
+        // Arrange
+        ClockEvictionPolicy<String> clock = new ClockEvictionPolicy<>(3);
+
+        // Act & Assert
+        assertNull(clock.onPut("A"));
+        assertNull(clock.onPut("B"));
+        assertNull(clock.onPut("C"));
+        assertEquals("A", clock.onPut("D")); // Nothing referenced: evicts like FIFO
+
+        clock.onAccess("B"); // Second chance for "B"
+        assertEquals("C", clock.onPut("E"));
+        assertEquals("D", clock.onPut("F")); // The hand wrapped around to "D" in the slot of "A"
+        assertEquals("B", clock.onPut("G")); // Its bit was cleared on the previous turn
+
+        assertEquals(3, clock.size());
+        assertEquals(3, clock.getCapacity());
+    }
+
+    @Test
+    void testReferencedKeysSurviveAScan() {
+        // Arrange
+        ClockEvictionPolicy<Integer> clock = new ClockEvictionPolicy<>(10);
+        for (int key = 0; key < 10; key++) {
+            clock.onPut(key);
+        }
+
+        // Act
+        List<Integer> evicted = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            clock.onAccess(0);
+            clock.onAccess(1);
+            evicted.add(clock.onPut(100 + round));
+        }
+
+        // Assert
+        assertEquals(List.of(2, 3, 4, 5, 6), evicted);
+    }
+
+    @Test
+    void testRePutIsAHit() {
+        ClockEvictionPolicy<String> policy = new ClockEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        assertNull(policy.onPut("A"));
+        assertEquals(2, policy.size());
+        assertEquals("B", policy.onPut("C"));
+    }
+
+    @Test
+    void testOnRemoveAndEvict() {
+        ClockEvictionPolicy<String> policy = new ClockEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+
+        policy.onRemove("B");
+        policy.onRemove("unknown");
+        policy.onAccess("B"); // Removed keys are ignored
+
+        assertEquals(2, policy.size());
+        assertNull(policy.onPut("D")); // Room was freed, nothing to evict
+        assertEquals("A", policy.evict());
+        assertEquals("D", policy.evict()); // Took the slot of "B"
+        assertEquals("C", policy.evict());
+        assertNull(policy.evict());
+    }
+
+    @Test
+    void testForEachInEvictionOrder() {
+        ClockEvictionPolicy<String> policy = new ClockEvictionPolicy<>(4);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+
+        List<String> visited = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> visited.add(key + frequency));
+
+        assertEquals(List.of("B1", "C1", "A2"), visited);
+        assertEquals("B", policy.evict());
+        assertEquals("C", policy.evict());
+        assertEquals("A", policy.evict());
+    }
+
+    @Test
+    void testGrowsBeyondPreallocatedArrays() {
+        ClockEvictionPolicy<Integer> policy = new ClockEvictionPolicy<>(Integer.MAX_VALUE);
+        for (int key = 0; key < 200_000; key++) {
+            assertNull(policy.onPut(key));
+        }
+        policy.onAccess(0);
+
+        assertEquals(200_000, policy.size());
+        assertEquals(1, policy.evict());
+    }
+
+    @Test
+    void testOnClear() {
+        ClockEvictionPolicy<String> policy = new ClockEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onClear();
+
+        assertEquals(0, policy.size());
+        assertNull(policy.evict());
+        assertNull(policy.onPut("C"));
+        assertNull(policy.onPut("D"));
+        assertEquals("C", policy.onPut("E"));
+    }
+
+    @Test
+    void testConcurrentHitsDuringEvictions() throws InterruptedException {
+        // Arrange
+        ClockEvictionPolicy<Integer> policy = new ClockEvictionPolicy<>(100);
+        Map<Integer, Boolean> live = new ConcurrentHashMap<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            readers.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    policy.onAccess(i % 1_000);
+                }
+            }));
+        }
+
+        // Act
+        readers.forEach(Thread::start);
+        for (int key = 0; key < 1_000; key++) {
+            live.put(key, true);
+            Integer evicted = policy.onPut(key);
+            if (evicted != null) {
+                assertNotNull(live.remove(evicted));
+            }
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Assert
+        assertEquals(100, policy.size());
+        assertEquals(100, live.size());
+    }
+}
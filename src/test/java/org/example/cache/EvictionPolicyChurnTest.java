@@ -0,0 +1,108 @@
+package org.example.cache;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Soak test: under a long mix of puts, removals and clears, the eviction policy must track
+ * exactly the keys still in the cache, so its memory stays bounded by the capacity.
+ */
+class EvictionPolicyChurnTest {
+    private static final int CAPACITY = 100;
+    private static final int KEY_SPACE = 10_000;
+    private static final int OPERATIONS = 300_000;
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void testPolicyTracksLiveKeysUnderChurn(EvictionPolicy policyType) {
+        // Arrange
+        EvictionPolicyHandler<Integer> policy = CacheProviderImpl.createEvictionPolicy(policyType, CAPACITY);
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(policy);
+        Random random = new Random(42);
+        Set<Integer> written = new HashSet<>();
+
+        for (int i = 1; i <= OPERATIONS; i++) {
+            // Act
+            int key = random.nextInt(KEY_SPACE);
+            int operation = random.nextInt(1_000);
+            if (operation < 550) {
+                cache.put(key, "value");
+                written.add(key);
+            } else if (operation < 999) {
+                cache.remove(key);
+            } else {
+                cache.clear();
+            }
+
+            // Assert
+            if (i % 10_000 == 0) {
+                cache.cleanUp();
+                int live = (int) written.stream().filter(cache::containsKey).count();
+                assertEquals(live, policy.size());
+                assertTrue(policy.size() <= CAPACITY);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void testClearEmptiesThePolicy(EvictionPolicy policyType) {
+        // Arrange
+        EvictionPolicyHandler<Integer> policy = CacheProviderImpl.createEvictionPolicy(policyType, CAPACITY);
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(policy);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(i, "value");
+        }
+
+        // Act
+        cache.clear();
+        for (int i = CAPACITY; i < CAPACITY + 10; i++) {
+            cache.put(i, "value");
+        }
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(10, policy.size());
+        for (int i = CAPACITY; i < CAPACITY + 10; i++) {
+            assertTrue(cache.containsKey(i));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void testChunkedWalkMatchesFullWalk(EvictionPolicy policyType) {
+        // Arrange
+        EvictionPolicyHandler<Integer> policy = CacheProviderImpl.createEvictionPolicy(policyType, CAPACITY);
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            policy.onPut(random.nextInt(KEY_SPACE / 10));
+            policy.onAccess(random.nextInt(KEY_SPACE / 10));
+            if (i % 7 == 0) {
+                policy.onRemove(random.nextInt(KEY_SPACE / 10));
+            }
+        }
+        List<String> full = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> full.add(key + "x" + frequency));
+
+        // Act
+        List<String> chunked = new ArrayList<>();
+        int from = 0;
+        boolean more = true;
+        while (more) {
+            int before = chunked.size();
+            more = policy.forEachInEvictionOrder(from, 7, (key, frequency) -> chunked.add(key + "x" + frequency));
+            from += chunked.size() - before;
+        }
+
+        // Assert
+        assertEquals(full, chunked);
+    }
+}
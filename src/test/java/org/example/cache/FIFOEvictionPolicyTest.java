@@ -3,7 +3,9 @@ package org.example.cache;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -33,6 +35,119 @@ class FIFOEvictionPolicyTest {
         assertEquals("E", fifo.onPut("H")); // Evict oldest "C"
     }
 
+    @Test
+    void testEvict() {
+        FIFOEvictionPolicy<String> policy = new FIFOEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A"); // Ignored by FIFO
+
+        assertEquals("A", policy.evict());
+        assertEquals("B", policy.evict());
+        assertEquals("C", policy.evict());
+        assertNull(policy.evict());
+        assertEquals(0, policy.size());
+    }
+
+    @Test
+    void testOnRemove() {
+        FIFOEvictionPolicy<String> policy = new FIFOEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onRemove("A");
+        policy.onRemove("unknown");
+
+        assertEquals(1, policy.size());
+        assertNull(policy.onPut("C")); // Room was freed, nothing to evict
+        assertEquals(2, policy.size());
+    }
+
+    @Test
+    void testRePutKeepsPosition() {
+        FIFOEvictionPolicy<String> policy = new FIFOEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+
+        assertNull(policy.onPut("A")); // Already present: no eviction, no duplicate
+        assertEquals(3, policy.size());
+        assertEquals("A", policy.onPut("D"));
+        assertEquals("B", policy.evict());
+    }
+
+    @Test
+    void testRemoveFromMiddleKeepsOrder() {
+        FIFOEvictionPolicy<Integer> policy = new FIFOEvictionPolicy<>(4);
+        for (int i = 0; i < 4; i++) {
+            policy.onPut(i);
+        }
+
+        policy.onRemove(1);
+        policy.onRemove(2);
+        policy.onPut(4);
+        policy.onPut(5);
+
+        List<Integer> order = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> order.add(key));
+        assertEquals(List.of(0, 3, 4, 5), order);
+        assertEquals(0, policy.onPut(6));
+    }
+
+    @Test
+    void testMatchesReferenceUnderChurn() {
+        FIFOEvictionPolicy<Integer> policy = new FIFOEvictionPolicy<>(50);
+        LinkedHashSet<Integer> reference = new LinkedHashSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                policy.onRemove(key);
+                reference.remove(key);
+            } else {
+                Integer expected = null;
+                if (!reference.contains(key) && reference.size() == 50) {
+                    expected = reference.iterator().next();
+                    reference.remove(expected);
+                }
+                reference.add(key);
+                assertEquals(expected, policy.onPut(key));
+            }
+            assertEquals(reference.size(), policy.size());
+        }
+        List<Integer> order = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> order.add(key));
+        assertEquals(new ArrayList<>(reference), order);
+    }
+
+    @Test
+    void testGrowsBeyondPreallocatedArrays() {
+        FIFOEvictionPolicy<Integer> policy = new FIFOEvictionPolicy<>(Integer.MAX_VALUE);
+        for (int i = 0; i < 200_000; i++) {
+            assertNull(policy.onPut(i));
+        }
+
+        assertEquals(200_000, policy.size());
+        assertEquals(0, policy.evict());
+        assertEquals(1, policy.evict());
+    }
+
+    @Test
+    void testOnClear() {
+        FIFOEvictionPolicy<String> policy = new FIFOEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onClear();
+
+        assertEquals(0, policy.size());
+        assertNull(policy.onPut("C"));
+        assertNull(policy.onPut("A"));
+        assertEquals("C", policy.evict());
+    }
+
     @Test
     void testFIFOConcurrentAccess() throws InterruptedException {
         // Arrange
@@ -43,8 +158,10 @@ class FIFOEvictionPolicyTest {
         for (int i = 0; i < threads.length; i++) {
             int index = i;
             threads[i] = new Thread(() -> {
-                fifo.onPut("Key" + index);
-                putOrder.add("Key" + index);
+                synchronized (putOrder) { // Records the order the puts actually reached the policy
+                    fifo.onPut("Key" + index);
+                    putOrder.add("Key" + index);
+                }
             });
             threads[i].start();
         }
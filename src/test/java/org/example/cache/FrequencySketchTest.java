@@ -0,0 +1,75 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void testIncrementAndFrequency() {
+        FrequencySketch<String> sketch = new FrequencySketch<>(64);
+        assertEquals(0, sketch.frequency("A"));
+
+        sketch.increment("A");
+        sketch.increment("A");
+        sketch.increment("B");
+
+        assertEquals(2, sketch.frequency("A"));
+        assertEquals(1, sketch.frequency("B"));
+    }
+
+    @Test
+    void testEnsureCapacityGrowsOnlyWhenTooSmall() {
+        FrequencySketch<String> sketch = new FrequencySketch<>(64);
+        sketch.increment("A");
+
+        sketch.ensureCapacity(64); // Large enough already, counts are kept
+        assertEquals(1, sketch.frequency("A"));
+
+        sketch.ensureCapacity(1_000); // Grown, counts start over
+        assertEquals(0, sketch.frequency("A"));
+        sketch.increment("A");
+        assertEquals(1, sketch.frequency("A"));
+    }
+
+    @Test
+    void testCountersSaturateAtFifteen() {
+        FrequencySketch<String> sketch = new FrequencySketch<>(64);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("A");
+        }
+        assertEquals(15, sketch.frequency("A"));
+    }
+
+    @Test
+    void testResetHalvesCounters() {
+        FrequencySketch<String> sketch = new FrequencySketch<>(64);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("A");
+        }
+
+        sketch.reset();
+
+        assertEquals(4, sketch.frequency("A"));
+    }
+
+    @Test
+    void testSamplePeriodAgesCounters() {
+        // Arrange
+        int capacity = 16;
+        FrequencySketch<Integer> sketch = new FrequencySketch<>(capacity);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(-1);
+        }
+
+        // Act
+        // More than 10 * capacity increments of distinct keys end the sample period
+        for (int key = 0; key < 10 * capacity; key++) {
+            sketch.increment(key);
+        }
+
+        // Assert
+        assertTrue(sketch.frequency(-1) < 10);
+    }
+}
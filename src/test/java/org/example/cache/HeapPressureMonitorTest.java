@@ -0,0 +1,79 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HeapPressureMonitorTest {
+
+    @Mock
+    private MemoryPoolMXBean oldGeneration;
+
+    @Mock
+    private MemoryPoolMXBean metaspace;
+
+    @Test
+    void testSetsLowestThresholdOnHeapPools() {
+        // Arrange
+        HeapPressureMonitor monitor = monitor();
+        MemoryCacheImpl<String, String> relaxed = cache(10);
+        MemoryCacheImpl<String, String> strict = cache(10);
+
+        // Act
+        monitor.subscribe(relaxed, 0.9);
+        monitor.subscribe(strict, 0.8);
+        monitor.unsubscribe(strict);
+
+        // Assert
+        var order = inOrder(oldGeneration);
+        order.verify(oldGeneration).setCollectionUsageThreshold(900);
+        order.verify(oldGeneration).setCollectionUsageThreshold(800);
+        order.verify(oldGeneration).setCollectionUsageThreshold(900);
+        verify(metaspace, never()).setCollectionUsageThreshold(anyLong());
+    }
+
+    @Test
+    void testShrinksOnlyCachesWhoseThresholdIsReached() {
+        // Arrange
+        HeapPressureMonitor monitor = monitor();
+        MemoryCacheImpl<String, String> strict = cache(10);
+        MemoryCacheImpl<String, String> relaxed = cache(10);
+        monitor.subscribe(strict, 0.8);
+        monitor.subscribe(relaxed, 0.9);
+        when(oldGeneration.getCollectionUsage()).thenReturn(new MemoryUsage(0, 850, 900, 1_000));
+
+        // Act
+        monitor.checkPools();
+
+        // Assert
+        assertEquals(5, strict.stats().estimatedSize());
+        assertEquals(10, relaxed.stats().estimatedSize());
+    }
+
+    private HeapPressureMonitor monitor() {
+        when(oldGeneration.getType()).thenReturn(MemoryType.HEAP);
+        when(oldGeneration.isCollectionUsageThresholdSupported()).thenReturn(true);
+        when(oldGeneration.getUsage()).thenReturn(new MemoryUsage(0, 100, 200, 1_000));
+        when(metaspace.getType()).thenReturn(MemoryType.NON_HEAP);
+        return new HeapPressureMonitor(List.of(oldGeneration, metaspace), null);
+    }
+
+    private static MemoryCacheImpl<String, String> cache(int entries) {
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(100));
+        for (int i = 0; i < entries; i++) {
+            cache.put("key" + i, "value");
+        }
+        return cache;
+    }
+}
@@ -37,6 +37,37 @@ class LFUEvictionPolicyTest {
         assertEquals("E", lfu.onPut("G")); // Evict "E"
     }
 
+    @Test
+    void testEvict() {
+        LFUEvictionPolicy<String> policy = new LFUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+        policy.onAccess("A");
+        policy.onAccess("C");
+
+        assertEquals("B", policy.evict()); // Least frequently used
+        assertEquals(2, policy.size());
+        policy.evict();
+        policy.evict();
+        assertNull(policy.evict());
+    }
+
+    @Test
+    void testOnRemove() {
+        LFUEvictionPolicy<String> policy = new LFUEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onRemove("A");
+        policy.onRemove("unknown");
+
+        assertEquals(1, policy.size());
+        assertNull(policy.onPut("C")); // Room was freed, nothing to evict
+        assertEquals(2, policy.size());
+    }
+
     @Test
     void testLFUConcurrentAccess() throws InterruptedException {
         // Arrange
@@ -0,0 +1,55 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures put throughput of a full LFU policy as capacity grows.
+ * Every measured put inserts a new key and therefore triggers an eviction.
+ * Not part of the regular test run; execute with {@code mvn test -Pbenchmark}.
+ */
+class LFUPutThroughputBenchmark {
+    private static final int[] CAPACITIES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int MEASURED_PUTS = 1_000_000;
+    private static final int LEGACY_MAX_CAPACITY = 10_000; // The stream min-scan is O(n) per put
+    private static final int LEGACY_MEASURED_PUTS = 2_000;
+
+    @Test
+    void putThroughputByCapacity() {
+        System.out.printf("%-26s %10s %14s%n", "policy", "capacity", "puts/sec");
+        for (int capacity : CAPACITIES) {
+            report("BucketLFUEvictionPolicy", capacity,
+                    measure(new BucketLFUEvictionPolicy<>(capacity), capacity, MEASURED_PUTS));
+        }
+        for (int capacity : CAPACITIES) {
+            if (capacity <= LEGACY_MAX_CAPACITY) {
+                report("LFUEvictionPolicy", capacity,
+                        measure(new LFUEvictionPolicy<>(capacity), capacity, LEGACY_MEASURED_PUTS));
+            }
+        }
+    }
+
+    private static double measure(EvictionPolicyHandler<Integer> policy, int capacity, int puts) {
+        // Fill to capacity and warm up so every measured put evicts
+        int key = 0;
+        for (; key < capacity; key++) {
+            policy.onPut(key);
+            if ((key & 3) == 0) {
+                policy.onAccess(key);
+            }
+        }
+        for (int i = 0; i < puts; i++) {
+            policy.onPut(key++);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < puts; i++) {
+            policy.onPut(key++);
+        }
+        long elapsed = System.nanoTime() - start;
+        return puts / (elapsed / 1_000_000_000.0);
+    }
+
+    private static void report(String policy, int capacity, double throughput) {
+        System.out.printf("%-26s %10d %,14.0f%n", policy, capacity, throughput);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValueWithinThreePercent() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertTrue(highest >= value, "bucket of " + value + " ends at " + highest);
+            assertTrue(highest - value <= value / 32, "bucket of " + value + " is too wide");
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        // Act
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Assert
+        assertEquals(10, snapshot.count());
+        assertEquals(1, snapshot.valueAtPercentile(0));
+        assertEquals(5, snapshot.valueAtPercentile(50));
+        assertEquals(10, snapshot.valueAtPercentile(100));
+        assertEquals(20, snapshot.plus(snapshot).count());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.valueAtPercentile(101));
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        assertEquals(0, new LatencyHistogram().snapshot().valueAtPercentile(99));
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkedLRUEvictionPolicyTest {
+
+    @Test
+    void testOnPut() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(3);
+        assertNull(policy.onPut("key1"));
+        assertNull(policy.onPut("key2"));
+        assertNull(policy.onPut("key3"));
+        assertEquals("key1", policy.onPut("key4"));
+        assertEquals(3, policy.size());
+    }
+
+    @Test
+    void testOnPutExistingKeyDoesNotEvict() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(2);
+        policy.onPut("key1");
+        policy.onPut("key2");
+        assertNull(policy.onPut("key1"));
+        assertEquals(2, policy.size());
+        assertEquals("key2", policy.onPut("key3"));
+    }
+
+    @Test
+    void testOnAccess() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(2);
+        policy.onPut("key1");
+        policy.onPut("key2");
+        policy.onAccess("key1");
+        assertEquals("key2", policy.onPut("key3"));
+    }
+
+    @Test
+    void testOnAccessUnknownKeyIsIgnored() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(2);
+        policy.onPut("key1");
+        policy.onAccess("key2");
+        assertEquals(1, policy.size());
+    }
+
+    @Test
+    void testOnPutAndOnAccess() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(3);
+        policy.onPut("key1");
+        policy.onPut("key2");
+        policy.onAccess("key1");
+        policy.onPut("key3");
+        policy.onAccess("key2");
+        assertEquals("key1", policy.onPut("key4"));
+    }
+
+    @Test
+    void testSameEvictionOrderAsAccessOrderedMap() {
+        // Arrange
+        LinkedHashMap<Integer, Boolean> reference = new LinkedHashMap<>(16, 0.75f, true);
+        LinkedLRUEvictionPolicy<Integer> policy = new LinkedLRUEvictionPolicy<>(50);
+        Set<Integer> resident = new HashSet<>();
+        Random random = new Random(42);
+
+        // Act & Assert
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextBoolean()) {
+                reference.put(key, Boolean.TRUE);
+                Integer evicted = null;
+                if (reference.size() > 50) {
+                    evicted = reference.keySet().iterator().next();
+                    reference.remove(evicted);
+                }
+                assertEquals(evicted, policy.onPut(key));
+                resident.add(key);
+                resident.remove(evicted);
+            } else if (resident.contains(key)) {
+                reference.get(key);
+                policy.onAccess(key);
+            }
+        }
+        assertEquals(reference.size(), policy.size());
+    }
+
+    @Test
+    void testEvict() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+
+        assertEquals("B", policy.evict());
+        assertEquals("C", policy.evict());
+        assertEquals("A", policy.evict());
+        assertNull(policy.evict());
+        assertEquals(0, policy.size());
+    }
+
+    @Test
+    void testOnRemove() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onRemove("A");
+        policy.onRemove("unknown");
+
+        assertEquals(1, policy.size());
+        assertNull(policy.onPut("C")); // Room was freed, nothing to evict
+        assertEquals(2, policy.size());
+    }
+
+    @Test
+    void testForEachInEvictionOrder() {
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+
+        List<String> order = new ArrayList<>();
+        policy.forEachInEvictionOrder((key, frequency) -> order.add(key));
+
+        assertEquals(List.of("B", "C", "A"), order);
+    }
+
+    @Test
+    void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new LinkedLRUEvictionPolicy<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new LinkedLRUEvictionPolicy<>(-1));
+    }
+}
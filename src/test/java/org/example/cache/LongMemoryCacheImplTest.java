@@ -0,0 +1,167 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongMemoryCacheImplTest {
+
+    @Test
+    void testPutGetRemove() {
+        // Arrange
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.LRU, 10, 1);
+
+        // Act
+        cache.put(1L, "one");
+        cache.put(-7L, "minus seven");
+        cache.put(1L, "uno");
+        cache.remove(-7L);
+
+        // Assert
+        assertEquals("uno", cache.get(1L));
+        assertNull(cache.get(-7L));
+        assertFalse(cache.containsKey(-7L));
+        assertEquals(1, cache.size());
+        assertThrows(NullPointerException.class, () -> cache.put(2L, null));
+    }
+
+    @Test
+    void testLRUEviction() {
+        // Arrange
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.LINKED_LRU, 3, 1);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.put(3L, "three");
+
+        // Act
+        cache.get(1L); // 2 becomes the least recently used
+        cache.put(4L, "four");
+
+        // Assert
+        assertFalse(cache.containsKey(2L));
+        assertTrue(cache.containsKey(1L));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testFIFOEviction() {
+        // Arrange
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.FIFO, 3, 1);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.put(3L, "three");
+
+        // Act
+        cache.get(1L); // Hits do not matter
+        cache.put(4L, "four");
+
+        // Assert
+        assertFalse(cache.containsKey(1L));
+        assertTrue(cache.containsKey(2L));
+    }
+
+    @Test
+    void testLFUEvictionBreaksTiesByRecency() {
+        // Arrange, mirroring BucketLFUEvictionPolicyTest
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.LFU, 3, 1);
+        cache.put(1L, "A");
+        cache.put(2L, "B");
+        cache.put(3L, "C");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        // Act & Assert
+        cache.put(4L, "D"); // Evicts C, the least frequently used
+        assertFalse(cache.containsKey(3L));
+        cache.get(4L); // B and D tie, B is less recent
+        cache.put(5L, "E");
+        assertFalse(cache.containsKey(2L));
+        assertTrue(cache.containsKey(1L));
+        assertTrue(cache.containsKey(4L));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = EvictionPolicy.class, names = {"LRU", "FIFO", "LFU"})
+    void testMatchesReferenceMapUnderRandomOperations(EvictionPolicy policy) {
+        // Arrange
+        LongMemoryCache<Long> cache = new LongMemoryCacheImpl<>(policy, 1000, 2);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act & Assert: present values are always the latest, and the size stays bounded
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(3000) - 1500L;
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    cache.put(key, key * i);
+                    reference.put(key, key * i);
+                }
+                case 1 -> {
+                    cache.remove(key);
+                    reference.remove(key);
+                }
+                default -> {
+                    Long value = cache.get(key);
+                    if (value != null) {
+                        assertEquals(reference.get(key), value);
+                    }
+                }
+            }
+            assertTrue(cache.size() <= 1000);
+        }
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(0L));
+    }
+
+    @Test
+    void testLoader() {
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.LRU, 10, 1);
+
+        assertEquals("42", cache.get(42L, Long::toString));
+        assertEquals("42", cache.get(42L, key -> fail("Should not load a cached key")));
+        assertNull(cache.get(7L, key -> null));
+        assertFalse(cache.containsKey(7L));
+    }
+
+    @Test
+    void testHitsDoNotAllocate() {
+        // Arrange
+        LongMemoryCache<String> cache = new LongMemoryCacheImpl<>(EvictionPolicy.LFU, 2048, 4); // Room for uneven segments
+        for (long key = 0; key < 1024; key++) {
+            cache.put(key, "value");
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int found = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (cache.get(i & 1023) != null) {
+                found++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertEquals(100_000, found);
+        assertTrue(allocated < 1024, "Hits allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LongMemoryCacheImpl<>(EvictionPolicy.LRU, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LongMemoryCacheImpl<>(EvictionPolicy.LRU, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new LongMemoryCacheImpl<>(EvictionPolicy.TINY_LFU, 10, 1));
+    }
+}
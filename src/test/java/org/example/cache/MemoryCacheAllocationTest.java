@@ -0,0 +1,64 @@
+package org.example.cache;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that cache hits allocate nothing, including the replay of buffered hits against the
+ * eviction policy. The JMH {@code HitPathBenchmark} measures the same with the GC profiler.
+ */
+class MemoryCacheAllocationTest {
+    private static final int KEYS = 1024;
+    private static final int LOOKUPS = 100_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @ParameterizedTest
+    @EnumSource(value = EvictionPolicy.class, names = {"LRU", "LFU", "FIFO"})
+    void testHitsDoNotAllocate(EvictionPolicy policy) {
+        // Arrange
+        MemoryCache<Integer, String> cache = new CacheProviderImpl().getCache(new CachePreference(policy, KEYS));
+        Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = 1000 + i; // Outside the Integer cache, so boxing would show up
+            cache.put(keys[i], "value");
+        }
+        Function<Integer, CompletableFuture<Optional<String>>> loader = key -> fail("Should not load a cached key");
+        for (Integer key : keys) {
+            cache.getAsync(key, loader); // Creates each entry's shared future
+        }
+        cache.cleanUp();
+
+        // Act & Assert
+        assertEquals(0, allocatedBy(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                assertNotNull(cache.getIfPresent(keys[i & (KEYS - 1)]));
+            }
+        }), 1024);
+        assertEquals(0, allocatedBy(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                assertNotNull(cache.getOrDefault(keys[i & (KEYS - 1)], null));
+            }
+        }), 1024);
+        assertEquals(0, allocatedBy(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                assertTrue(cache.getAsync(keys[i & (KEYS - 1)], loader).isDone());
+            }
+        }), 1024);
+    }
+
+    private long allocatedBy(Runnable lookups) {
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        lookups.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheBulkTest {
+
+    private LinkedLRUEvictionPolicy<String> evictionPolicy;
+    private MemoryCacheImpl<String, String> cache;
+    private List<Set<String>> loaderCalls;
+
+    @BeforeEach
+    void setUp() {
+        evictionPolicy = new LinkedLRUEvictionPolicy<>(100);
+        cache = new MemoryCacheImpl<>(evictionPolicy);
+        loaderCalls = new ArrayList<>();
+    }
+
+    @Test
+    void testGetAllLoadsMissingKeysInOneCall() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.put("key3", "value3");
+
+        // Act
+        Map<String, String> result = cache.getAll(List.of("key1", "key2", "key3", "key4", "key2"), this::load);
+
+        // Assert
+        assertEquals(List.of(Set.of("key2", "key4")), loaderCalls);
+        assertEquals(List.of("key1", "key2", "key3", "key4"), new ArrayList<>(result.keySet())); // Key order
+        assertEquals("loaded-key2", result.get("key2"));
+        assertEquals("value3", result.get("key3"));
+        assertEquals(Optional.of("loaded-key4"), cache.get("key4"));
+    }
+
+    @Test
+    void testGetAllWithoutMissesDoesNotCallLoader() {
+        cache.putAll(Map.of("key1", "value1", "key2", "value2"));
+
+        Map<String, String> result = cache.getAll(List.of("key1", "key2"), this::load);
+
+        assertEquals(Map.of("key1", "value1", "key2", "value2"), result);
+        assertTrue(loaderCalls.isEmpty());
+    }
+
+    @Test
+    void testGetAllOmitsKeysTheLoaderLeavesOut() {
+        // Act
+        Map<String, String> result = cache.getAll(List.of("key1", "missing"), keys -> Map.of("key1", "value1"));
+
+        // Assert
+        assertEquals(Map.of("key1", "value1"), result);
+        assertFalse(cache.containsKey("missing"));
+    }
+
+    @Test
+    void testGetAllCachesExtraLoadedEntries() {
+        // Act
+        cache.getAll(List.of("key1"), keys -> Map.of("key1", "value1", "key2", "value2"));
+
+        // Assert
+        assertEquals(Optional.of("value2"), cache.get("key2"));
+    }
+
+    @Test
+    void testFailedGetAllIsNotCached() {
+        // Act
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> cache.getAll(List.of("key1", "key2"), keys -> { throw new IllegalStateException("boom"); }));
+
+        // Assert
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(2, cache.getAll(List.of("key1", "key2"), this::load).size());
+        assertEquals(1, loaderCalls.size());
+    }
+
+    @Test
+    void testGetAllLoaderErrorFailsWaitingCallers() {
+        // Arrange
+        List<CompletableFuture<Optional<String>>> waiters = new ArrayList<>();
+
+        // Act
+        Error error = assertThrows(Error.class, () -> cache.getAll(List.of("key1", "key2"), keys -> {
+            waiters.add(cache.getAsync("key2", key -> fail("loaded twice")));
+            throw new Error("boom");
+        }));
+
+        // Assert
+        assertEquals("boom", error.getMessage());
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiters.get(0).get());
+        assertSame(error, waiterError.getCause());
+        assertEquals(2, cache.getAll(List.of("key1", "key2"), this::load).size());
+    }
+
+    @Test
+    void testGetAllAsyncLoaderErrorFailsWaitingCallers() {
+        // Act
+        assertThrows(Error.class, () -> cache.getAllAsync(List.of("key1"), keys -> { throw new Error("boom"); }));
+
+        // Assert
+        assertEquals(Optional.of("loaded-key1"), cache.get("key1", key -> Optional.of("loaded-" + key)));
+    }
+
+    @Test
+    void testGetAllAsync() throws ExecutionException, InterruptedException {
+        // Arrange
+        cache.put("key1", "value1");
+
+        // Act
+        Map<String, String> result = cache.getAllAsync(List.of("key1", "key2"),
+                keys -> CompletableFuture.completedFuture(load(keys))).get();
+
+        // Assert
+        assertEquals(Map.of("key1", "value1", "key2", "loaded-key2"), result);
+        assertEquals(List.of(Set.of("key2")), loaderCalls);
+        assertEquals(Optional.of("loaded-key2"), cache.get("key2"));
+    }
+
+    @Test
+    void testFailedGetAllAsyncIsNotCached() {
+        // Act
+        CompletableFuture<Map<String, String>> failed = cache.getAllAsync(List.of("key1"),
+                keys -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(Optional.of("loaded-key1"), cache.get("key1", key -> Optional.of("loaded-" + key)));
+    }
+
+    @Test
+    void testGetAllWaitsForSingleKeyLoadInFlight() {
+        // Arrange
+        CompletableFuture<Optional<String>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> single = cache.getAsync("key1", key -> pending);
+
+        // Act
+        CompletableFuture<Map<String, String>> bulk = cache.getAllAsync(List.of("key1", "key2"),
+                keys -> CompletableFuture.completedFuture(load(keys)));
+        pending.complete(Optional.of("single-key1"));
+
+        // Assert
+        assertEquals(List.of(Set.of("key2")), loaderCalls); // "key1" was not loaded twice
+        assertEquals(Map.of("key1", "single-key1", "key2", "loaded-key2"), bulk.join());
+        assertEquals(Optional.of("single-key1"), single.join());
+    }
+
+    @Test
+    void testSingleKeyLoadWaitsForGetAllInFlight() {
+        // Arrange
+        CompletableFuture<Map<String, String>> pending = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> bulk = cache.getAllAsync(List.of("key1", "key2"), keys -> pending);
+
+        // Act
+        CompletableFuture<Optional<String>> single = cache.getAsync("key2", key -> fail("loaded twice"));
+        pending.complete(Map.of("key1", "value1", "key2", "value2"));
+
+        // Assert
+        assertEquals(Optional.of("value2"), single.join());
+        assertEquals(2, bulk.join().size());
+    }
+
+    @Test
+    void testPutAllSchedulesMaintenanceOnce() {
+        // Arrange
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        MemoryCacheImpl<String, String> deferred = new MemoryCacheImpl<>(evictionPolicy, tasks::add);
+        Map<String, String> entries = IntStream.range(0, 50).boxed()
+                .collect(Collectors.toMap(i -> "key" + i, i -> "value" + i, (a, b) -> a, LinkedHashMap::new));
+
+        // Act
+        deferred.putAll(entries);
+
+        // Assert
+        assertEquals(1, tasks.size()); // One drain, so one lock acquisition for the whole batch
+        tasks.poll().run();
+        assertEquals(50, evictionPolicy.size());
+        entries.forEach((key, value) -> assertEquals(Optional.of(value), deferred.get(key)));
+    }
+
+    @Test
+    void testPutAllRejectsNulls() {
+        Map<String, String> withNullValue = new LinkedHashMap<>();
+        withNullValue.put("key1", null);
+
+        assertThrows(NullPointerException.class, () -> cache.putAll(null));
+        assertThrows(NullPointerException.class, () -> cache.putAll(withNullValue));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        // Arrange
+        cache.putAll(Map.of("key1", "value1", "key2", "value2", "key3", "value3"));
+
+        // Act
+        cache.invalidateAll(List.of("key1", "key3", "unknown"));
+
+        // Assert
+        assertFalse(cache.containsKey("key1"));
+        assertTrue(cache.containsKey("key2"));
+        assertFalse(cache.containsKey("key3"));
+    }
+
+    private Map<String, String> load(Set<String> keys) {
+        loaderCalls.add(Set.copyOf(keys));
+        return keys.stream().collect(Collectors.toMap(key -> key, key -> "loaded-" + key));
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheExpiryTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private CachePreference preference;
+    private LinkedLRUEvictionPolicy<String> evictionPolicy;
+
+    @BeforeEach
+    void setUp() {
+        preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        evictionPolicy = new LinkedLRUEvictionPolicy<>(10);
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("key1", "value1");
+
+        // Act & Assert
+        advance(Duration.ofSeconds(59));
+        assertEquals(Optional.of("value1"), cache.get("key1")); // Reads do not extend the deadline
+        advance(Duration.ofSeconds(1));
+        assertFalse(cache.get("key1").isPresent());
+        assertFalse(cache.containsKey("key1"));
+    }
+
+    @Test
+    void testExpireAfterAccess() {
+        // Arrange
+        preference.setExpireAfterAccess(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("key1", "value1");
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            advance(Duration.ofSeconds(50));
+            assertEquals(Optional.of("value1"), cache.get("key1"));
+        }
+        advance(Duration.ofSeconds(61));
+        assertFalse(cache.get("key1").isPresent());
+    }
+
+    @Test
+    void testExpireAfterWriteCapsExpireAfterAccess() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofMinutes(2));
+        preference.setExpireAfterAccess(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("key1", "value1");
+
+        // Act & Assert
+        advance(Duration.ofSeconds(50));
+        assertTrue(cache.get("key1").isPresent());
+        advance(Duration.ofSeconds(50));
+        assertTrue(cache.get("key1").isPresent());
+        advance(Duration.ofSeconds(20)); // Read 20s ago, but written two minutes ago
+        assertFalse(cache.get("key1").isPresent());
+    }
+
+    @Test
+    void testPerEntryTimeToLive() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofHours(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("short", "value", Duration.ofSeconds(10));
+        cache.put("default", "value");
+
+        // Act
+        advance(Duration.ofSeconds(10));
+
+        // Assert
+        assertFalse(cache.containsKey("short"));
+        assertTrue(cache.containsKey("default"));
+    }
+
+    @Test
+    void testPerEntryTimeToLiveWithoutDefaults() {
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("key1", "value1", Duration.ofSeconds(10));
+        cache.put("key2", "value2");
+
+        advance(Duration.ofDays(365));
+
+        assertFalse(cache.containsKey("key1"));
+        assertTrue(cache.containsKey("key2"));
+    }
+
+    @Test
+    void testExpiredEntriesAreReclaimedFromPolicy() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+
+        // Act
+        advance(Duration.ofMinutes(2));
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(0, evictionPolicy.size());
+        cache.put("fresh", "value");
+        assertEquals(1, evictionPolicy.size());
+    }
+
+    @Test
+    void testExpiredEntriesFreeCapacityForLiveOnes() {
+        // Arrange
+        LinkedLRUEvictionPolicy<String> small = new LinkedLRUEvictionPolicy<>(2);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(small, preference);
+        cache.put("stale", "value", Duration.ofSeconds(1));
+        cache.put("live", "value");
+
+        // Act
+        advance(Duration.ofSeconds(5));
+        cache.put("new", "value");
+
+        // Assert
+        assertTrue(cache.containsKey("live")); // Not evicted: the expired entry made room
+        assertTrue(cache.containsKey("new"));
+        assertEquals(2, small.size());
+    }
+
+    @Test
+    void testOverwrittenEntriesLeaveTheTimerWheel() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofHours(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+
+        // Act
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("key" + i, "value" + round);
+            }
+            cache.cleanUp();
+        }
+
+        // Assert
+        assertEquals(10, cache.scheduledSize()); // Only the live nodes wait for their deadline
+        assertEquals(Optional.of("value99"), cache.get("key0"));
+    }
+
+    @Test
+    void testLoaderReplacesExpiredEntry() {
+        preference.setExpireAfterWrite(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        cache.put("key1", "old");
+
+        advance(Duration.ofMinutes(1));
+
+        assertEquals(Optional.of("new"), cache.get("key1", key -> Optional.of("new")));
+        assertEquals(Optional.of("new"), cache.get("key1"));
+    }
+
+    @Test
+    void testInvalidDurations() {
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(evictionPolicy, preference);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("key", "value", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("key", "value", Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> cache.put("key", "value", null));
+        assertThrows(IllegalArgumentException.class, () -> preference.setExpireAfterWrite(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> preference.setExpireAfterAccess(Duration.ofMillis(-1)));
+    }
+
+    private void advance(Duration duration) {
+        ticker.addAndGet(duration.toNanos());
+    }
+}
@@ -3,6 +3,7 @@ package org.example.cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -35,6 +36,7 @@ class MemoryCacheImplTest {
 
         // Act
         Optional<String> result = cache.get("key1");
+        cache.cleanUp(); // Replay the buffered read against the policy
 
         // Assert
         assertTrue(result.isPresent());
@@ -59,6 +61,7 @@ class MemoryCacheImplTest {
 
         // Act
         Optional<String> result = cache.get("key1", key -> Optional.of("loadedValue"));
+        cache.cleanUp();
 
         // Assert
         assertTrue(result.isPresent());
@@ -95,6 +98,7 @@ class MemoryCacheImplTest {
         // Act
         CompletableFuture<Optional<String>> future = cache.getAsync("key1", key -> CompletableFuture.completedFuture(Optional.of("loadedValue")));
         Optional<String> result = future.get();
+        cache.cleanUp();
 
         // Assert
         assertTrue(result.isPresent());
@@ -125,6 +129,138 @@ class MemoryCacheImplTest {
         verifyNoInteractions(evictionPolicy);
     }
 
+    @Test
+    void testFailedLoadIsNotCached() {
+        // Act
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> cache.get("key1", key -> { throw new IllegalStateException("boom"); }));
+
+        // Assert
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(Optional.of("loadedValue"), cache.get("key1", key -> Optional.of("loadedValue")));
+    }
+
+    @Test
+    void testLoaderErrorFailsWaitingCallers() throws Exception {
+        // Arrange
+        CompletableFuture<Throwable> waiterError = new CompletableFuture<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                cache.get("key1", key -> fail("loader called twice"));
+                waiterError.complete(null);
+            } catch (Throwable e) {
+                waiterError.complete(e);
+            }
+        });
+
+        // Act
+        Error error = assertThrows(Error.class, () -> cache.get("key1", key -> {
+            waiter.start();
+            while (waiter.getState() != Thread.State.WAITING) { // Parked on the in-flight load
+                Thread.onSpinWait();
+            }
+            throw new Error("boom");
+        }));
+
+        // Assert
+        assertEquals("boom", error.getMessage());
+        assertSame(error, waiterError.get(5, TimeUnit.SECONDS).getCause());
+        assertEquals(Optional.of("loadedValue"), cache.get("key1", key -> Optional.of("loadedValue")));
+    }
+
+    @Test
+    void testAsyncLoaderErrorIsRethrownAndFailsTheLoad() {
+        // Act
+        assertThrows(Error.class, () -> cache.getAsync("key1", key -> { throw new Error("boom"); }));
+
+        // Assert
+        assertEquals(Optional.of("loadedValue"), cache.getAsync("key1",
+                key -> CompletableFuture.completedFuture(Optional.of("loadedValue"))).join());
+    }
+
+    @Test
+    void testFailedAsyncLoadIsNotCached() {
+        // Act
+        CompletableFuture<Optional<String>> failed = cache.getAsync("key1",
+                key -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(Optional.of("loadedValue"), cache.getAsync("key1",
+                key -> CompletableFuture.completedFuture(Optional.of("loadedValue"))).join());
+    }
+
+    @Test
+    void testAsyncLoaderThrowingIsReportedThroughFuture() {
+        // Act
+        CompletableFuture<Optional<String>> failed = cache.getAsync("key1", key -> { throw new IllegalStateException("boom"); });
+
+        // Assert
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(Optional.of("loadedValue"), cache.get("key1", key -> Optional.of("loadedValue")));
+    }
+
+    @Test
+    void testCompletingReturnedFutureDoesNotAffectOtherCallers() {
+        // Arrange
+        CompletableFuture<Optional<String>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> first = cache.getAsync("key1", key -> pending);
+        CompletableFuture<Optional<String>> second = cache.getAsync("key1", key -> fail("loader called twice"));
+
+        // Act
+        second.cancel(true);
+        pending.complete(Optional.of("loadedValue"));
+
+        // Assert
+        assertEquals(Optional.of("loadedValue"), first.join());
+        assertEquals(Optional.of("loadedValue"), cache.get("key1"));
+    }
+
+    @Test
+    void testReadsAreBufferedUntilDrained() {
+        // Arrange
+        cache.put("key1", "value1");
+
+        // Act
+        cache.get("key1");
+        cache.get("key1");
+
+        // Assert
+        verify(evictionPolicy, never()).onAccess("key1");
+        cache.cleanUp();
+        verify(evictionPolicy, times(2)).onAccess("key1");
+    }
+
+    @Test
+    void testBufferedReadOfRemovedKeyIsDiscarded() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.get("key1");
+
+        // Act
+        cache.remove("key1");
+        cache.cleanUp();
+
+        // Assert
+        verify(evictionPolicy, never()).onAccess("key1");
+    }
+
+    @Test
+    void testPutDrainsBufferedReadsFirst() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.get("key1");
+
+        // Act
+        cache.put("key2", "value2");
+
+        // Assert
+        InOrder inOrder = inOrder(evictionPolicy);
+        inOrder.verify(evictionPolicy).onAccess("key1");
+        inOrder.verify(evictionPolicy).onPut("key2");
+    }
+
     @Test
     void testPutValue() {
         // Act
@@ -183,6 +319,46 @@ class MemoryCacheImplTest {
         assertFalse(cache.get("key2").isPresent());
     }
 
+    @Test
+    void testRemoveAndClearReachThePolicy() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.cleanUp();
+
+        // Act
+        cache.remove("key1");
+        cache.remove("missing");
+        cache.clear();
+
+        // Assert
+        InOrder inOrder = inOrder(evictionPolicy);
+        inOrder.verify(evictionPolicy).onRemove("key1");
+        inOrder.verify(evictionPolicy).onClear();
+        verify(evictionPolicy, never()).onRemove("missing");
+        verify(evictionPolicy, never()).onRemove("key2");
+    }
+
+    @Test
+    void testRemovedKeysDoNotCauseEvictions() {
+        // Arrange
+        MemoryCacheImpl<String, String> lfuCache = new MemoryCacheImpl<>(new LFUEvictionPolicy<>(2));
+        lfuCache.put("hot", "value");
+        for (int i = 0; i < 5; i++) {
+            lfuCache.get("hot");
+        }
+        lfuCache.remove("hot");
+
+        // Act
+        lfuCache.put("key1", "value1");
+        lfuCache.put("key2", "value2");
+        lfuCache.cleanUp();
+
+        // Assert
+        assertTrue(lfuCache.containsKey("key1")); // The removed key no longer outranks it
+        assertTrue(lfuCache.containsKey("key2"));
+    }
+
     @Test
     void testContainsKey() {
         // Arrange
@@ -243,4 +419,37 @@ class MemoryCacheImplTest {
         assertTrue(value.isPresent()); // Ensure the value exists.
         assertEquals("loadedValuekey", value.get()); // Confirm the cached value matches the loader output.
     }
+
+    @Test
+    void testGetIfPresentAndGetOrDefault() {
+        // Arrange
+        cache.put("key1", "value1");
+
+        // Act & Assert
+        assertEquals("value1", cache.getIfPresent("key1"));
+        assertNull(cache.getIfPresent("key2"));
+        assertEquals("value1", cache.getOrDefault("key1", "fallback"));
+        assertEquals("fallback", cache.getOrDefault("key2", "fallback"));
+        assertThrows(NullPointerException.class, () -> cache.getIfPresent(null));
+    }
+
+    @Test
+    void testAsyncHitsShareOneCompletedFuture() {
+        // Arrange
+        cache.put("key1", "value1");
+        Function<String, CompletableFuture<Optional<String>>> loader = key -> fail("Should not load a cached key");
+
+        // Act
+        CompletableFuture<Optional<String>> first = cache.getAsync("key1", loader);
+        CompletableFuture<Optional<String>> second = cache.getAsync("key1", loader);
+        first.complete(Optional.of("other"));
+        first.cancel(true);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(Optional.of("value1"), second.join());
+        assertThrows(UnsupportedOperationException.class, () -> first.obtrudeValue(Optional.empty()));
+        cache.put("key1", "value2");
+        assertEquals(Optional.of("value2"), cache.getAsync("key1", loader).join()); // A new node, a new future
+    }
 }
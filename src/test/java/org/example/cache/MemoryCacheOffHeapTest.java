@@ -0,0 +1,177 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheOffHeapTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private CachePreference preference;
+
+    @BeforeEach
+    void setUp() {
+        preference = new CachePreference(EvictionPolicy.LINKED_LRU, 0);
+        preference.setTicker(ticker::get);
+        preference.setValueCodec(ValueCodec.utf8());
+        preference.setOffHeapCapacity(OffHeapStore.BLOCK_SIZE * 4L);
+    }
+
+    @Test
+    void testValuesRoundTrip() {
+        // Arrange
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+        String large = "x".repeat(150);
+
+        // Act
+        cache.put("small", "value");
+        cache.put("large", large);
+
+        // Assert
+        assertEquals(Optional.of("value"), cache.get("small"));
+        assertEquals(Optional.of(large), cache.get("large"));
+        assertEquals(4L * OffHeapStore.BLOCK_SIZE, cache.stats().weightedSize());
+    }
+
+    @Test
+    void testPolicyDecidesWhatToFree() {
+        // Arrange
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+        cache.put("key4", "value4");
+        cache.get("key1"); // key2 becomes the least recently used
+        cache.cleanUp();
+
+        // Act
+        cache.put("key5", "value5");
+        cache.cleanUp();
+
+        // Assert
+        assertFalse(cache.containsKey("key2"));
+        assertTrue(cache.containsKey("key1"));
+        assertTrue(cache.containsKey("key5"));
+    }
+
+    @Test
+    void testLargeValueEvictsSeveralEntries() {
+        // Arrange
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+        cache.put("key4", "value4");
+        cache.cleanUp();
+
+        // Act
+        cache.put("large", "x".repeat(150)); // Three blocks
+
+        // Assert
+        cache.cleanUp();
+        assertEquals(Optional.of("x".repeat(150)), cache.get("large"));
+        assertTrue(cache.containsKey("key4"));
+        assertEquals(2, cache.stats().estimatedSize());
+    }
+
+    @Test
+    void testReplacedAndRemovedValuesAreFreed() {
+        // Arrange
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.put("key", "value" + i); // Replaced before maintenance sees most of them
+            cache.put("other", "other" + i);
+            cache.remove("other");
+        }
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(Optional.of("value99"), cache.get("key"));
+        assertEquals(OffHeapStore.BLOCK_SIZE, cache.stats().weightedSize());
+        cache.putAll(Map.of("a", "1", "b", "2", "c", "3")); // Fits without evicting "key"
+        cache.cleanUp();
+        assertTrue(cache.containsKey("key"));
+    }
+
+    @Test
+    void testExpiredValuesAreFreed() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofMinutes(1));
+        preference.setRecordStats(true);
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+        cache.put("key1", "value1");
+
+        // Act
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(0, cache.stats().weightedSize());
+        assertEquals(1, cache.stats().evictionCount(RemovalCause.EXPIRED));
+    }
+
+    @Test
+    void testValueLargerThanCapacity() {
+        MemoryCache<String, String> cache = new CacheProviderImpl().getCache(preference);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("key", "x".repeat(1000)));
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        preference.setWeigher((Object key, Object value) -> 1);
+        preference.setMaximumWeight(10);
+        assertThrows(IllegalArgumentException.class, () -> new CacheProviderImpl().getCache(preference));
+        assertThrows(IllegalArgumentException.class, () -> new CachePreference().setOffHeapCapacity(0));
+    }
+
+    @Test
+    void testConcurrentReadsDuringEvictionNeverSeeForeignValues() throws Exception {
+        // Arrange
+        preference.setOffHeapCapacity(OffHeapStore.BLOCK_SIZE * 64L);
+        preference.setSegments(2);
+        MemoryCache<Integer, String> cache = new CacheProviderImpl().getCache(preference);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        Future<?>[] futures = new Future<?>[4];
+        for (int t = 0; t < futures.length; t++) {
+            int seed = t;
+            futures[t] = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    int key = (i * 31 + seed) % 500;
+                    if (i % 2 == 0) {
+                        cache.put(key, ("value" + key).repeat(1 + key % 5));
+                    } else {
+                        cache.get(key).ifPresent(value ->
+                                assertEquals(("value" + key).repeat(1 + key % 5), value));
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        cache.cleanUp();
+        assertTrue(cache.stats().weightedSize() <= OffHeapStore.BLOCK_SIZE * 64L);
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheReferenceTest {
+    private final List<String> notifications = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testCollectedValuesAreRemovedDuringMaintenance() {
+        // Arrange
+        LinkedLRUEvictionPolicy<Integer> policy = new LinkedLRUEvictionPolicy<>(1_000);
+        MemoryCacheImpl<Integer, byte[]> cache = new MemoryCacheImpl<>(policy, preference(ReferenceStrength.WEAK));
+        List<byte[]> retained = new ArrayList<>();
+        for (int key = 0; key < 100; key++) {
+            byte[] value = new byte[1024];
+            cache.put(key, value);
+            if (key % 2 == 0) {
+                retained.add(value);
+            }
+        }
+
+        // Act
+        collectGarbageUntil(() -> {
+            cache.cleanUp();
+            return cache.stats().evictionCount(RemovalCause.COLLECTED) == 50;
+        });
+
+        // Assert
+        for (int key = 0; key < 100; key++) {
+            assertEquals(key % 2 == 0, cache.containsKey(key), "key " + key);
+        }
+        assertEquals(50, policy.size());
+        assertEquals(50, notifications.size());
+        assertTrue(notifications.stream().allMatch(notification -> notification.endsWith("=null COLLECTED")));
+        assertEquals(50, retained.size());
+    }
+
+    @Test
+    void testCollectedEntryIsAMissAndReportedWhenReplaced() {
+        // Arrange
+        MemoryCacheImpl<String, Object> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10),
+                preference(ReferenceStrength.WEAK));
+        cache.put("key", new Object());
+
+        // Act
+        collectGarbageUntil(() -> !cache.containsKey("key"));
+        Object value = cache.getIfPresent("key");
+        cache.put("key", "new");
+
+        // Assert
+        assertNull(value);
+        assertEquals(List.of("key=null COLLECTED"), notifications);
+        assertEquals("new", cache.getIfPresent("key"));
+    }
+
+    @Test
+    void testSoftValuesAreReadButAsyncHitsDoNotPinThem() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10),
+                preference(ReferenceStrength.SOFT));
+        cache.put("key", "value");
+
+        // Act
+        var first = cache.getAsync("key", key -> null);
+        var second = cache.getAsync("key", key -> null);
+
+        // Assert
+        assertEquals("value", cache.getIfPresent("key"));
+        assertEquals("value", first.join().orElseThrow());
+        assertNotSame(first, second); // A future kept on the node would hold the value strongly
+    }
+
+    @Test
+    void testHeapPressureEvictsToTargetThroughThePolicy() {
+        // Arrange
+        CachePreference preference = new CachePreference();
+        preference.setHeapPressureThreshold(0.95);
+        preference.setHeapPressureTarget(0.25);
+        preference.setRecordStats(true);
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(1_000), preference);
+        for (int key = 0; key < 100; key++) {
+            cache.put(key, "value");
+        }
+        cache.get(0); // The most recently used key survives
+
+        // Act
+        cache.onHeapPressure();
+
+        // Assert
+        assertEquals(25, cache.stats().estimatedSize());
+        assertEquals(75, cache.stats().evictionCount(RemovalCause.SIZE));
+        assertTrue(cache.containsKey(0));
+        for (int key = 77; key < 100; key++) {
+            assertTrue(cache.containsKey(key), "key " + key);
+        }
+        cache.close();
+    }
+
+    @Test
+    void testHeapPressureTargetIgnoresOverwrittenValues() {
+        // Arrange
+        CachePreference preference = new CachePreference();
+        preference.setHeapPressureThreshold(0.95);
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(1_000), preference);
+        for (int round = 0; round < 100; round++) {
+            for (int key = 0; key < 10; key++) {
+                cache.put(key, "value" + round);
+            }
+        }
+
+        // Act
+        cache.evictUnderHeapPressure();
+
+        // Assert
+        assertEquals(5, cache.weightedSize());
+        assertEquals(5, cache.stats().estimatedSize());
+        cache.close();
+    }
+
+    @Test
+    void testHeapPressureTargetsWeight() {
+        // Arrange
+        CachePreference preference = new CachePreference();
+        preference.setHeapPressureThreshold(0.95);
+        preference.setHeapPressureTarget(0.5);
+        preference.setWeigher((Integer key, String value) -> value.length());
+        preference.setMaximumWeight(1_000);
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE),
+                preference);
+        cache.put(1, "x".repeat(300));
+        cache.put(2, "x".repeat(100));
+        cache.put(3, "x".repeat(100));
+
+        // Act
+        cache.onHeapPressure();
+
+        // Assert
+        assertEquals(200, cache.weightedSize());
+        assertFalse(cache.containsKey(1));
+        cache.close();
+    }
+
+    @Test
+    void testInvalidSettings() {
+        CachePreference preference = new CachePreference(EvictionPolicy.LRU, 10);
+        preference.setValueStrength(ReferenceStrength.SOFT);
+        preference.setOffHeapCapacity(64 * 1024);
+        preference.setValueCodec(ValueCodec.utf8());
+
+        assertThrows(IllegalArgumentException.class, () -> new CacheProviderImpl().getCache(preference));
+        assertThrows(IllegalArgumentException.class, () -> new CacheProviderImpl().getLongCache(preference));
+        assertThrows(IllegalArgumentException.class, () -> preference.setHeapPressureThreshold(0));
+        assertThrows(IllegalArgumentException.class, () -> preference.setHeapPressureThreshold(1.5));
+        assertThrows(IllegalArgumentException.class, () -> preference.setHeapPressureTarget(1));
+        assertThrows(NullPointerException.class, () -> preference.setValueStrength(null));
+    }
+
+    private CachePreference preference(ReferenceStrength valueStrength) {
+        CachePreference preference = new CachePreference();
+        preference.setValueStrength(valueStrength);
+        preference.setRecordStats(true);
+        preference.setRemovalExecutor(Runnable::run);
+        preference.setRemovalListener((Object key, Object value, RemovalCause cause) ->
+                notifications.add(key + "=" + value + " " + cause));
+        return preference;
+    }
+
+    private static void collectGarbageUntil(BooleanSupplier condition) {
+        for (int attempt = 0; attempt < 50 && !condition.getAsBoolean(); attempt++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertTrue(condition.getAsBoolean(), "The garbage collector did not reclaim the values");
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheRefreshTest {
+    private final AtomicLong ticker = new AtomicLong();
+    /** Refreshes wait here until the test runs them. */
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private MemoryCacheImpl<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        CachePreference preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        preference.setRefreshAfterWrite(Duration.ofMinutes(1));
+        preference.setRefreshExecutor(refreshes::add);
+        preference.setRecordStats(true);
+        cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+    }
+
+    @Test
+    void testStaleHitReturnsValueAndReloadsInBackground() {
+        // Arrange
+        cache.put("key", "value1");
+        cache.get("key", countingLoader("value2"));
+        assertTrue(refreshes.isEmpty()); // Not due yet
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Act
+        Optional<String> stale = cache.get("key", countingLoader("value2"));
+        runRefreshes();
+
+        // Assert
+        assertEquals(Optional.of("value1"), stale);
+        assertEquals(1, loads.get());
+        assertEquals(Optional.of("value2"), cache.get("key"));
+        assertEquals(1, cache.stats().loadSuccessCount());
+    }
+
+    @Test
+    void testConcurrentStaleHitsShareOneRefresh() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            cache.get("key", countingLoader("value2"));
+        }
+        runRefreshes();
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(Optional.of("value2"), cache.get("key"));
+    }
+
+    @Test
+    void testFailedRefreshKeepsValueAndRetries() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        Function<String, Optional<String>> failing = key -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("Backend unavailable");
+        };
+
+        // Act
+        cache.get("key", failing);
+        runRefreshes();
+        cache.get("key", countingLoader("value2"));
+        runRefreshes();
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(Optional.of("value2"), cache.get("key"));
+        assertEquals(1, cache.stats().loadFailureCount());
+    }
+
+    @Test
+    void testEmptyRefreshRemovesEntry() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Act
+        cache.get("key", key -> Optional.empty());
+        runRefreshes();
+
+        // Assert
+        assertFalse(cache.containsKey("key"));
+    }
+
+    @Test
+    void testWriteDuringRefreshWins() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.get("key", countingLoader("reloaded"));
+
+        // Act
+        cache.put("key", "written");
+        runRefreshes();
+
+        // Assert
+        assertEquals(Optional.of("written"), cache.get("key"));
+    }
+
+    @Test
+    void testRefreshedValueIsDueAgainLater() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.get("key", countingLoader("value2"));
+        runRefreshes();
+
+        // Act
+        cache.get("key", countingLoader("value3"));
+        boolean refreshedTooSoon = !refreshes.isEmpty();
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.get("key", countingLoader("value3"));
+        runRefreshes();
+
+        // Assert
+        assertFalse(refreshedTooSoon);
+        assertEquals(Optional.of("value3"), cache.get("key"));
+    }
+
+    @Test
+    void testRefreshKeepsTimeToLiveOfTheWrite() {
+        // Arrange
+        cache.put("key", "value1", Duration.ofMinutes(5));
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // Act
+        cache.get("key", countingLoader("value2"));
+        runRefreshes();
+
+        // Assert
+        assertEquals(Optional.of("value2"), cache.get("key"));
+        ticker.addAndGet(Duration.ofMinutes(3).minusNanos(1).toNanos());
+        assertEquals(Optional.of("value2"), cache.get("key"));
+        ticker.addAndGet(1);
+        assertEquals(Optional.empty(), cache.get("key"));
+    }
+
+    @Test
+    void testAsyncHitRefreshes() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Act
+        CompletableFuture<Optional<String>> stale = cache.getAsync("key",
+                key -> CompletableFuture.completedFuture(Optional.of("value2")));
+        runRefreshes();
+
+        // Assert
+        assertEquals(Optional.of("value1"), stale.join());
+        assertEquals(Optional.of("value2"), cache.get("key"));
+    }
+
+    @Test
+    void testReadsWithoutLoaderDoNotRefresh() {
+        // Arrange
+        cache.put("key", "value1");
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Act
+        cache.get("key");
+        cache.getIfPresent("key");
+
+        // Assert
+        assertTrue(refreshes.isEmpty());
+    }
+
+    private Function<String, Optional<String>> countingLoader(String value) {
+        return key -> {
+            loads.incrementAndGet();
+            return Optional.of(value);
+        };
+    }
+
+    private void runRefreshes() {
+        Runnable refresh;
+        while ((refresh = refreshes.poll()) != null) {
+            refresh.run();
+        }
+    }
+}
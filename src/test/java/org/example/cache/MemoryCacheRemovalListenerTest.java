@@ -0,0 +1,246 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheRemovalListenerTest {
+    /** Deliveries wait here until the test runs them. */
+    private final Queue<Runnable> deliveries = new ArrayDeque<>();
+    private final List<String> notifications = new CopyOnWriteArrayList<>();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void testReportsEachCause() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        CachePreference preference = preference();
+        preference.setTicker(ticker::get);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(2), preference);
+
+        // Act
+        cache.put("key1", "value1");
+        cache.put("key1", "value2");
+        cache.remove("key1");
+        cache.put("key2", "value");
+        cache.put("key3", "value");
+        cache.put("key4", "value"); // Evicts key2
+        cache.put("key5", "value", Duration.ofSeconds(1)); // Evicts key3
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.cleanUp();
+        runDeliveries();
+
+        // Assert
+        assertEquals(List.of("key1=value1 REPLACED", "key1=value2 EXPLICIT", "key2=value SIZE",
+                "key3=value SIZE", "key5=value EXPIRED"), notifications);
+    }
+
+    @Test
+    void testReplacingExpiredEntryReportsExpiration() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        CachePreference preference = preference();
+        preference.setTicker(ticker::get);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        cache.put("key1", "value1", Duration.ofSeconds(1));
+        cache.put("key2", "value2", Duration.ofSeconds(1));
+        ticker.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        // Act
+        cache.put("key1", "new");
+        cache.remove("key2");
+        runDeliveries();
+
+        // Assert
+        assertEquals(List.of("key1=value1 EXPIRED", "key2=value2 EXPIRED"), notifications);
+    }
+
+    @Test
+    void testDeliversOffCallerThreadInOneTask() {
+        // Arrange
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference());
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.put(i % 5, "value" + i);
+        }
+
+        // Assert
+        assertTrue(notifications.isEmpty());
+        assertEquals(1, deliveries.size());
+        runDeliveries();
+        assertEquals(95, notifications.size());
+    }
+
+    @Test
+    void testFullQueueMakesCallerDeliver() {
+        // Arrange
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference());
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(0, "value" + i);
+        }
+
+        // Assert
+        assertTrue(notifications.size() > 5_000, "The caller delivered batches once the queue was full");
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        runDeliveries();
+        assertEquals(9_999, notifications.size());
+        assertEquals("0=value0 REPLACED", notifications.get(0));
+        assertEquals("0=value9998 REPLACED", notifications.get(9_998));
+    }
+
+    @Test
+    void testListenerCallingBackIntoCacheDoesNotDeadlockWithFullQueue() throws Exception {
+        // Arrange
+        CountDownLatch listening = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        AtomicReference<MemoryCacheImpl<Integer, String>> cacheReference = new AtomicReference<>();
+        ExecutorService removalExecutor = Executors.newSingleThreadExecutor();
+        CachePreference preference = new CachePreference();
+        preference.setRemovalExecutor(removalExecutor);
+        preference.setRemovalListener((Integer key, String value, RemovalCause cause) -> {
+            if (listening.getCount() > 0) {
+                listening.countDown();
+                awaitUninterruptibly(resume);
+                cacheReference.get().cleanUp(); // Needs the eviction lock
+            }
+        });
+        MemoryCacheImpl<Integer, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        cacheReference.set(cache);
+        cache.put(-1, "value");
+        cache.remove(-1);
+        listening.await(); // The delivery thread is now busy in the listener
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                cache.put(i, "value"); // Evictions overflow the notification queue
+            }
+        });
+        writer.setDaemon(true);
+
+        // Act
+        writer.start();
+        while (writer.getState() != Thread.State.WAITING && writer.isAlive()) { // Delivering a batch itself
+            Thread.onSpinWait();
+        }
+        resume.countDown();
+        writer.join(10_000);
+
+        // Assert
+        assertFalse(writer.isAlive(), "The writer and the listener deadlocked");
+        assertEquals(10, cache.stats().estimatedSize());
+        removalExecutor.shutdown();
+    }
+
+    @Test
+    void testFailingListenerDoesNotStopDelivery() {
+        // Arrange
+        CachePreference preference = new CachePreference();
+        preference.setRemovalExecutor(deliveries::add);
+        preference.setRemovalListener((String key, String value, RemovalCause cause) -> {
+            if (key.equals("key1")) {
+                throw new IllegalStateException("Listener failure");
+            }
+            notifications.add(key);
+        });
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        cache.put("key1", "value");
+        cache.put("key2", "value");
+
+        // Act
+        cache.remove("key1");
+        cache.remove("key2");
+        Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> notifications.add(e.getMessage()));
+        try {
+            runDeliveries();
+        } finally {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+
+        // Assert
+        assertEquals(List.of("Listener failure", "key2"), notifications);
+    }
+
+    @Test
+    void testClearReportsEveryEntry() {
+        // Arrange
+        MemoryCache<Integer, String> cache = new CacheProviderImpl().getCache(segmentedPreference());
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "value");
+        }
+
+        // Act
+        cache.clear();
+        runDeliveries();
+
+        // Assert
+        assertEquals(50, notifications.size());
+        assertTrue(notifications.stream().allMatch(notification -> notification.endsWith("EXPLICIT")));
+    }
+
+    @Test
+    void testOffHeapValuesAreDecoded() {
+        // Arrange
+        CachePreference preference = preference();
+        preference.setOffHeapCapacity(64 * 1024);
+        preference.setValueCodec(ValueCodec.utf8());
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+
+        // Act
+        cache.put("key1", "value1");
+        cache.put("key1", "value2");
+        cache.remove("key1");
+        runDeliveries();
+
+        // Assert
+        assertEquals(List.of("key1=value1 REPLACED", "key1=value2 EXPLICIT"), notifications);
+    }
+
+    private CachePreference preference() {
+        CachePreference preference = new CachePreference();
+        preference.setRemovalExecutor(deliveries::add);
+        preference.setRemovalListener((Object key, Object value, RemovalCause cause) -> {
+            threads.add(Thread.currentThread().getName());
+            notifications.add(key + "=" + value + " " + cause);
+        });
+        return preference;
+    }
+
+    private CachePreference segmentedPreference() {
+        CachePreference preference = preference();
+        preference.setEvictionPolicy(EvictionPolicy.LRU);
+        preference.setCapacity(100);
+        preference.setSegments(4);
+        return preference;
+    }
+
+    private void runDeliveries() {
+        Runnable delivery;
+        while ((delivery = deliveries.poll()) != null) {
+            delivery.run();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
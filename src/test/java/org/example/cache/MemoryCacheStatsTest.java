@@ -0,0 +1,199 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheStatsTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private CachePreference preference;
+
+    @BeforeEach
+    void setUp() {
+        preference = new CachePreference();
+        preference.setTicker(ticker::get);
+        preference.setRecordStats(true);
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        cache.put("key1", "value1");
+
+        // Act
+        cache.get("key1");
+        cache.get("key1");
+        cache.get("key2");
+        cache.getAsync("key1", key -> CompletableFuture.completedFuture(Optional.empty()));
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(3, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.75, stats.hitRate());
+        assertEquals(0.25, stats.missRate());
+        assertEquals(1, stats.estimatedSize());
+        assertEquals(1, stats.weightedSize());
+    }
+
+    @Test
+    void testLoadsAreTimedWithTheTicker() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+
+        // Act
+        cache.get("key1", key -> {
+            ticker.addAndGet(100);
+            return Optional.of("value1");
+        });
+        cache.get("key2", key -> {
+            ticker.addAndGet(300);
+            return Optional.empty();
+        });
+        assertThrows(RuntimeException.class, () -> cache.get("key3", key -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(2, stats.loadFailureCount()); // An empty load is a failure as well
+        assertEquals(400, stats.totalLoadTime());
+        assertEquals(400.0 / 3, stats.averageLoadPenalty());
+        assertNull(stats.loadLatency());
+    }
+
+    @Test
+    void testAsyncLoadIsRecordedWhenItCompletes() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+        CompletableFuture<Optional<String>> pending = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<Optional<String>> result = cache.getAsync("key1", key -> pending);
+        assertEquals(0, cache.stats().loadCount());
+        ticker.addAndGet(50);
+        pending.complete(Optional.of("value1"));
+
+        // Assert
+        assertEquals(Optional.of("value1"), result.join());
+        assertEquals(1, cache.stats().loadSuccessCount());
+        assertEquals(50, cache.stats().totalLoadTime());
+    }
+
+    @Test
+    void testBulkLoadCountsOnce() {
+        // Arrange
+        SegmentedMemoryCache<Integer, String> cache = new SegmentedMemoryCache<>(4, 100,
+                LinkedLRUEvictionPolicy::new, preference);
+        cache.put(1, "one");
+
+        // Act
+        Map<Integer, String> values = cache.getAll(List.of(1, 2, 3, 4, 5), keys -> {
+            Map<Integer, String> loaded = new java.util.HashMap<>();
+            keys.forEach(key -> loaded.put(key, "v" + key));
+            return loaded;
+        });
+
+        // Assert
+        assertEquals(5, values.size());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(4, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(5, stats.estimatedSize());
+    }
+
+    @Test
+    void testEvictionsByCause() {
+        // Arrange
+        preference.setExpireAfterWrite(Duration.ofMinutes(1));
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(2), preference);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3"); // Evicts key1
+
+        // Act
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.cleanUp();
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.evictionCount(RemovalCause.SIZE));
+        assertEquals(2, stats.evictionCount(RemovalCause.EXPIRED));
+        assertEquals(0, stats.evictionCount(RemovalCause.EXPLICIT));
+        assertEquals(3, stats.evictionCount());
+        assertEquals(0, stats.estimatedSize());
+    }
+
+    @Test
+    void testWeightedSize() {
+        // Arrange
+        preference.setMaximumWeight(100);
+        preference.setWeigher((Object key, String value) -> value.length());
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+
+        // Act
+        cache.put("key1", "abc");
+        cache.put("key2", "abcdefg");
+
+        // Assert
+        assertEquals(10, cache.stats().weightedSize());
+        assertEquals(2, cache.stats().estimatedSize());
+    }
+
+    @Test
+    void testLoadLatencyHistogram() {
+        // Arrange
+        preference.setRecordStats(false);
+        preference.setRecordLoadLatency(true);
+        MemoryCacheImpl<Integer, Integer> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(1000), preference);
+
+        // Act
+        for (int i = 1; i <= 100; i++) {
+            long loadTime = i * 1_000L;
+            cache.get(i, key -> {
+                ticker.addAndGet(loadTime);
+                return Optional.of(key);
+            });
+        }
+
+        // Assert
+        LatencyHistogram.Snapshot latency = cache.stats().loadLatency();
+        assertEquals(100, latency.count());
+        assertEquals(50_000, latency.valueAtPercentile(50), 50_000 * 0.04);
+        assertEquals(99_000, latency.valueAtPercentile(99), 99_000 * 0.04);
+        assertEquals(100_000, latency.valueAtPercentile(100), 100_000 * 0.04);
+    }
+
+    @Test
+    void testDisabledStatsStayAtZero() {
+        // Arrange
+        preference.setRecordStats(false);
+        AtomicLong reads = new AtomicLong();
+        preference.setTicker(reads::incrementAndGet);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), preference);
+
+        // Act
+        cache.get("key1", key -> Optional.of("value1"));
+        cache.get("key1");
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(0, stats.requestCount());
+        assertEquals(0, stats.loadCount());
+        assertEquals(1, stats.estimatedSize());
+        assertEquals(0, reads.get()); // Loads were not timed
+    }
+}
@@ -3,7 +3,10 @@ package org.example.cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
@@ -13,12 +16,12 @@ import static org.junit.jupiter.api.Assertions.*;
 class MemoryCacheThreadSafeTest {
 
     private MemoryCacheImpl<String, String> cache;
-    private LRUEvictionPolicy<String> evictionPolicy;
+    private LinkedLRUEvictionPolicy<String> evictionPolicy;
 
     @BeforeEach
     void setUp() {
         // Use LRU Policy for thread safety tests
-        evictionPolicy = new LRUEvictionPolicy<>(5);
+        evictionPolicy = new LinkedLRUEvictionPolicy<>(5);
         cache = new MemoryCacheImpl<>(evictionPolicy); // Small capacity to force evictions
     }
 
@@ -97,4 +100,225 @@ class MemoryCacheThreadSafeTest {
             assertFalse(value.isPresent());
         });
     }
+
+    @Test
+    void testMaintenanceRunsOnConfiguredExecutor() {
+        // Arrange
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(2);
+        MemoryCacheImpl<String, String> deferred = new MemoryCacheImpl<>(policy, tasks::add);
+
+        // Act
+        deferred.put("key1", "value1");
+
+        // Assert
+        assertTrue(deferred.containsKey("key1")); // Visible at once, policy not yet updated
+        assertEquals(0, policy.size());
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertEquals(1, policy.size());
+    }
+
+    @Test
+    void testReadsDoNotWaitForTheEvictionLock() throws InterruptedException {
+        // Arrange
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(10) {
+            @Override
+            public void onAccess(String key) {
+                if (key.equals("blocker")) {
+                    locked.countDown();
+                    awaitQuietly(release); // The eviction lock is held meanwhile, with no drain pending
+                }
+                super.onAccess(key);
+            }
+        };
+        MemoryCacheImpl<String, String> blocking = new MemoryCacheImpl<>(policy);
+        blocking.put("blocker", "value");
+        blocking.put("key1", "value1");
+        Thread holder = new Thread(() -> blocking.replayAccesses("blocker", 1));
+        holder.start();
+        locked.await();
+
+        // Act & Assert
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 1_000; i++) { // Fills the reader's buffer stripe many times over
+                    assertEquals(Optional.of("value1"), blocking.get("key1"));
+                }
+            });
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        blocking.cleanUp(); // The drain the reads left pending
+        assertEquals(2, policy.size());
+        assertEquals(Optional.of("value1"), blocking.get("key1"));
+    }
+
+    @Test
+    void testPutOfEvictedKeyIsNotLost() {
+        // Arrange
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        LinkedLRUEvictionPolicy<String> policy = new LinkedLRUEvictionPolicy<>(1);
+        MemoryCacheImpl<String, String> deferred = new MemoryCacheImpl<>(policy, tasks::add);
+        deferred.put("A", "a1");
+        deferred.cleanUp();
+
+        // Act
+        // "B" will evict "A", but "A" is written again before maintenance sees either write
+        deferred.put("B", "b1");
+        deferred.put("A", "a2");
+        deferred.cleanUp();
+
+        // Assert
+        assertEquals(Optional.of("a2"), deferred.get("A"));
+        assertFalse(deferred.containsKey("B"));
+        assertEquals(1, policy.size());
+    }
+
+    @Test
+    void testConcurrentWritersKeepMapAndPolicyConsistent() throws InterruptedException {
+        // Arrange
+        int capacity = 100;
+        int keySpace = 1_000;
+        int threadCount = 8;
+        LinkedLRUEvictionPolicy<Integer> policy = new LinkedLRUEvictionPolicy<>(capacity);
+        MemoryCacheImpl<Integer, Integer> concurrent = new MemoryCacheImpl<>(policy, ForkJoinPool.commonPool());
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // Act
+        IntStream.range(0, threadCount).forEach(t -> executorService.execute(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(keySpace);
+                concurrent.put(key, key);
+                concurrent.get(random.nextInt(keySpace));
+            }
+        }));
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+        concurrent.cleanUp();
+
+        // Assert
+        long resident = IntStream.range(0, keySpace).filter(concurrent::containsKey).count();
+        assertEquals(capacity, resident);
+        assertEquals(capacity, policy.size());
+    }
+
+    @Test
+    void testConcurrentLoadsOfSameKeyCallLoaderOnce() throws InterruptedException {
+        // Arrange
+        int callerCount = 100;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(callerCount);
+        Queue<Optional<String>> results = new ConcurrentLinkedQueue<>();
+
+        // Act
+        IntStream.range(0, callerCount).forEach(i -> executorService.execute(() -> {
+            awaitQuietly(start);
+            results.add(cache.get("key", key -> {
+                loaderCalls.incrementAndGet();
+                sleepQuietly(50); // Keep the load in flight while the other callers arrive
+                return Optional.of("loaded");
+            }));
+        }));
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1, loaderCalls.get());
+        assertEquals(callerCount, results.size());
+        assertTrue(results.stream().allMatch(Optional.of("loaded")::equals));
+    }
+
+    @Test
+    void testConcurrentAsyncLoadsOfSameKeyCallLoaderOnce() throws Exception {
+        // Arrange
+        int callerCount = 100;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CompletableFuture<Optional<String>> pending = new CompletableFuture<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(callerCount);
+        Queue<CompletableFuture<Optional<String>>> futures = new ConcurrentLinkedQueue<>();
+
+        // Act
+        IntStream.range(0, callerCount).forEach(i -> executorService.execute(() -> {
+            awaitQuietly(start);
+            if (i % 2 == 0) {
+                futures.add(cache.getAsync("key", key -> {
+                    loaderCalls.incrementAndGet();
+                    return pending;
+                }));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> cache.get("key", key -> {
+                    loaderCalls.incrementAndGet();
+                    return pending.join();
+                })));
+            }
+        }));
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        pending.complete(Optional.of("loaded"));
+
+        // Assert
+        for (CompletableFuture<Optional<String>> future : futures) {
+            assertEquals(Optional.of("loaded"), future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loaderCalls.get());
+        assertEquals(Optional.of("loaded"), cache.get("key"));
+    }
+
+    @Test
+    void testFailedLoadIsSharedButNotCached() throws InterruptedException {
+        // Arrange
+        int callerCount = 20;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(callerCount);
+
+        // Act
+        IntStream.range(0, callerCount).forEach(i -> executorService.execute(() -> {
+            awaitQuietly(start);
+            try {
+                cache.get("key", key -> {
+                    loaderCalls.incrementAndGet();
+                    sleepQuietly(50);
+                    throw new IllegalStateException("backend down");
+                });
+            } catch (RuntimeException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                failures.incrementAndGet();
+            }
+        }));
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(callerCount, failures.get());
+        assertTrue(loaderCalls.get() < callerCount); // Callers arriving during a load share its failure
+        assertEquals(Optional.of("recovered"), cache.get("key", key -> Optional.of("recovered")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
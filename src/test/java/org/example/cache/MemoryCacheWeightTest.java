@@ -0,0 +1,237 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheWeightTest {
+
+    private CachePreference preference;
+
+    @BeforeEach
+    void setUp() {
+        preference = new CachePreference();
+        preference.setMaximumWeight(100);
+        preference.setWeigher((Object key, String value) -> value.length());
+    }
+
+    @Test
+    void testEvictsUntilUnderMaximumWeight() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        cache.put("key1", "a".repeat(40));
+        cache.put("key2", "b".repeat(40));
+
+        // Act
+        cache.put("key3", "c".repeat(50)); // 130 in total: the eldest must go
+
+        // Assert
+        assertFalse(cache.containsKey("key1"));
+        assertTrue(cache.containsKey("key2"));
+        assertTrue(cache.containsKey("key3"));
+        assertEquals(90, cache.weightedSize());
+    }
+
+    @Test
+    void testEvictsSeveralEntriesForOneHeavyEntry() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        IntStream.range(0, 10).forEach(i -> cache.put("key" + i, "v".repeat(10)));
+
+        // Act
+        cache.put("heavy", "h".repeat(75));
+
+        // Assert
+        assertEquals(2, IntStream.range(0, 10).filter(i -> cache.containsKey("key" + i)).count());
+        assertTrue(cache.containsKey("heavy"));
+        assertEquals(95, cache.weightedSize());
+    }
+
+    @Test
+    void testReplacingValueUpdatesWeight() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        cache.put("key1", "a".repeat(30));
+        cache.put("key2", "b".repeat(30));
+
+        // Act & Assert
+        cache.put("key1", "a".repeat(10)); // Shrinks
+        assertEquals(40, cache.weightedSize());
+
+        cache.put("key2", "b".repeat(95)); // Grows past the budget, "key1" is the eldest
+        assertFalse(cache.containsKey("key1"));
+        assertEquals("b".repeat(95), cache.get("key2").orElseThrow());
+        assertEquals(95, cache.weightedSize());
+    }
+
+    @Test
+    void testReplacementsBeforeMaintenanceAreAccounted() {
+        // Arrange
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        preference.setExecutor(tasks::add);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+
+        // Act
+        cache.put("key1", "a".repeat(10));
+        cache.put("key1", "a".repeat(20));
+        cache.cleanUp();
+        cache.put("key1", "a".repeat(30));
+        cache.put("key1", "a".repeat(40));
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(40, cache.weightedSize());
+    }
+
+    @Test
+    void testRemoveAndClearReleaseWeight() {
+        // Arrange
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        cache.put("key1", "a".repeat(30));
+        cache.put("key2", "b".repeat(30));
+        cache.put("key3", "c".repeat(30));
+
+        // Act & Assert
+        cache.remove("key1");
+        assertEquals(60, cache.weightedSize());
+        cache.clear();
+        assertEquals(0, cache.weightedSize());
+        cache.put("key4", "d".repeat(100)); // The full budget is available again
+        assertTrue(cache.containsKey("key4"));
+    }
+
+    @Test
+    void testClearRacingWithRemoveKeepsWeightConsistent() {
+        // Arrange
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        AtomicBoolean removeOnTick = new AtomicBoolean();
+        AtomicLong ticker = new AtomicLong();
+        AtomicReference<MemoryCacheImpl<String, String>> cacheReference = new AtomicReference<>();
+        CachePreference unweighted = new CachePreference();
+        unweighted.setExecutor(tasks::add);
+        unweighted.setTicker(() -> {
+            if (removeOnTick.getAndSet(false)) {
+                cacheReference.get().remove("key1"); // Lands between the maintenance and the clearing of the map
+            }
+            return ticker.get();
+        });
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), unweighted);
+        cacheReference.set(cache);
+        cache.put("key1", "value1");
+        cache.put("key2", "value2", Duration.ofMinutes(1));
+        cache.cleanUp();
+
+        // Act
+        removeOnTick.set(true);
+        cache.clear();
+        cache.cleanUp(); // Applies the removal queued during the clear
+
+        // Assert
+        assertFalse(removeOnTick.get());
+        assertEquals(0, cache.weightedSize());
+        assertEquals(0, cache.scheduledSize());
+        cache.put("key3", "value3");
+        cache.cleanUp();
+        assertEquals(1, cache.weightedSize());
+    }
+
+    @Test
+    void testExpirationReleasesWeight() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        preference.setTicker(ticker::get);
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        cache.put("key1", "a".repeat(60), Duration.ofSeconds(1));
+        cache.put("key2", "b".repeat(30));
+
+        // Act
+        ticker.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(30, cache.weightedSize());
+    }
+
+    @Test
+    void testEntryHeavierThanMaximumIsNotKept() {
+        MemoryCacheImpl<String, String> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(Integer.MAX_VALUE), preference);
+        cache.put("key1", "a".repeat(10));
+
+        cache.put("huge", "h".repeat(101));
+
+        assertFalse(cache.containsKey("huge"));
+        assertTrue(cache.weightedSize() <= 100);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void testEveryPolicyStaysWithinMaximumWeight(EvictionPolicy evictionPolicy) {
+        // Arrange
+        preference.setEvictionPolicy(evictionPolicy);
+        preference.setMaximumWeight(1_000);
+        MemoryCache<Integer, String> cache = new CacheProviderImpl().getCache(preference); // No capacity set
+
+        // Act
+        IntStream.range(0, 2_000).forEach(i -> {
+            cache.put(i % 300, "v".repeat(1 + i % 17));
+            cache.get(i % 7);
+        });
+        cache.cleanUp();
+
+        // Assert
+        long weight = IntStream.range(0, 300).filter(cache::containsKey)
+                .mapToLong(i -> cache.get(i).orElseThrow().length()).sum();
+        assertTrue(weight <= 1_000, "weight " + weight);
+        assertTrue(weight > 500, "evicted too much: " + weight);
+    }
+
+    @Test
+    void testSegmentsShareMaximumWeight() {
+        // Arrange
+        preference.setMaximumWeight(1_000);
+        SegmentedMemoryCache<Integer, String> cache = new SegmentedMemoryCache<>(4, Integer.MAX_VALUE,
+                LinkedLRUEvictionPolicy::new, preference);
+
+        // Act
+        IntStream.range(0, 1_000).forEach(i -> cache.put(i, "v".repeat(10)));
+
+        // Assert
+        long resident = IntStream.range(0, 1_000).filter(cache::containsKey).count();
+        assertTrue(resident <= 100);
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        CachePreference weigherOnly = new CachePreference();
+        weigherOnly.setWeigher((String key, String value) -> 1);
+        CachePreference negative = new CachePreference();
+        negative.setMaximumWeight(10);
+        negative.setWeigher((String key, String value) -> -1);
+        MemoryCacheImpl<String, String> negativeCache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), negative);
+
+        assertThrows(IllegalArgumentException.class, () -> preference.setMaximumWeight(0));
+        assertThrows(NullPointerException.class, () -> preference.setWeigher(null));
+        assertThrows(IllegalArgumentException.class, () -> new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(10), weigherOnly));
+        assertThrows(IllegalArgumentException.class, () -> negativeCache.put("key", "value"));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedMemoryCache<String, String>(20, 100,
+                LinkedLRUEvictionPolicy::new, withMaximumWeight(10)));
+    }
+
+    private static CachePreference withMaximumWeight(long maximumWeight) {
+        CachePreference preference = new CachePreference();
+        preference.setMaximumWeight(maximumWeight);
+        preference.setWeigher((String key, String value) -> 1);
+        return preference;
+    }
+}
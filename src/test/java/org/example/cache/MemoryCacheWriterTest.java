@@ -0,0 +1,273 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheWriterTest {
+    private final CacheProvider cacheProvider = new CacheProviderImpl();
+
+    @Test
+    void testWriteThrough() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference(store, null));
+
+        // Act
+        cache.put("key1", "value1");
+        cache.putAll(Map.of("key2", "value2"));
+        cache.remove("key1");
+        cache.invalidateAll(List.of("key2"));
+
+        // Assert
+        assertEquals(List.of("write key1=value1", "writeAll {key2=value2}", "delete key1", "deleteAll [key2]"),
+                store.operations);
+        assertTrue(store.values.isEmpty());
+    }
+
+    @Test
+    void testFailedWriteThroughLeavesCacheUnchanged() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference(store, null));
+        cache.put("key1", "value1");
+        store.failing = true;
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> cache.put("key1", "value2"));
+        assertThrows(IllegalStateException.class, () -> cache.remove("key1"));
+        assertEquals(Optional.of("value1"), cache.get("key1"));
+    }
+
+    @Test
+    void testLoadedValuesAreNotWritten() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference(store, null));
+
+        // Act
+        cache.get("key1", key -> Optional.of("loaded"));
+        cache.getAll(List.of("key2"), keys -> Map.of("key2", "loaded"));
+        cache.clear();
+
+        // Assert
+        assertTrue(store.operations.isEmpty());
+    }
+
+    @Test
+    void testWriteBehindCoalescesUpdates() throws InterruptedException {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        store.expectedBatches = new CountDownLatch(2); // The writes and the deletes of one batch
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference(store, Duration.ofMillis(50)));
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.put("key1", "value" + i);
+        }
+        cache.put("key2", "value");
+        cache.remove("key2");
+
+        // Assert
+        assertTrue(store.expectedBatches.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("writeAll {key1=value99}", "deleteAll [key2]"), store.operations);
+        assertEquals(Optional.of("value99"), cache.get("key1"));
+        cache.close();
+    }
+
+    @Test
+    void testWriteBehindFlushesFullBatches() throws InterruptedException {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        store.expectedBatches = new CountDownLatch(2);
+        CachePreference preference = preference(store, Duration.ofHours(1));
+        preference.setWriteBehindBatchSize(10);
+        MemoryCache<Integer, String> cache = cacheProvider.getCache(preference);
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        // Assert
+        assertTrue(store.expectedBatches.await(5, TimeUnit.SECONDS));
+        assertEquals(20, store.values.size()); // The last 5 wait for the delay
+        cache.close();
+        assertEquals(25, store.values.size());
+        assertEquals("value24", store.values.get(24));
+    }
+
+    @Test
+    void testWriteBehindFullQueueMakesWritersFlush() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        CachePreference preference = preference(store, Duration.ofHours(1));
+        preference.setWriteBehindBatchSize(100);
+        preference.setWriteBehindQueueCapacity(5);
+        MemoryCache<Integer, String> cache = cacheProvider.getCache(preference);
+
+        // Act
+        for (int i = 0; i < 12; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        // Assert
+        assertEquals(Set.of(Thread.currentThread().getName()), store.threads);
+        assertEquals(10, store.values.size()); // Two full queues were written by the caller
+        cache.close();
+        assertEquals(12, store.values.size());
+    }
+
+    @Test
+    void testCloseFlushesAndRejectsLaterWrites() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference(store, Duration.ofHours(1)));
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Act
+        cache.close();
+
+        // Assert
+        assertEquals(Map.of("key1", "value1", "key2", "value2"), store.values);
+        assertThrows(IllegalStateException.class, () -> cache.put("key3", "value3"));
+        assertEquals(Optional.of("value1"), cache.get("key1"));
+    }
+
+    @Test
+    void testMissServesUnwrittenValue() {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        CachePreference preference = preference(store, Duration.ofHours(1));
+        preference.setCapacity(1);
+        MemoryCache<String, String> cache = cacheProvider.getCache(preference);
+        AtomicInteger loads = new AtomicInteger();
+        cache.put("key1", "value1");
+        cache.put("key2", "value2"); // Evicts key1 before it is written
+        cache.remove("key2");
+        cache.cleanUp();
+
+        // Act
+        Optional<String> value1 = cache.get("key1", key -> {
+            loads.incrementAndGet();
+            return Optional.of("stale");
+        });
+        Map<String, String> values = cache.getAll(List.of("key2", "key3"), keys -> {
+            loads.incrementAndGet();
+            assertEquals(Set.of("key3"), keys);
+            return Map.of("key3", "value3");
+        });
+
+        // Assert
+        assertEquals(Optional.of("value1"), value1);
+        assertEquals(Map.of("key3", "value3"), values);
+        assertEquals(1, loads.get());
+        cache.close();
+    }
+
+    @Test
+    void testConcurrentWritersKeepStoreAndCacheInSync() throws InterruptedException {
+        // Arrange
+        RecordingWriter store = new RecordingWriter();
+        MemoryCache<Integer, String> cache = cacheProvider.getCache(preference(store, null));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    cache.put(i % 10, "thread" + thread + "-" + i);
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        for (int key = 0; key < 10; key++) {
+            assertEquals(Optional.of(store.values.get(key)), cache.get(key));
+        }
+    }
+
+    @Test
+    void testWriteBehindRequiresWriter() {
+        CachePreference preference = new CachePreference(EvictionPolicy.LRU, 10);
+        preference.setWriteBehindDelay(Duration.ofSeconds(1));
+
+        assertThrows(IllegalArgumentException.class, () -> cacheProvider.getCache(preference));
+        assertThrows(IllegalArgumentException.class, () -> preference.setWriteBehindBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> preference.setWriteBehindQueueCapacity(0));
+    }
+
+    private static CachePreference preference(CacheWriter<?, ?> writer, Duration writeBehindDelay) {
+        CachePreference preference = new CachePreference(EvictionPolicy.LRU, 100);
+        preference.setCacheWriter(writer);
+        if (writeBehindDelay != null) {
+            preference.setWriteBehindDelay(writeBehindDelay);
+        }
+        return preference;
+    }
+
+    /** Keeps the written values like a store would, and logs the calls it receives. */
+    private static final class RecordingWriter implements CacheWriter<Object, String> {
+        final Map<Object, String> values = new ConcurrentHashMap<>();
+        final List<String> operations = new CopyOnWriteArrayList<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        volatile boolean failing;
+        volatile CountDownLatch expectedBatches = new CountDownLatch(0);
+
+        @Override
+        public void write(Object key, String value) {
+            check();
+            operations.add("write " + key + "=" + value);
+            values.put(key, value);
+        }
+
+        @Override
+        public void delete(Object key) {
+            check();
+            operations.add("delete " + key);
+            values.remove(key);
+        }
+
+        @Override
+        public void writeAll(Map<?, ? extends String> entries) {
+            check();
+            operations.add("writeAll " + entries);
+            values.putAll(entries);
+            expectedBatches.countDown();
+        }
+
+        @Override
+        public void deleteAll(Collection<?> keys) {
+            check();
+            operations.add("deleteAll " + keys);
+            keys.forEach(values::remove);
+            expectedBatches.countDown();
+        }
+
+        private void check() {
+            threads.add(Thread.currentThread().getName());
+            if (failing) {
+                throw new IllegalStateException("Store unavailable");
+            }
+        }
+    }
+}
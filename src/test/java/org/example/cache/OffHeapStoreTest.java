@@ -0,0 +1,64 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStoreTest {
+
+    @Test
+    void testRoundTripAcrossBlocks() {
+        // Arrange
+        OffHeapStore store = new OffHeapStore(4096);
+        byte[] small = {1, 2, 3};
+        byte[] large = new byte[1000];
+        Arrays.fill(large, (byte) 7);
+        large[999] = 9;
+
+        // Act
+        int smallHead = store.allocate(small);
+        int largeHead = store.allocate(large);
+        int emptyHead = store.allocate(new byte[0]);
+
+        // Assert
+        assertArrayEquals(small, store.read(smallHead, small.length));
+        assertArrayEquals(large, store.read(largeHead, large.length));
+        assertArrayEquals(new byte[0], store.read(emptyHead, 0));
+    }
+
+    @Test
+    void testFreedBlocksAreReused() {
+        // Arrange
+        OffHeapStore store = new OffHeapStore(OffHeapStore.BLOCK_SIZE * 4L);
+        byte[] threeBlocks = new byte[150];
+        int head = store.allocate(threeBlocks);
+        assertEquals(-1, store.allocate(threeBlocks)); // Only one block left
+        assertFalse(store.hasRoom(150));
+
+        // Act
+        store.free(head, threeBlocks.length);
+
+        // Assert
+        assertTrue(store.hasRoom(200));
+        byte[] value = new byte[200];
+        value[199] = 42;
+        int reused = store.allocate(value);
+        assertNotEquals(-1, reused);
+        assertArrayEquals(value, store.read(reused, value.length));
+    }
+
+    @Test
+    void testFootprintCountsWholeBlocks() {
+        assertEquals(OffHeapStore.BLOCK_SIZE, OffHeapStore.footprint(0));
+        assertEquals(OffHeapStore.BLOCK_SIZE, OffHeapStore.footprint(60));
+        assertEquals(2L * OffHeapStore.BLOCK_SIZE, OffHeapStore.footprint(61));
+    }
+
+    @Test
+    void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStore(OffHeapStore.BLOCK_SIZE - 1));
+        assertEquals(OffHeapStore.BLOCK_SIZE * 2L, new OffHeapStore(OffHeapStore.BLOCK_SIZE * 2L + 10).capacity());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadBufferTest {
+
+    @Test
+    void testOfferAndDrain() {
+        // Arrange
+        ReadBuffer<String> buffer = new ReadBuffer<>();
+        List<String> drained = new ArrayList<>();
+
+        // Act
+        assertEquals(ReadBuffer.SUCCESS, buffer.offer("A"));
+        assertEquals(ReadBuffer.SUCCESS, buffer.offer("B"));
+        buffer.drainTo(drained::add);
+
+        // Assert
+        assertEquals(List.of("A", "B"), drained);
+    }
+
+    @Test
+    void testOfferReportsFullStripe() {
+        // Arrange
+        ReadBuffer<Integer> buffer = new ReadBuffer<>();
+        for (int i = 0; i < ReadBuffer.BUFFER_SIZE; i++) {
+            assertEquals(ReadBuffer.SUCCESS, buffer.offer(i));
+        }
+
+        // Act & Assert
+        assertEquals(ReadBuffer.FULL, buffer.offer(-1));
+        buffer.drainTo(event -> { });
+        assertEquals(ReadBuffer.SUCCESS, buffer.offer(-1));
+    }
+
+    @Test
+    void testConcurrentOffersAreNeverDuplicated() throws InterruptedException {
+        // Arrange
+        ReadBuffer<Integer> buffer = new ReadBuffer<>();
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger drained = new AtomicInteger();
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // Act
+        IntStream.range(0, threadCount).forEach(t -> executorService.execute(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (buffer.offer(i) == ReadBuffer.SUCCESS) {
+                    recorded.incrementAndGet();
+                }
+                if ((i & 0xff) == 0) {
+                    synchronized (buffer) {
+                        buffer.drainTo(event -> drained.incrementAndGet());
+                    }
+                }
+            }
+        }));
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        buffer.drainTo(event -> drained.incrementAndGet());
+
+        // Assert
+        assertEquals(recorded.get(), drained.get());
+    }
+}
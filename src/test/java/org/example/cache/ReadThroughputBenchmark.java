@@ -0,0 +1,89 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Measures cache-hit throughput with 1 to 64 reader threads.
+ * "synchronous" reproduces the read path before reads were buffered: every hit calls
+ * {@code onAccess} on the policy and therefore takes its monitor. "buffered" is the current
+ * {@link MemoryCacheImpl}. Both use {@link LinkedLRUEvictionPolicy} so the policy itself is O(1).
+ * Not part of the regular test run; execute with {@code mvn test -Pbenchmark}.
+ */
+class ReadThroughputBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int CAPACITY = 10_000;
+    private static final long WARMUP_MILLIS = 300;
+    private static final long MEASURE_MILLIS = 1_000;
+
+    @Test
+    void readThroughputByThreadCount() throws InterruptedException {
+        System.out.printf("%8s %18s %18s%n", "threads", "synchronous ops/s", "buffered ops/s");
+        for (int threads : THREADS) {
+            double synchronous = measure(threads, synchronousCache());
+            double buffered = measure(threads, bufferedCache());
+            System.out.printf("%8d %,18.0f %,18.0f%n", threads, synchronous, buffered);
+        }
+    }
+
+    private static Function<Integer, Optional<Integer>> synchronousCache() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        LinkedLRUEvictionPolicy<Integer> policy = new LinkedLRUEvictionPolicy<>(CAPACITY);
+        for (int key = 0; key < CAPACITY; key++) {
+            policy.onPut(key);
+            map.put(key, key);
+        }
+        return key -> {
+            Integer value = map.get(key);
+            if (value != null) {
+                policy.onAccess(key);
+            }
+            return Optional.ofNullable(value);
+        };
+    }
+
+    private static Function<Integer, Optional<Integer>> bufferedCache() {
+        MemoryCacheImpl<Integer, Integer> cache = new MemoryCacheImpl<>(new LinkedLRUEvictionPolicy<>(CAPACITY));
+        for (int key = 0; key < CAPACITY; key++) {
+            cache.put(key, key);
+        }
+        return cache::get;
+    }
+
+    private static double measure(int threads, Function<Integer, Optional<Integer>> reader)
+            throws InterruptedException {
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (running.get()) {
+                    reader.apply(random.nextInt(CAPACITY));
+                    if (measuring.get()) {
+                        count++;
+                    }
+                }
+                operations.add(count);
+                done.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(WARMUP_MILLIS);
+        measuring.set(true);
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        done.await();
+        return operations.sum() / (MEASURE_MILLIS / 1_000.0);
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedMemoryCacheTest {
+
+    @Test
+    void testCapacityIsDistributedAcrossSegments() {
+        // Arrange
+        List<Integer> capacities = new ArrayList<>();
+
+        // Act
+        new SegmentedMemoryCache<String, String>(4, 10, capacity -> {
+            capacities.add(capacity);
+            return new LinkedLRUEvictionPolicy<>(capacity);
+        }, Runnable::run);
+
+        // Assert
+        assertEquals(List.of(3, 3, 2, 2), capacities);
+    }
+
+    @Test
+    void testBasicOperations() {
+        // Arrange
+        SegmentedMemoryCache<String, String> cache = lruCache(4, 100);
+
+        // Act
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.remove("key2");
+
+        // Assert
+        assertEquals(Optional.of("value1"), cache.get("key1"));
+        assertTrue(cache.containsKey("key1"));
+        assertFalse(cache.containsKey("key2"));
+        assertEquals(Optional.of("loaded"), cache.get("key3", key -> Optional.of("loaded")));
+        assertTrue(cache.containsKey("key3"));
+
+        cache.clear();
+        assertFalse(cache.containsKey("key1"));
+        assertFalse(cache.containsKey("key3"));
+    }
+
+    @Test
+    void testKeysSpreadOverAllSegments() {
+        SegmentedMemoryCache<Integer, Integer> cache = new SegmentedMemoryCache<>(8, 8_000,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        long distinct = IntStream.range(0, 1_000).mapToObj(cache::segmentFor).distinct().count();
+        assertEquals(8, distinct);
+    }
+
+    @Test
+    void testSizeNeverExceedsCapacity() {
+        // Arrange
+        int capacity = 100;
+        SegmentedMemoryCache<Integer, Integer> cache = new SegmentedMemoryCache<>(4, capacity,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+
+        // Act
+        for (int key = 0; key < 10_000; key++) {
+            cache.put(key, key);
+        }
+
+        // Assert
+        long resident = IntStream.range(0, 10_000).filter(cache::containsKey).count();
+        assertTrue(resident <= capacity);
+    }
+
+    @Test
+    void testMostRecentShareOfCapacityIsAlwaysResident() {
+        // Arrange
+        int segments = 4;
+        int capacity = 400;
+        SegmentedMemoryCache<Integer, Integer> cache = new SegmentedMemoryCache<>(segments, capacity,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        List<Integer> recent = new ArrayList<>();
+        Random random = new Random(7);
+
+        // Act & Assert
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_000);
+            cache.put(key, key);
+            recent.remove(Integer.valueOf(key));
+            recent.add(key);
+            if (recent.size() > capacity / segments) {
+                recent.remove(0);
+            }
+        }
+        recent.forEach(key -> assertTrue(cache.containsKey(key), "recent key evicted: " + key));
+    }
+
+    @Test
+    void testConcurrentWritersAcrossSegments() throws InterruptedException {
+        // Arrange
+        int capacity = 200;
+        SegmentedMemoryCache<Integer, Integer> cache = new SegmentedMemoryCache<>(8, capacity,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // Act
+        IntStream.range(0, 8).forEach(t -> executorService.execute(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+                cache.put(random.nextInt(5_000), i);
+                cache.get(random.nextInt(5_000));
+            }
+        }));
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+        cache.cleanUp();
+
+        // Assert
+        long resident = IntStream.range(0, 5_000).filter(cache::containsKey).count();
+        assertEquals(capacity, resident);
+    }
+
+    @Test
+    void testGetAllLoadsMissesOfAllSegmentsInOneCall() {
+        // Arrange
+        SegmentedMemoryCache<Integer, Integer> cache = new SegmentedMemoryCache<>(8, 8_000,
+                LinkedLRUEvictionPolicy::new, Runnable::run);
+        List<Integer> keys = IntStream.range(0, 200).boxed().toList();
+        cache.putAll(keys.stream().filter(key -> key % 2 == 0).collect(Collectors.toMap(key -> key, key -> key)));
+        List<Set<Integer>> loaderCalls = new ArrayList<>();
+
+        // Act
+        Map<Integer, Integer> result = cache.getAll(keys, missing -> {
+            loaderCalls.add(Set.copyOf(missing));
+            return missing.stream().collect(Collectors.toMap(key -> key, key -> -key));
+        });
+
+        // Assert
+        assertEquals(1, loaderCalls.size());
+        assertEquals(100, loaderCalls.get(0).size());
+        assertEquals(keys, new ArrayList<>(result.keySet()));
+        keys.forEach(key -> assertEquals(key % 2 == 0 ? key : -key, result.get(key)));
+
+        cache.invalidateAll(keys);
+        assertTrue(keys.stream().noneMatch(cache::containsKey));
+    }
+
+    @Test
+    void testInvalidSegmentCount() {
+        assertThrows(IllegalArgumentException.class, () -> lruCache(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> lruCache(11, 10));
+    }
+
+    private static SegmentedMemoryCache<String, String> lruCache(int segments, int capacity) {
+        return new SegmentedMemoryCache<>(segments, capacity, LinkedLRUEvictionPolicy::new, Runnable::run);
+    }
+}
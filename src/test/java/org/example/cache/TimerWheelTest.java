@@ -0,0 +1,97 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private static final long START = -TimeUnit.DAYS.toNanos(1); // Tickers may start negative
+
+    @Test
+    void testExpiresOnlyDueNodes() {
+        // Arrange
+        TimerWheel<String, String> wheel = new TimerWheel<>(START);
+        wheel.schedule(node("A", START + TimeUnit.SECONDS.toNanos(5)));
+        wheel.schedule(node("B", START + TimeUnit.MINUTES.toNanos(5)));
+        List<String> expired = new ArrayList<>();
+
+        // Act
+        wheel.advance(START + TimeUnit.SECONDS.toNanos(10), node -> expired.add(node.key));
+
+        // Assert
+        assertEquals(List.of("A"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void testCascadesFromCoarseLevels() {
+        // Arrange
+        TimerWheel<String, String> wheel = new TimerWheel<>(START);
+        long[] delays = {
+                TimeUnit.SECONDS.toNanos(90), TimeUnit.MINUTES.toNanos(90),
+                TimeUnit.HOURS.toNanos(30), TimeUnit.DAYS.toNanos(10)};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule(node("key" + i, START + delays[i]));
+        }
+        List<String> expired = new ArrayList<>();
+
+        // Act & Assert
+        // Advancing in one-minute steps must fire each node shortly after its deadline, never before
+        long now = START;
+        long step = TimeUnit.MINUTES.toNanos(1);
+        while (expired.size() < delays.length) {
+            now += step;
+            long current = now;
+            wheel.advance(now, node -> {
+                assertTrue(node.expirationTime <= current, "expired early: " + node.key);
+                assertTrue(current - node.expirationTime < TimeUnit.MINUTES.toNanos(3), "expired late: " + node.key);
+                expired.add(node.key);
+            });
+        }
+        assertEquals(List.of("key0", "key1", "key2", "key3"), expired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void testReschedulesExtendedNode() {
+        // Arrange
+        TimerWheel<String, String> wheel = new TimerWheel<>(START);
+        MemoryCacheImpl.Node<String, String> node = node("A", START + TimeUnit.SECONDS.toNanos(5));
+        wheel.schedule(node);
+        List<String> expired = new ArrayList<>();
+
+        // Act
+        node.expirationTime = START + TimeUnit.SECONDS.toNanos(20); // e.g. extended by a read
+        wheel.advance(START + TimeUnit.SECONDS.toNanos(10), n -> expired.add(n.key));
+
+        // Assert
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.size());
+        wheel.advance(START + TimeUnit.SECONDS.toNanos(25), n -> expired.add(n.key));
+        assertEquals(List.of("A"), expired);
+    }
+
+    @Test
+    void testDeschedule() {
+        // Arrange
+        TimerWheel<String, String> wheel = new TimerWheel<>(START);
+        MemoryCacheImpl.Node<String, String> node = node("A", START + TimeUnit.SECONDS.toNanos(5));
+        wheel.schedule(node);
+
+        // Act
+        wheel.deschedule(node);
+        wheel.deschedule(node); // No-op once removed
+
+        // Assert
+        assertTrue(wheel.isEmpty());
+        wheel.advance(START + TimeUnit.SECONDS.toNanos(10), n -> fail("descheduled node expired"));
+    }
+
+    private static MemoryCacheImpl.Node<String, String> node(String key, long expirationTime) {
+        return new MemoryCacheImpl.Node<>(key, "value", expirationTime, expirationTime, false);
+    }
+}
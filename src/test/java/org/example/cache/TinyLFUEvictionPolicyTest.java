@@ -0,0 +1,197 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLFUEvictionPolicyTest {
+
+    @Test
+    void testFillsToCapacityWithoutEviction() {
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(3);
+        assertNull(policy.onPut("A"));
+        assertNull(policy.onPut("B"));
+        assertNull(policy.onPut("C"));
+        assertEquals(3, policy.size());
+        assertEquals(3, policy.getCapacity());
+    }
+
+    @Test
+    void testRejectsColdCandidate() {
+        // Arrange
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("A");
+        policy.onAccess("B");
+
+        // Act
+        // "D" enters the window and pushes "C" out; "C" was seen once while the probation
+        // victim "A" was seen twice, so "C" loses the admission contest
+        String evicted = policy.onPut("D");
+
+        // Assert
+        assertEquals("C", evicted);
+        assertEquals(3, policy.size());
+    }
+
+    @Test
+    void testAdmitsFrequentCandidate() {
+        // Arrange
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(3);
+        policy.onPut("A");
+        policy.onPut("B");
+        policy.onPut("C");
+        policy.onAccess("C");
+        policy.onAccess("C");
+
+        // Act
+        // "C" is pushed out of the window by "D" and is hotter than the probation victim "A"
+        String evicted = policy.onPut("D");
+
+        // Assert
+        assertEquals("A", evicted);
+        assertEquals(3, policy.size());
+    }
+
+    @Test
+    void testPutExistingKeyDoesNotEvict() {
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+        assertNull(policy.onPut("A"));
+        assertEquals(2, policy.size());
+    }
+
+    @Test
+    void testScanDoesNotFlushHotSet() {
+        // Arrange
+        int capacity = 100;
+        TinyLFUEvictionPolicy<Integer> policy = new TinyLFUEvictionPolicy<>(capacity);
+        Set<Integer> resident = new HashSet<>();
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < capacity; key++) {
+                if (resident.contains(key)) {
+                    policy.onAccess(key);
+                } else {
+                    track(resident, key, policy.onPut(key));
+                }
+            }
+        }
+
+        // Act
+        // A long scan of keys that are each seen exactly once, while the hot set stays in use
+        for (int key = 1_000; key < 11_000; key++) {
+            track(resident, key, policy.onPut(key));
+            int hot = key % capacity;
+            if (resident.contains(hot)) {
+                policy.onAccess(hot);
+            } else {
+                track(resident, hot, policy.onPut(hot));
+            }
+        }
+
+        // Assert
+        long hotSurvivors = resident.stream().filter(key -> key < capacity).count();
+        assertTrue(hotSurvivors >= capacity * 0.9, "hot keys retained: " + hotSurvivors);
+        assertEquals(capacity, policy.size());
+    }
+
+    @Test
+    void testTinyLFUConcurrentAccess() throws InterruptedException {
+        // Arrange
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(3);
+        Thread[] threads = new Thread[10];
+
+        // Act
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                policy.onPut("Key" + index);
+                policy.onAccess("Key" + index);
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(3, policy.size());
+    }
+
+    @Test
+    void testEvictEmptiesPolicy() {
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(Integer.MAX_VALUE);
+        for (int i = 0; i < 500; i++) {
+            policy.onPut("key" + i);
+        }
+
+        Set<String> evicted = new HashSet<>();
+        for (String key; (key = policy.evict()) != null; ) {
+            assertTrue(evicted.add(key));
+        }
+
+        assertEquals(500, evicted.size());
+        assertEquals(0, policy.size());
+    }
+
+    @Test
+    void testEvictProtectsFrequentKeysWhenUnbounded() {
+        // Arrange
+        // Unbounded by count, as when the cache is bounded by weight
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            policy.onPut("hot" + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                policy.onAccess("hot" + i);
+            }
+        }
+
+        // Act
+        // A scan of new keys, each followed by an eviction to stay at the same size
+        int hotEvicted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            policy.onPut("scan" + i);
+            if (policy.evict().startsWith("hot")) {
+                hotEvicted++;
+            }
+        }
+
+        // Assert
+        assertTrue(hotEvicted < 10, "hot keys evicted: " + hotEvicted);
+    }
+
+    @Test
+    void testOnRemove() {
+        TinyLFUEvictionPolicy<String> policy = new TinyLFUEvictionPolicy<>(2);
+        policy.onPut("A");
+        policy.onPut("B");
+
+        policy.onRemove("A");
+        policy.onRemove("unknown");
+
+        assertEquals(1, policy.size());
+        assertNull(policy.onPut("C")); // Room was freed, nothing to evict
+        assertEquals(2, policy.size());
+    }
+
+    @Test
+    void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TinyLFUEvictionPolicy<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new TinyLFUEvictionPolicy<>(-1));
+    }
+
+    private static void track(Set<Integer> resident, Integer added, Integer evicted) {
+        resident.add(added);
+        if (evicted != null) {
+            resident.remove(evicted);
+        }
+    }
+}
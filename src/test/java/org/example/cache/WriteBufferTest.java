@@ -0,0 +1,81 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBufferTest {
+
+    @Test
+    void testOfferAndPollInOrder() {
+        // Arrange
+        WriteBuffer<String> buffer = new WriteBuffer<>(4);
+
+        // Act
+        assertTrue(buffer.offer("A"));
+        assertTrue(buffer.offer("B"));
+
+        // Assert
+        assertEquals("A", buffer.poll());
+        assertEquals("B", buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void testOfferFailsWhenFull() {
+        // Arrange
+        WriteBuffer<Integer> buffer = new WriteBuffer<>(3); // Rounded up to 4
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // Act & Assert
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws InterruptedException {
+        // Arrange
+        WriteBuffer<Integer> buffer = new WriteBuffer<>(64);
+        Set<Integer> consumed = new HashSet<>();
+        int threadCount = 8;
+        int perThread = 5_000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // Act
+        IntStream.range(0, threadCount).forEach(t -> executorService.execute(() -> {
+            for (int i = 0; i < perThread; i++) {
+                int value = t * perThread + i;
+                while (!buffer.offer(value)) {
+                    synchronized (consumed) {
+                        drain(buffer, consumed);
+                    }
+                }
+            }
+        }));
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        synchronized (consumed) {
+            drain(buffer, consumed);
+        }
+
+        // Assert
+        assertEquals(threadCount * perThread, consumed.size());
+    }
+
+    private static void drain(WriteBuffer<Integer> buffer, Set<Integer> consumed) {
+        Integer value;
+        while ((value = buffer.poll()) != null) {
+            assertTrue(consumed.add(value));
+        }
+    }
+}